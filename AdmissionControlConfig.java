@@ -0,0 +1,109 @@
+package com.neighborfit.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Admission control for the REST API
+ * 
+ * Splits requests into lanes with their own concurrency limits and queues:
+ * <ul>
+ *   <li>{@code bulk}: all-users matching, bulk job submission and ANN recall measurement,
+ *       one at a time by default</li>
+ *   <li>{@code matching}: single-user matching and neighborhood rematch, limited to half
+ *       the JDBC pool so they cannot take every connection</li>
+ *   <li>{@code scan}: full-table reads, the user list and export, the unpaged strength
+ *       listing and recent matches, limited to a quarter of the JDBC pool</li>
+ *   <li>{@code read}: everything else, unbounded by default and never queued behind the
+ *       expensive lanes</li>
+ * </ul>
+ * Concurrency limits left at 0 are derived from the pool's maximum size, or
+ * from the core count when the data source is not a Hikari pool.
+ * Saturated lanes answer with 429 or 503 and {@code Retry-After} instead of
+ * piling up request threads, so cheap reads keep their latency under
+ * overload. Disabled with {@code neighborfit.admission.enabled=false}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "neighborfit.admission.enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class AdmissionControlConfig implements WebMvcConfigurer {
+    
+    static final String[] BULK_PATHS = {"/matching/all-users/**", "/matching/analytics/ann-recall"};
+    // Only submitting goes through the bulk lane; listing jobs on the same path is a cheap read
+    static final String[] BULK_SUBMIT_PATHS = {"/matching/jobs"};
+    static final String[] MATCHING_PATHS = {"/matching/users/*/matches", "/matching/neighborhoods/*/rematch"};
+    static final String[] SCAN_PATHS = {"/users", "/matching/strength/*", "/matching/recent"};
+    
+    private final AdmissionLane bulkLane;
+    private final AdmissionLane matchingLane;
+    private final AdmissionLane scanLane;
+    private final AdmissionLane readLane;
+    
+    public AdmissionControlConfig(MeterRegistry registry,
+                                  DataSource dataSource,
+                                  @Value("${neighborfit.admission.bulk.max-concurrent:1}") int bulkMaxConcurrent,
+                                  @Value("${neighborfit.admission.bulk.max-queue:0}") int bulkMaxQueue,
+                                  @Value("${neighborfit.admission.bulk.max-wait-ms:0}") long bulkMaxWaitMs,
+                                  @Value("${neighborfit.admission.bulk.retry-after-seconds:30}") long bulkRetryAfterSeconds,
+                                  @Value("${neighborfit.admission.matching.max-concurrent:0}") int matchingMaxConcurrent,
+                                  @Value("${neighborfit.admission.matching.max-queue:16}") int matchingMaxQueue,
+                                  @Value("${neighborfit.admission.matching.max-wait-ms:1000}") long matchingMaxWaitMs,
+                                  @Value("${neighborfit.admission.matching.retry-after-seconds:2}") long matchingRetryAfterSeconds,
+                                  @Value("${neighborfit.admission.scan.max-concurrent:0}") int scanMaxConcurrent,
+                                  @Value("${neighborfit.admission.scan.max-queue:4}") int scanMaxQueue,
+                                  @Value("${neighborfit.admission.scan.max-wait-ms:2000}") long scanMaxWaitMs,
+                                  @Value("${neighborfit.admission.scan.retry-after-seconds:10}") long scanRetryAfterSeconds,
+                                  @Value("${neighborfit.admission.read.max-concurrent:0}") int readMaxConcurrent,
+                                  @Value("${neighborfit.admission.read.max-queue:0}") int readMaxQueue,
+                                  @Value("${neighborfit.admission.read.max-wait-ms:0}") long readMaxWaitMs,
+                                  @Value("${neighborfit.admission.read.retry-after-seconds:1}") long readRetryAfterSeconds) {
+        // Every admitted request holds a pooled connection, so the lanes share out the pool and leave the rest to reads
+        int connections = dataSource instanceof HikariDataSource hikari
+                ? hikari.getMaximumPoolSize()
+                : Runtime.getRuntime().availableProcessors();
+        int matchingLimit = matchingMaxConcurrent > 0 ? matchingMaxConcurrent : Math.max(1, connections / 2);
+        int scanLimit = scanMaxConcurrent > 0 ? scanMaxConcurrent : Math.max(1, connections / 4);
+        this.bulkLane = new AdmissionLane("bulk", bulkMaxConcurrent, bulkMaxQueue,
+                Duration.ofMillis(bulkMaxWaitMs), Duration.ofSeconds(bulkRetryAfterSeconds), registry);
+        this.matchingLane = new AdmissionLane("matching", matchingLimit, matchingMaxQueue,
+                Duration.ofMillis(matchingMaxWaitMs), Duration.ofSeconds(matchingRetryAfterSeconds), registry);
+        this.scanLane = new AdmissionLane("scan", scanLimit, scanMaxQueue,
+                Duration.ofMillis(scanMaxWaitMs), Duration.ofSeconds(scanRetryAfterSeconds), registry);
+        this.readLane = new AdmissionLane("read", readMaxConcurrent, readMaxQueue,
+                Duration.ofMillis(readMaxWaitMs), Duration.ofSeconds(readRetryAfterSeconds), registry);
+        log.info("Admission control for {} connections: bulk={} concurrent/{} queued, matching={} concurrent/{} queued, "
+                        + "scan={} concurrent/{} queued, read={}",
+                connections, bulkMaxConcurrent, bulkMaxQueue, matchingLimit, matchingMaxQueue, scanLimit, scanMaxQueue,
+                readMaxConcurrent > 0 ? readMaxConcurrent + " concurrent" : "unbounded");
+    }
+    
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new AdmissionControlInterceptor(bulkLane))
+                .addPathPatterns(BULK_PATHS);
+        registry.addInterceptor(new AdmissionControlInterceptor(bulkLane, HttpMethod.POST.name()::equals))
+                .addPathPatterns(BULK_SUBMIT_PATHS);
+        registry.addInterceptor(new AdmissionControlInterceptor(matchingLane))
+                .addPathPatterns(MATCHING_PATHS);
+        registry.addInterceptor(new AdmissionControlInterceptor(scanLane))
+                .addPathPatterns(SCAN_PATHS);
+        registry.addInterceptor(new AdmissionControlInterceptor(readLane))
+                .addPathPatterns("/**")
+                .excludePathPatterns(BULK_PATHS)
+                .excludePathPatterns(BULK_SUBMIT_PATHS)
+                .excludePathPatterns(MATCHING_PATHS)
+                .excludePathPatterns(SCAN_PATHS);
+        registry.addInterceptor(new AdmissionControlInterceptor(readLane, method -> !HttpMethod.POST.name().equals(method)))
+                .addPathPatterns(BULK_SUBMIT_PATHS);
+    }
+}
@@ -0,0 +1,90 @@
+package com.neighborfit.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import java.util.Collections;
+import java.util.function.Predicate;
+
+/**
+ * Admits requests through an {@link AdmissionLane}
+ *
+ * A full queue is answered with 429 and a wait that runs out with 503,
+ * both carrying {@code Retry-After}. The permit is held until the request
+ * completes, including the asynchronous part of a streamed response,
+ * unless the handler gives it back early with {@link #releasePermits}.
+ * An interceptor may be limited to some HTTP methods, letting one path be
+ * split across lanes by method.
+ */
+@Slf4j
+public class AdmissionControlInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String PERMIT_ATTRIBUTE_PREFIX = AdmissionControlInterceptor.class.getName() + ".";
+
+    private final AdmissionLane lane;
+    private final Predicate<String> appliesToMethod;
+    private final String permitAttribute;
+
+    public AdmissionControlInterceptor(AdmissionLane lane) {
+        this(lane, method -> true);
+    }
+
+    public AdmissionControlInterceptor(AdmissionLane lane, Predicate<String> appliesToMethod) {
+        this.lane = lane;
+        this.appliesToMethod = appliesToMethod;
+        this.permitAttribute = PERMIT_ATTRIBUTE_PREFIX + lane.getName();
+    }
+
+    /**
+     * Give back the permits a request holds before it completes
+     *
+     * For handlers that go on to wait for work running under another
+     * request's permit, such as a match request coalesced with an identical
+     * one already in flight.
+     */
+    public static void releasePermits(HttpServletRequest request) {
+        for (String name : Collections.list(request.getAttributeNames())) {
+            if (name.startsWith(PERMIT_ATTRIBUTE_PREFIX) && request.getAttribute(name) instanceof AdmissionLane held) {
+                request.removeAttribute(name);
+                held.release();
+            }
+        }
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // The async dispatch that completes a streamed response already holds the permit
+        if (request.getAttribute(permitAttribute) != null || !appliesToMethod.test(request.getMethod())) {
+            return true;
+        }
+        AdmissionLane.Outcome outcome = lane.acquire();
+        if (outcome == AdmissionLane.Outcome.ADMITTED) {
+            request.setAttribute(permitAttribute, lane);
+            return true;
+        }
+        HttpStatus status = outcome == AdmissionLane.Outcome.QUEUE_FULL
+                ? HttpStatus.TOO_MANY_REQUESTS
+                : HttpStatus.SERVICE_UNAVAILABLE;
+        log.debug("Rejected {} {} from lane {}: {}", request.getMethod(), request.getRequestURI(), lane.getName(), outcome);
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, lane.getRetryAfter().toSeconds())));
+        return false;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // Keep the permit; it is released when the async dispatch completes
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (request.getAttribute(permitAttribute) != null) {
+            request.removeAttribute(permitAttribute);
+            lane.release();
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.neighborfit.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded concurrency limit with a bounded wait queue for one class of requests
+ *
+ * Up to {@code maxConcurrent} requests run at once; up to {@code maxQueue}
+ * more wait at most {@code maxWait} for a permit, in arrival order. Anything
+ * beyond that is turned away at once instead of tying up a request thread.
+ * A non-positive {@code maxConcurrent} leaves the lane unbounded, so it is
+ * only metered.
+ */
+public final class AdmissionLane {
+
+    /**
+     * Result of asking for a permit
+     */
+    public enum Outcome {
+        ADMITTED,
+        QUEUE_FULL,
+        TIMED_OUT
+    }
+
+    private final String name;
+    private final Semaphore permits;
+    private final int maxQueue;
+    private final long maxWaitNanos;
+    private final Duration retryAfter;
+
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final LongAdder admitted = new LongAdder();
+    private final LongAdder rejectedQueueFull = new LongAdder();
+    private final LongAdder rejectedTimedOut = new LongAdder();
+
+    public AdmissionLane(String name, int maxConcurrent, int maxQueue, Duration maxWait, Duration retryAfter,
+                         MeterRegistry registry) {
+        this.name = name;
+        this.permits = maxConcurrent > 0 ? new Semaphore(maxConcurrent, true) : null;
+        this.maxQueue = Math.max(0, maxQueue);
+        this.maxWaitNanos = Math.max(0, maxWait.toNanos());
+        this.retryAfter = retryAfter;
+
+        Gauge.builder("neighborfit.admission.active", active, AtomicInteger::get)
+                .description("Requests running in an admission lane")
+                .tag("lane", name)
+                .register(registry);
+        Gauge.builder("neighborfit.admission.queued", queued, AtomicInteger::get)
+                .description("Requests waiting for a permit in an admission lane")
+                .tag("lane", name)
+                .register(registry);
+        FunctionCounter.builder("neighborfit.admission.admitted", admitted, LongAdder::sum)
+                .description("Requests admitted by an admission lane")
+                .tag("lane", name)
+                .register(registry);
+        FunctionCounter.builder("neighborfit.admission.rejected", rejectedQueueFull, LongAdder::sum)
+                .description("Requests rejected by an admission lane")
+                .tags("lane", name, "reason", "queue_full")
+                .register(registry);
+        FunctionCounter.builder("neighborfit.admission.rejected", rejectedTimedOut, LongAdder::sum)
+                .description("Requests rejected by an admission lane")
+                .tags("lane", name, "reason", "timed_out")
+                .register(registry);
+    }
+
+    /**
+     * Take a permit, waiting in the queue if there is room; on {@link Outcome#ADMITTED} the caller must {@link #release()}
+     */
+    public Outcome acquire() {
+        if (permits == null) {
+            return admit();
+        }
+        try {
+            // A zero-timeout tryAcquire honours fairness, so newcomers cannot overtake queued requests
+            if (permits.tryAcquire(0, TimeUnit.NANOSECONDS)) {
+                return admit();
+            }
+            if (queued.incrementAndGet() > maxQueue) {
+                queued.decrementAndGet();
+                rejectedQueueFull.increment();
+                return Outcome.QUEUE_FULL;
+            }
+            try {
+                if (permits.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS)) {
+                    return admit();
+                }
+            } finally {
+                queued.decrementAndGet();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        rejectedTimedOut.increment();
+        return Outcome.TIMED_OUT;
+    }
+
+    /**
+     * Return a permit taken by {@link #acquire()}
+     */
+    public void release() {
+        active.decrementAndGet();
+        if (permits != null) {
+            permits.release();
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * How long rejected clients are told to wait before retrying
+     */
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+
+    public int getActive() {
+        return active.get();
+    }
+
+    public int getQueued() {
+        return queued.get();
+    }
+
+    private Outcome admit() {
+        active.incrementAndGet();
+        admitted.increment();
+        return Outcome.ADMITTED;
+    }
+}
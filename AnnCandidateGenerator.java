@@ -0,0 +1,334 @@
+package com.neighborfit.service;
+
+import com.neighborfit.model.User;
+import com.neighborfit.repository.UserRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Approximate nearest-neighbor candidate generation for matching
+ *
+ * Embeds every neighborhood in the current {@link NeighborhoodFeatureSnapshot}
+ * with a {@link FeatureEmbedder} and indexes the vectors in an
+ * {@link HnswIndex}. A single-user match request then embeds the user, takes
+ * the few hundred nearest neighborhoods by the user's weighted distance as
+ * candidates, and re-ranks only those with the production
+ * {@link ComponentScorer}. Below a configurable snapshot size exhaustive
+ * scoring is cheap enough that the index is not used.
+ *
+ * The index is built in the background. When the snapshot gains or loses
+ * rows, selection falls back to the exhaustive {@link TopKMatchSelector}
+ * until the new index is ready. When rows are only updated in place, the
+ * existing graph keeps serving: candidates may be slightly stale, but they
+ * are re-ranked against the current rows, and the graph is rebuilt at most
+ * once per stale-rebuild interval rather than on every update. Recall
+ * against the exhaustive selector, with the same scorer, can be measured
+ * over a random sample of users to tune candidate count and search breadth.
+ */
+@Service
+@Slf4j
+public class AnnCandidateGenerator {
+
+    private final NeighborhoodFeatureSnapshot featureSnapshot;
+    private final TopKMatchSelector exactSelector;
+    private final UserRepository userRepository;
+    private final ComponentScorer scorer;
+    private final boolean enabled;
+    private final int minNeighborhoods;
+    private final int m;
+    private final int efConstruction;
+    private final int efSearch;
+    private final int candidateCount;
+    private final long staleRebuildNanos;
+    private final ExecutorService builder;
+    private final AtomicBoolean building = new AtomicBoolean();
+
+    private volatile Index index;
+
+    /**
+     * Last columns found to have the same rows as the index, so the check runs once per snapshot
+     */
+    private volatile Compatible compatible;
+    private volatile double lastRecall = Double.NaN;
+
+    public AnnCandidateGenerator(NeighborhoodFeatureSnapshot featureSnapshot,
+                                 TopKMatchSelector exactSelector,
+                                 UserRepository userRepository,
+                                 ComponentScorer scorer,
+                                 MeterRegistry registry,
+                                 @Value("${neighborfit.ann.enabled:true}") boolean enabled,
+                                 @Value("${neighborfit.ann.min-neighborhoods:5000}") int minNeighborhoods,
+                                 @Value("${neighborfit.ann.m:16}") int m,
+                                 @Value("${neighborfit.ann.ef-construction:100}") int efConstruction,
+                                 @Value("${neighborfit.ann.ef-search:400}") int efSearch,
+                                 @Value("${neighborfit.ann.candidates:300}") int candidateCount,
+                                 @Value("${neighborfit.ann.stale-rebuild-interval-ms:60000}") long staleRebuildIntervalMs) {
+        this.featureSnapshot = featureSnapshot;
+        this.exactSelector = exactSelector;
+        this.userRepository = userRepository;
+        this.scorer = scorer;
+        this.enabled = enabled;
+        this.minNeighborhoods = minNeighborhoods;
+        this.m = m;
+        this.efConstruction = efConstruction;
+        this.efSearch = efSearch;
+        this.candidateCount = Math.max(1, candidateCount);
+        this.staleRebuildNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0L, staleRebuildIntervalMs));
+        this.builder = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ann-index-builder");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Gauge.builder("neighborfit.matching.ann.recall", this, generator -> generator.lastRecall)
+                .description("Recall@K of ANN candidates against exhaustive scoring, from the last measurement")
+                .register(registry);
+    }
+
+    /**
+     * Select the best {@code k} neighborhoods, scoring only ANN candidates when the index is ready
+     *
+     * Falls back to the exhaustive selector, scoring the {@code first} rows
+     * first, when ANN is disabled, the snapshot is small or no current index exists yet.
+     */
+    public TopKHeap.Ranked select(User user, NeighborhoodFeatureSnapshot.Columns columns,
+                                  ComponentScorer scorer, int k, long[] first) {
+        if (!enabled || columns.size() < minNeighborhoods || columns.size() <= candidateCount) {
+            return exactSelector.select(user, columns, scorer, k, first);
+        }
+        Index current = usable(columns);
+        if (current == null) {
+            return exactSelector.select(user, columns, scorer, k, first);
+        }
+        return rerank(current, columns, user, scorer, k, candidateCount, efSearch);
+    }
+
+    /**
+     * Snapshot indexes of the ANN candidates for a user, nearest first, or null while no current index exists
+     */
+    public int[] candidates(User user, int count) {
+        Index current = usable(featureSnapshot.current());
+        if (current == null) {
+            return null;
+        }
+        return current.hnsw().search(current.embedder().embed(user), current.embedder().weights(user),
+                count, Math.max(efSearch, count));
+    }
+
+    /**
+     * Measure recall@K of ANN re-ranking against exhaustive scoring over a random sample of users
+     *
+     * Runs on the task executor, building the index first if none can
+     * serve the current snapshot, so the caller's thread is not held.
+     * Invalid arguments complete the future with an {@link IllegalArgumentException}.
+     */
+    @Async
+    @Transactional(readOnly = true)
+    public CompletableFuture<RecallReport> measureRecall(int sampleSize, int k, int candidates, int ef) {
+        if (sampleSize <= 0 || k <= 0 || candidates < k) {
+            return CompletableFuture.failedFuture(
+                    new IllegalArgumentException("Sample size and k must be positive and candidates at least k"));
+        }
+        NeighborhoodFeatureSnapshot.Columns columns = featureSnapshot.current();
+        Index current = usable(columns);
+        if (current == null) {
+            current = build(columns);
+        }
+
+        List<User> users = userRepository.findAllById(sampleUserIds(sampleSize));
+        double recallSum = 0.0;
+        double minRecall = 1.0;
+        long exactNanos = 0;
+        long annNanos = 0;
+        for (User user : users) {
+            long start = System.nanoTime();
+            TopKHeap.Ranked exact = exactSelector.select(user, columns, scorer, k);
+            long middle = System.nanoTime();
+            TopKHeap.Ranked approximate = rerank(current, columns, user, scorer, k, candidates, ef);
+            long end = System.nanoTime();
+            exactNanos += middle - start;
+            annNanos += end - middle;
+
+            double recall = recall(exact, approximate);
+            recallSum += recall;
+            minRecall = Math.min(minRecall, recall);
+        }
+        int n = users.size();
+        double meanRecall = n > 0 ? recallSum / n : Double.NaN;
+        lastRecall = meanRecall;
+        RecallReport report = new RecallReport(n, k, candidates, ef, columns.size(), meanRecall,
+                n > 0 ? minRecall : Double.NaN,
+                n > 0 ? exactNanos / 1_000_000.0 / n : 0.0,
+                n > 0 ? annNanos / 1_000_000.0 / n : 0.0);
+        log.info("ANN recall@{} with {} candidates and ef {}: mean {}, min {} over {} users ({} ms exact vs {} ms ANN per user)",
+                k, candidates, ef, report.meanRecall(), report.minRecall(), n,
+                report.exactMillisPerUser(), report.annMillisPerUser());
+        return CompletableFuture.completedFuture(report);
+    }
+
+    /**
+     * Uniform random sample of user IDs, reservoir-sampled over keyset pages of IDs
+     */
+    private List<Long> sampleUserIds(int sampleSize) {
+        SplittableRandom random = new SplittableRandom();
+        List<Long> sample = new ArrayList<>(sampleSize);
+        long seen = 0;
+        long afterId = 0L;
+        List<Long> page;
+        while (!(page = userRepository.findNextIdsAfterId(afterId, PageRequest.of(0, 1_000))).isEmpty()) {
+            for (Long id : page) {
+                seen++;
+                if (sample.size() < sampleSize) {
+                    sample.add(id);
+                } else {
+                    long slot = random.nextLong(seen);
+                    if (slot < sampleSize) {
+                        sample.set((int) slot, id);
+                    }
+                }
+            }
+            afterId = page.get(page.size() - 1);
+        }
+        return sample;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        builder.shutdownNow();
+    }
+
+    /**
+     * Score the index's candidates against {@code columns}, which may have rows updated since the index was built
+     */
+    private TopKHeap.Ranked rerank(Index current, NeighborhoodFeatureSnapshot.Columns columns, User user,
+                                   ComponentScorer scorer, int k, int candidates, int ef) {
+        FeatureEmbedder embedder = current.embedder();
+        int[] ids = current.hnsw().search(embedder.embed(user), embedder.weights(user), candidates,
+                Math.max(ef, candidates));
+        ComponentScorer bound = scorer.forUser(user);
+        TopKHeap heap = new TopKHeap(Math.min(Math.max(k, 0), ids.length));
+        for (int id : ids) {
+            heap.offer(id, bound.score(user, columns, id));
+        }
+        return heap.drainRanked();
+    }
+
+    /**
+     * The index if it can serve the given columns, scheduling a rebuild when it is stale
+     *
+     * An index built from other columns with the same rows in the same order
+     * still serves, and is rebuilt once it is older than the stale-rebuild
+     * interval. Otherwise a rebuild starts and null is returned.
+     */
+    private Index usable(NeighborhoodFeatureSnapshot.Columns columns) {
+        Index current = index;
+        if (current != null && current.columns() == columns) {
+            return current;
+        }
+        if (current == null || !sameRows(current, columns)) {
+            buildAsync(columns);
+            return null;
+        }
+        if (System.nanoTime() - current.builtAtNanos() >= staleRebuildNanos) {
+            buildAsync(columns);
+        }
+        return current;
+    }
+
+    private boolean sameRows(Index current, NeighborhoodFeatureSnapshot.Columns columns) {
+        Compatible checked = compatible;
+        if (checked != null && checked.index() == current && checked.columns() == columns) {
+            return true;
+        }
+        if (!Arrays.equals(current.columns().ids, columns.ids)) {
+            return false;
+        }
+        compatible = new Compatible(current, columns);
+        return true;
+    }
+
+    private static double recall(TopKHeap.Ranked exact, TopKHeap.Ranked approximate) {
+        if (exact.size() == 0) {
+            return 1.0;
+        }
+        int hits = 0;
+        for (int e : exact.indexes()) {
+            for (int a : approximate.indexes()) {
+                if (a == e) {
+                    hits++;
+                    break;
+                }
+            }
+        }
+        return (double) hits / exact.size();
+    }
+
+    private void buildAsync(NeighborhoodFeatureSnapshot.Columns columns) {
+        if (building.compareAndSet(false, true)) {
+            builder.execute(() -> {
+                try {
+                    build(featureSnapshot.current());
+                } catch (RuntimeException e) {
+                    log.error("Failed to build ANN index: {}", e.getMessage());
+                } finally {
+                    building.set(false);
+                }
+            });
+        }
+    }
+
+    private synchronized Index build(NeighborhoodFeatureSnapshot.Columns columns) {
+        Index current = index;
+        if (current != null && current.columns() == columns) {
+            return current;
+        }
+        long start = System.nanoTime();
+        FeatureEmbedder embedder = FeatureEmbedder.fit(columns, scorer);
+        HnswIndex hnsw = new HnswIndex(columns.size(), m, efConstruction, 42L);
+        for (int i = 0; i < columns.size(); i++) {
+            hnsw.add(embedder.embed(columns, i));
+        }
+        Index built = new Index(columns, embedder, hnsw, System.nanoTime());
+        index = built;
+        log.info("Built ANN index over {} neighborhoods ({} dimensions) in {} ms",
+                columns.size(), embedder.dimension(), (System.nanoTime() - start) / 1_000_000);
+        return built;
+    }
+
+    /**
+     * Result of a recall measurement
+     */
+    public record RecallReport(int users,
+                               int k,
+                               int candidates,
+                               int efSearch,
+                               int neighborhoods,
+                               double meanRecall,
+                               double minRecall,
+                               double exactMillisPerUser,
+                               double annMillisPerUser) {
+    }
+
+    private record Index(NeighborhoodFeatureSnapshot.Columns columns, FeatureEmbedder embedder, HnswIndex hnsw,
+                         long builtAtNanos) {
+    }
+
+    private record Compatible(Index index, NeighborhoodFeatureSnapshot.Columns columns) {
+    }
+}
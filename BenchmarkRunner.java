@@ -0,0 +1,30 @@
+package com.neighborfit.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.results.format.ResultFormatType;
+
+/**
+ * Entry point for running the NeighborFit benchmarks
+ *
+ * Runs every benchmark class (or those matching the first argument as a
+ * regex) with the GC profiler enabled, so results include allocation rates
+ * next to ops/sec. Results are also written to {@code jmh-result.json} for
+ * comparison between releases.
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws RunnerException {
+        String include = args.length > 0 ? args[0] : "com\\.neighborfit\\.benchmark\\..*Benchmark.*";
+        Options options = new OptionsBuilder()
+                .include(include)
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result("jmh-result.json")
+                .build();
+        new Runner(options).run();
+    }
+}
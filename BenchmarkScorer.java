@@ -0,0 +1,103 @@
+package com.neighborfit.benchmark;
+
+import com.neighborfit.model.Neighborhood;
+import com.neighborfit.model.User;
+import com.neighborfit.service.ComponentScorer;
+import com.neighborfit.service.EnumBitmasks;
+import com.neighborfit.service.NeighborhoodFeatureSnapshot;
+
+/**
+ * Representative component scorer for benchmarks
+ *
+ * Exercises the same snapshot columns and arithmetic shape as production
+ * scoring (budget fit, lifestyle overlap, safety and walkability) so the
+ * benchmarks measure the engine rather than a trivial function. It is not
+ * the production matching algorithm. {@link #forUser} encodes the user's
+ * lifestyle preferences once, so the per-candidate cost matches production.
+ */
+public class BenchmarkScorer implements ComponentScorer {
+
+    @Override
+    public double weight(Component component) {
+        return switch (component) {
+            case LIFESTYLE -> 0.35;
+            case DEMOGRAPHIC -> 0.20;
+            case LOCATION -> 0.25;
+            case BUDGET -> 0.20;
+        };
+    }
+
+    @Override
+    public ComponentScorer forUser(User user) {
+        return new UserScorer(preferences(user));
+    }
+
+    @Override
+    public double componentScore(User user, NeighborhoodFeatureSnapshot.Columns columns, int index, Component component) {
+        return switch (component) {
+            case LIFESTYLE -> {
+                long preferences = preferences(user);
+                int wanted = Long.bitCount(preferences);
+                yield wanted == 0 ? 0.5 : (double) EnumBitmasks.overlap(preferences, columns.lifestyleMask[index]) / wanted;
+            }
+            case DEMOGRAPHIC -> {
+                double ageGap = Math.abs(user.getAge() - columns.medianAge[index]);
+                yield Double.isNaN(ageGap) ? 0.5 : Math.max(0.0, 1.0 - ageGap / 40.0);
+            }
+            case LOCATION -> {
+                double safety = columns.safetyScore[index] / 10.0;
+                double walk = columns.walkScore[index] / 100.0;
+                yield clamp(0.6 * safety + 0.4 * walk);
+            }
+            case BUDGET -> {
+                double value = columns.medianHomeValue[index];
+                if (value >= user.getMinBudget() && value <= user.getMaxBudget()) {
+                    yield 1.0;
+                }
+                double gap = value < user.getMinBudget() ? user.getMinBudget() - value : value - user.getMaxBudget();
+                yield clamp(1.0 - gap / user.getMaxBudget());
+            }
+        };
+    }
+
+    @Override
+    public double upperBound(User user, NeighborhoodFeatureSnapshot.Columns columns, Component component) {
+        if (component == Component.LIFESTYLE && preferences(user) == 0L) {
+            return 0.5;
+        }
+        return 1.0;
+    }
+
+    /**
+     * Neighborhood lifestyle characteristics named like the user's lifestyle preferences
+     */
+    long preferences(User user) {
+        return EnumBitmasks.encodeByName(user.getLifestylePreferences(), Neighborhood.LifestyleCharacteristic.class);
+    }
+
+    private static double clamp(double value) {
+        return Double.isNaN(value) ? 0.0 : Math.max(0.0, Math.min(1.0, value));
+    }
+
+    /**
+     * Scorer bound to one user's encoded lifestyle preferences
+     */
+    private static final class UserScorer extends BenchmarkScorer {
+
+        private final long preferences;
+
+        UserScorer(long preferences) {
+            this.preferences = preferences;
+        }
+
+        @Override
+        long preferences(User user) {
+            return preferences;
+        }
+
+        @Override
+        public ComponentScorer forUser(User user) {
+            return new UserScorer(super.preferences(user));
+        }
+    }
+}
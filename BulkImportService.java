@@ -0,0 +1,616 @@
+package com.neighborfit.service;
+
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.introspect.BeanPropertyDefinition;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.neighborfit.model.Neighborhood;
+import com.neighborfit.model.User;
+import com.neighborfit.repository.NeighborhoodRepository;
+import com.neighborfit.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Streaming bulk importer for neighborhood and user data
+ *
+ * Reads CSV or newline-delimited JSON files through a file channel, hands
+ * chunks of raw lines to a pool of parser threads, and persists the parsed
+ * rows in batches through the repositories, one transaction per batch. Only
+ * a bounded number of chunks is in flight at once, so memory use does not
+ * grow with the file size. In upsert mode, neighborhoods are matched on ZIP
+ * code and name and users on email, and only the properties present in the
+ * file are copied onto the existing rows; the others keep their values.
+ *
+ * CSV files need a header row naming entity properties, in camelCase or
+ * snake_case. Collection properties hold values separated by {@code ;} or
+ * {@code |}. Quoted fields may not span lines.
+ */
+@Service
+@Slf4j
+public class BulkImportService {
+
+    private static final int MAX_REPORTED_ERRORS = 100;
+    private static final long PROGRESS_LOG_INTERVAL = 100_000;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final NeighborhoodRepository neighborhoodRepository;
+    private final UserRepository userRepository;
+    private final NeighborhoodFeatureSnapshot featureSnapshot;
+    private final DataVersionRegistry versions;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int parallelism;
+    private final ExecutorService parsers;
+
+    private final Map<String, Progress> running = new ConcurrentHashMap<>();
+
+    public BulkImportService(NeighborhoodRepository neighborhoodRepository,
+                             UserRepository userRepository,
+                             NeighborhoodFeatureSnapshot featureSnapshot,
+                             DataVersionRegistry versions,
+                             ObjectMapper objectMapper,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${neighborfit.import.batch-size:${neighborfit.persistence.batch-size:500}}") int batchSize,
+                             @Value("${neighborfit.import.parallelism:0}") int parallelism) {
+        this.neighborhoodRepository = neighborhoodRepository;
+        this.userRepository = userRepository;
+        this.featureSnapshot = featureSnapshot;
+        this.versions = versions;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = Math.max(1, batchSize);
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threads = new AtomicInteger();
+        this.parsers = Executors.newFixedThreadPool(this.parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "bulk-import-parser-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * How imported rows are written
+     */
+    public enum Mode {
+        INSERT,
+        UPSERT
+    }
+
+    /**
+     * Import neighborhoods, matching existing rows on ZIP code and name in upsert mode
+     */
+    public ImportReport importNeighborhoods(Path file, Mode mode) throws IOException {
+        ImportReport report = importFile(file, mode, new EntityImport<>(
+                "neighborhoods",
+                Neighborhood.class,
+                BulkImportService::validateNeighborhood,
+                n -> n.getZipCode() + '\u0000' + n.getName(),
+                keys -> {
+                    Set<String> zipCodes = new HashSet<>();
+                    for (String key : keys) {
+                        zipCodes.add(key.substring(0, key.indexOf('\u0000')));
+                    }
+                    Map<String, Neighborhood> existing = new HashMap<>();
+                    for (Neighborhood n : neighborhoodRepository.findByZipCodeIn(zipCodes)) {
+                        existing.put(n.getZipCode() + '\u0000' + n.getName(), n);
+                    }
+                    return existing;
+                },
+                Neighborhood::getId,
+                neighborhoodRepository::saveAll));
+        if (report.inserted() + report.updated() > 0) {
+            featureSnapshot.rebuild();
+        }
+        return report;
+    }
+
+    /**
+     * Import users, matching existing rows on email in upsert mode
+     */
+    public ImportReport importUsers(Path file, Mode mode) throws IOException {
+        return importFile(file, mode, new EntityImport<>(
+                "users",
+                User.class,
+                BulkImportService::validateUser,
+                User::getEmail,
+                emails -> {
+                    Map<String, User> existing = new HashMap<>();
+                    for (User u : userRepository.findByEmailIn(emails)) {
+                        existing.put(u.getEmail(), u);
+                    }
+                    return existing;
+                },
+                User::getId,
+                userRepository::saveAll));
+    }
+
+    /**
+     * Progress of imports currently running
+     */
+    public List<Progress> getRunningImports() {
+        return new ArrayList<>(running.values());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        parsers.shutdownNow();
+    }
+
+    private <T> ImportReport importFile(Path file, Mode mode, EntityImport<T> entity) throws IOException {
+        Format format = Format.of(file);
+        Progress progress = new Progress(UUID.randomUUID().toString(), entity.name(), file.toString(), Instant.now());
+        running.put(progress.id, progress);
+        long start = System.nanoTime();
+        List<String> errors = new ArrayList<>();
+        // Two chunks per parser keeps every thread busy while the writer commits
+        int maxInFlight = parallelism * 2;
+        Deque<Future<ParsedChunk<T>>> inFlight = new ArrayDeque<>(maxInFlight);
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+             BufferedReader reader = new BufferedReader(
+                     Channels.newReader(channel, StandardCharsets.UTF_8.newDecoder(), 1 << 16), 1 << 20)) {
+            progress.totalBytes = channel.size();
+            LineParser parser = format == Format.CSV
+                    ? new CsvLineParser(reader.readLine(), entity.type())
+                    : new JsonLineParser();
+            long lineNumber = format == Format.CSV ? 1 : 0;
+
+            List<String> lines = new ArrayList<>(batchSize);
+            long firstLine = lineNumber + 1;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (lines.isEmpty()) {
+                    firstLine = lineNumber;
+                }
+                lines.add(line);
+                if (lines.size() == batchSize) {
+                    submit(inFlight, lines, firstLine, parser, entity);
+                    lines = new ArrayList<>(batchSize);
+                    if (inFlight.size() >= maxInFlight) {
+                        write(inFlight.removeFirst(), mode, entity, progress, errors);
+                    }
+                    progress.bytesRead = channel.position();
+                }
+            }
+            if (!lines.isEmpty()) {
+                submit(inFlight, lines, firstLine, parser, entity);
+            }
+            while (!inFlight.isEmpty()) {
+                write(inFlight.removeFirst(), mode, entity, progress, errors);
+            }
+            progress.bytesRead = progress.totalBytes;
+        } finally {
+            inFlight.forEach(future -> future.cancel(true));
+            running.remove(progress.id);
+        }
+
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        ImportReport report = new ImportReport(entity.name(), file.toString(), mode, progress.rowsRead,
+                progress.inserted, progress.updated, progress.rejected, elapsedMillis, errors);
+        log.info("Imported {} from {}: {} rows read, {} inserted, {} updated, {} rejected in {} ms ({} rows/s)",
+                entity.name(), file, report.rowsRead(), report.inserted(), report.updated(), report.rejected(),
+                elapsedMillis, Math.round(report.rowsPerSecond()));
+        return report;
+    }
+
+    private <T> void submit(Deque<Future<ParsedChunk<T>>> inFlight, List<String> lines, long firstLine,
+                            LineParser parser, EntityImport<T> entity) {
+        inFlight.addLast(parsers.submit(() -> parse(lines, firstLine, parser, entity)));
+    }
+
+    private <T> ParsedChunk<T> parse(List<String> lines, long firstLine, LineParser parser, EntityImport<T> entity) {
+        List<ParsedRow<T>> rows = new ArrayList<>(lines.size());
+        List<String> errors = new ArrayList<>();
+        for (int i = 0; i < lines.size(); i++) {
+            String error;
+            try {
+                ObjectNode fields = parser.parse(lines.get(i));
+                T row = objectMapper.treeToValue(fields, entity.type());
+                error = entity.validator().apply(row);
+                if (error == null) {
+                    rows.add(new ParsedRow<>(row, fields));
+                }
+            } catch (Exception e) {
+                error = e.getMessage();
+            }
+            if (error != null) {
+                errors.add("line " + (firstLine + i) + ": " + error);
+            }
+        }
+        return new ParsedChunk<>(rows, errors, lines.size());
+    }
+
+    private <T> void write(Future<ParsedChunk<T>> future, Mode mode, EntityImport<T> entity,
+                           Progress progress, List<String> errors) throws IOException {
+        ParsedChunk<T> chunk;
+        try {
+            chunk = future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Import of " + entity.name() + " interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Parsing " + entity.name() + " failed: " + e.getCause().getMessage(), e.getCause());
+        }
+
+        int[] counts = transactionTemplate.execute(status -> persist(chunk.rows(), mode, entity));
+        progress.rowsRead += chunk.lineCount();
+        progress.inserted += counts[0];
+        progress.updated += counts[1];
+        progress.rejected += chunk.errors().size();
+        for (String error : chunk.errors()) {
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(error);
+            }
+        }
+        if (progress.rowsRead / PROGRESS_LOG_INTERVAL != (progress.rowsRead - chunk.lineCount()) / PROGRESS_LOG_INTERVAL) {
+            log.info("Importing {}: {} rows, {}% of file, {} rows/s",
+                    entity.name(), progress.rowsRead, Math.round(progress.percentComplete()),
+                    Math.round(progress.rowsPerSecond()));
+        }
+    }
+
+    /**
+     * Save one batch and detach it; returns inserted and updated counts
+     */
+    private <T> int[] persist(List<ParsedRow<T>> rows, Mode mode, EntityImport<T> entity) {
+        List<T> inserts = new ArrayList<>(rows.size());
+        List<Long> updatedIds = new ArrayList<>();
+        if (mode == Mode.UPSERT) {
+            // Last row wins when a key repeats within the batch
+            Map<String, ParsedRow<T>> byKey = new LinkedHashMap<>();
+            for (ParsedRow<T> row : rows) {
+                byKey.put(entity.key().apply(row.entity()), row);
+            }
+            Map<String, T> existing = entity.existing().apply(byKey.keySet());
+            for (Map.Entry<String, ParsedRow<T>> entry : byKey.entrySet()) {
+                T managed = existing.get(entry.getKey());
+                if (managed != null) {
+                    copyPresentFields(entry.getValue().fields(), managed);
+                    updatedIds.add(entity.getId().apply(managed));
+                } else {
+                    inserts.add(entry.getValue().entity());
+                }
+            }
+        } else {
+            for (ParsedRow<T> row : rows) {
+                inserts.add(row.entity());
+            }
+        }
+        entity.saveAll().accept(inserts);
+        entityManager.flush();
+        entityManager.clear();
+        if (entity.type() == User.class) {
+            updatedIds.forEach(versions::userProfileChanged);
+        }
+        return new int[] {inserts.size(), updatedIds.size()};
+    }
+
+    /**
+     * Copy the properties a row sets onto a managed entity, leaving the rest untouched; the ID is never copied
+     */
+    private <T> void copyPresentFields(ObjectNode fields, T managed) {
+        fields.remove("id");
+        try {
+            objectMapper.readerForUpdating(managed).readValue(fields);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to update " + managed.getClass().getSimpleName(), e);
+        }
+    }
+
+    private static String validateNeighborhood(Neighborhood n) {
+        if (isBlank(n.getName()) || isBlank(n.getCity()) || isBlank(n.getState()) || isBlank(n.getZipCode())) {
+            return "name, city, state and zipCode are required";
+        }
+        if (n.getLatitude() != null && (n.getLatitude() < -90 || n.getLatitude() > 90)) {
+            return "latitude out of range: " + n.getLatitude();
+        }
+        if (n.getLongitude() != null && (n.getLongitude() < -180 || n.getLongitude() > 180)) {
+            return "longitude out of range: " + n.getLongitude();
+        }
+        if (n.getTotalPopulation() != null && n.getTotalPopulation() < 0) {
+            return "totalPopulation must not be negative";
+        }
+        if (n.getMedianIncome() != null && n.getMedianIncome() < 0) {
+            return "medianIncome must not be negative";
+        }
+        return null;
+    }
+
+    private static String validateUser(User u) {
+        if (isBlank(u.getName()) || isBlank(u.getEmail()) || u.getEmail().indexOf('@') < 1) {
+            return "name and a valid email are required";
+        }
+        if (u.getAge() != null && (u.getAge() < 0 || u.getAge() > 150)) {
+            return "age out of range: " + u.getAge();
+        }
+        if (u.getMinBudget() != null && u.getMaxBudget() != null && u.getMinBudget() > u.getMaxBudget()) {
+            return "minBudget exceeds maxBudget";
+        }
+        return null;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    private enum Format {
+        CSV,
+        NDJSON;
+
+        static Format of(Path file) {
+            String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+            if (name.endsWith(".csv")) {
+                return CSV;
+            }
+            if (name.endsWith(".ndjson") || name.endsWith(".jsonl") || name.endsWith(".json")) {
+                return NDJSON;
+            }
+            throw new IllegalArgumentException("Unsupported import file type: " + file.getFileName());
+        }
+    }
+
+    /**
+     * Parses a line into the properties it sets, so upserts can tell a missing property from an empty one
+     */
+    private interface LineParser {
+        ObjectNode parse(String line) throws IOException;
+    }
+
+    private final class JsonLineParser implements LineParser {
+
+        @Override
+        public ObjectNode parse(String line) throws IOException {
+            JsonNode node = objectMapper.readTree(line);
+            if (!(node instanceof ObjectNode fields)) {
+                throw new IOException("expected a JSON object");
+            }
+            return fields;
+        }
+    }
+
+    /**
+     * Maps CSV cells onto entity properties by header name; empty cells are left out
+     */
+    private final class CsvLineParser implements LineParser {
+
+        private final String[] properties;
+        private final boolean[] collections;
+
+        CsvLineParser(String header, Class<?> type) {
+            if (header == null) {
+                throw new IllegalArgumentException("CSV file has no header row");
+            }
+            JavaType javaType = objectMapper.constructType(type);
+            BeanDescription description = objectMapper.getDeserializationConfig().introspect(javaType);
+            Map<String, Boolean> known = new HashMap<>();
+            for (BeanPropertyDefinition property : description.findProperties()) {
+                known.put(property.getName(), property.getPrimaryType().isCollectionLikeType());
+            }
+            List<String> columns = splitCsv(header);
+            this.properties = new String[columns.size()];
+            this.collections = new boolean[columns.size()];
+            for (int i = 0; i < columns.size(); i++) {
+                String property = toCamelCase(columns.get(i).trim());
+                if (known.containsKey(property)) {
+                    properties[i] = property;
+                    collections[i] = known.get(property);
+                }
+            }
+        }
+
+        @Override
+        public ObjectNode parse(String line) {
+            List<String> cells = splitCsv(line);
+            ObjectNode node = objectMapper.createObjectNode();
+            for (int i = 0; i < properties.length && i < cells.size(); i++) {
+                String cell = cells.get(i).trim();
+                if (properties[i] == null || cell.isEmpty()) {
+                    continue;
+                }
+                if (collections[i]) {
+                    ArrayNode values = node.putArray(properties[i]);
+                    for (String value : cell.split("[;|]")) {
+                        if (!value.isBlank()) {
+                            values.add(value.trim());
+                        }
+                    }
+                } else {
+                    node.put(properties[i], cell);
+                }
+            }
+            return node;
+        }
+    }
+
+    static List<String> splitCsv(String line) {
+        List<String> cells = new ArrayList<>();
+        StringBuilder cell = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        cell.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    cell.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                cells.add(cell.toString());
+                cell.setLength(0);
+            } else {
+                cell.append(c);
+            }
+        }
+        cells.add(cell.toString());
+        return cells;
+    }
+
+    private static String toCamelCase(String column) {
+        if (column.indexOf('_') < 0) {
+            return column;
+        }
+        StringBuilder camel = new StringBuilder(column.length());
+        boolean upper = false;
+        for (char c : column.toLowerCase(Locale.ROOT).toCharArray()) {
+            if (c == '_') {
+                upper = camel.length() > 0;
+            } else {
+                camel.append(upper ? Character.toUpperCase(c) : c);
+                upper = false;
+            }
+        }
+        return camel.toString();
+    }
+
+    /**
+     * Summary of a finished import
+     */
+    public record ImportReport(String entity,
+                               String file,
+                               Mode mode,
+                               long rowsRead,
+                               long inserted,
+                               long updated,
+                               long rejected,
+                               long elapsedMillis,
+                               List<String> errors) {
+
+        public double rowsPerSecond() {
+            return elapsedMillis > 0 ? rowsRead * 1000.0 / elapsedMillis : 0.0;
+        }
+    }
+
+    /**
+     * Live progress of a running import
+     */
+    public static final class Progress {
+
+        private final String id;
+        private final String entity;
+        private final String file;
+        private final Instant startedAt;
+        private volatile long totalBytes;
+        private volatile long bytesRead;
+        private volatile long rowsRead;
+        private volatile long inserted;
+        private volatile long updated;
+        private volatile long rejected;
+
+        Progress(String id, String entity, String file, Instant startedAt) {
+            this.id = id;
+            this.entity = entity;
+            this.file = file;
+            this.startedAt = startedAt;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public String getEntity() {
+            return entity;
+        }
+
+        public String getFile() {
+            return file;
+        }
+
+        public Instant getStartedAt() {
+            return startedAt;
+        }
+
+        public long getRowsRead() {
+            return rowsRead;
+        }
+
+        public long getInserted() {
+            return inserted;
+        }
+
+        public long getUpdated() {
+            return updated;
+        }
+
+        public long getRejected() {
+            return rejected;
+        }
+
+        public double percentComplete() {
+            return totalBytes > 0 ? Math.min(100.0, bytesRead * 100.0 / totalBytes) : 0.0;
+        }
+
+        public double rowsPerSecond() {
+            long millis = Instant.now().toEpochMilli() - startedAt.toEpochMilli();
+            return millis > 0 ? rowsRead * 1000.0 / millis : 0.0;
+        }
+    }
+
+    private record ParsedRow<T>(T entity, ObjectNode fields) {
+    }
+
+    private record ParsedChunk<T>(List<ParsedRow<T>> rows, List<String> errors, int lineCount) {
+    }
+
+    private record EntityImport<T>(String name,
+                                   Class<T> type,
+                                   Function<T, String> validator,
+                                   Function<T, String> key,
+                                   Function<Collection<String>, Map<String, T>> existing,
+                                   Function<T, Long> getId,
+                                   Consumer<List<T>> saveAll) {
+    }
+}
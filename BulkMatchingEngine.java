@@ -0,0 +1,264 @@
+package com.neighborfit.service;
+
+import com.neighborfit.model.User;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Function;
+
+/**
+ * Parallel engine for matching many users against the neighborhood snapshot
+ *
+ * Users are split recursively into chunks that run on a work-stealing
+ * {@link ForkJoinPool}, and each user's best neighborhoods are picked by the
+ * {@link TopKMatchSelector}. Results are written into a slot per user, so the
+ * parallel and sequential paths produce identical output in input order.
+ * {@link #mapAll} runs any other per-user task on the same pool, in the
+ * same slot-per-user way.
+ */
+@Component
+@Slf4j
+public class BulkMatchingEngine {
+
+    private final TopKMatchSelector selector;
+    private final ForkJoinPool pool;
+    private final int chunkSize;
+
+    public BulkMatchingEngine(TopKMatchSelector selector,
+                              @Value("${neighborfit.matching.bulk.parallelism:0}") int parallelism,
+                              @Value("${neighborfit.matching.bulk.chunk-size:64}") int chunkSize) {
+        this.selector = selector;
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.pool = new ForkJoinPool(threads);
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+
+    /**
+     * Match all users in parallel
+     */
+    public BulkMatchingResult matchAll(List<User> users, NeighborhoodFeatureSnapshot.Columns columns,
+                                       NeighborhoodScorer scorer, int limitPerUser) {
+        return run(users, columns, scorer, limitPerUser, null, true);
+    }
+
+    /**
+     * Match all users in parallel, scoring each user's {@code firstRows} before the other rows
+     *
+     * See {@link TopKMatchSelector#select(User, NeighborhoodFeatureSnapshot.Columns, NeighborhoodScorer, int, long[])}.
+     */
+    public BulkMatchingResult matchAll(List<User> users, NeighborhoodFeatureSnapshot.Columns columns,
+                                       NeighborhoodScorer scorer, int limitPerUser,
+                                       Function<User, long[]> firstRows) {
+        return run(users, columns, scorer, limitPerUser, firstRows, true);
+    }
+
+    /**
+     * Match all users on the calling thread
+     *
+     * Produces exactly the same result as {@link #matchAll}; kept for verification.
+     */
+    public BulkMatchingResult matchAllSequential(List<User> users, NeighborhoodFeatureSnapshot.Columns columns,
+                                                 NeighborhoodScorer scorer, int limitPerUser) {
+        return run(users, columns, scorer, limitPerUser, null, false);
+    }
+
+    /**
+     * Apply a task to every item in parallel and return the results in input order
+     *
+     * Each item is its own task, since per-user work outside the snapshot
+     * waits on the database rather than the CPU.
+     */
+    public <T, R> List<R> mapAll(List<T> items, Function<T, R> task) {
+        Object[] results = new Object[items.size()];
+        pool.invoke(new MapChunk<>(items, task, results, 0, items.size()));
+        @SuppressWarnings("unchecked")
+        List<R> ordered = (List<R>) Arrays.asList(results);
+        return ordered;
+    }
+
+    /**
+     * Number of worker threads used by the parallel path
+     */
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    private BulkMatchingResult run(List<User> users, NeighborhoodFeatureSnapshot.Columns columns,
+                                   NeighborhoodScorer scorer, int limitPerUser,
+                                   Function<User, long[]> firstRows, boolean parallel) {
+        if (limitPerUser < 0) {
+            throw new IllegalArgumentException("Limit per user must not be negative: " + limitPerUser);
+        }
+        int k = Math.min(limitPerUser, columns.size());
+        TopKHeap.Ranked[] results = new TopKHeap.Ranked[users.size()];
+        long[] userNanos = new long[users.size()];
+        long start = System.nanoTime();
+
+        MatchChunk root = new MatchChunk(users, columns, scorer, firstRows, k, results, userNanos, 0, users.size());
+        if (parallel) {
+            pool.invoke(root);
+        } else {
+            root.matchRange(0, users.size());
+        }
+
+        long elapsedNanos = System.nanoTime() - start;
+        BulkMatchingResult result = new BulkMatchingResult(users, columns, results, userNanos, elapsedNanos);
+        log.debug("Matched {} users against {} neighborhoods in {} ms ({} users/sec, parallel={})",
+                users.size(), columns.size(), elapsedNanos / 1_000_000,
+                String.format("%.1f", result.usersPerSecond()), parallel);
+        return result;
+    }
+
+    private final class MatchChunk extends RecursiveAction {
+
+        private final List<User> users;
+        private final NeighborhoodFeatureSnapshot.Columns columns;
+        private final NeighborhoodScorer scorer;
+        private final Function<User, long[]> firstRows;
+        private final int k;
+        private final TopKHeap.Ranked[] results;
+        private final long[] userNanos;
+        private final int from;
+        private final int to;
+
+        MatchChunk(List<User> users, NeighborhoodFeatureSnapshot.Columns columns, NeighborhoodScorer scorer,
+                   Function<User, long[]> firstRows, int k, TopKHeap.Ranked[] results, long[] userNanos,
+                   int from, int to) {
+            this.users = users;
+            this.columns = columns;
+            this.scorer = scorer;
+            this.firstRows = firstRows;
+            this.k = k;
+            this.results = results;
+            this.userNanos = userNanos;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= chunkSize) {
+                matchRange(from, to);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new MatchChunk(users, columns, scorer, firstRows, k, results, userNanos, from, mid),
+                      new MatchChunk(users, columns, scorer, firstRows, k, results, userNanos, mid, to));
+        }
+
+        void matchRange(int start, int end) {
+            for (int u = start; u < end; u++) {
+                User user = users.get(u);
+                long userStart = System.nanoTime();
+                results[u] = selector.select(user, columns, scorer, k, firstRows != null ? firstRows.apply(user) : null);
+                userNanos[u] = System.nanoTime() - userStart;
+            }
+        }
+    }
+
+    private static final class MapChunk<T, R> extends RecursiveAction {
+
+        private final List<T> items;
+        private final Function<T, R> task;
+        private final Object[] results;
+        private final int from;
+        private final int to;
+
+        MapChunk(List<T> items, Function<T, R> task, Object[] results, int from, int to) {
+            this.items = items;
+            this.task = task;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= 1) {
+                if (from < to) {
+                    results[from] = task.apply(items.get(from));
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new MapChunk<>(items, task, results, from, mid),
+                      new MapChunk<>(items, task, results, mid, to));
+        }
+    }
+
+    /**
+     * Ranked neighborhoods per user plus throughput statistics
+     */
+    public static final class BulkMatchingResult {
+
+        private final List<User> users;
+        private final NeighborhoodFeatureSnapshot.Columns columns;
+        private final TopKHeap.Ranked[] results;
+        private final long[] userNanos;
+        private final long elapsedNanos;
+
+        BulkMatchingResult(List<User> users, NeighborhoodFeatureSnapshot.Columns columns,
+                           TopKHeap.Ranked[] results, long[] userNanos, long elapsedNanos) {
+            this.users = users;
+            this.columns = columns;
+            this.results = results;
+            this.userNanos = userNanos;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public int userCount() {
+            return users.size();
+        }
+
+        public User user(int position) {
+            return users.get(position);
+        }
+
+        /**
+         * Ranked snapshot indexes and scores for the user at the given position
+         */
+        public TopKHeap.Ranked ranked(int position) {
+            return results[position];
+        }
+
+        /**
+         * Snapshot the users were ranked against
+         */
+        public NeighborhoodFeatureSnapshot.Columns columns() {
+            return columns;
+        }
+
+        /**
+         * Neighborhood ID for a snapshot index in this result
+         */
+        public long neighborhoodId(int index) {
+            return columns.ids[index];
+        }
+
+        /**
+         * Time spent ranking the user at the given position, on whichever worker ranked it
+         */
+        public long userElapsedNanos(int position) {
+            return userNanos[position];
+        }
+
+        public long elapsedNanos() {
+            return elapsedNanos;
+        }
+
+        public double usersPerSecond() {
+            return elapsedNanos > 0 ? users.size() * 1_000_000_000.0 / elapsedNanos : 0.0;
+        }
+    }
+}
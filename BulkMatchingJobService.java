@@ -0,0 +1,375 @@
+package com.neighborfit.service;
+
+import com.neighborfit.dto.MatchSummaryDto;
+import com.neighborfit.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Service for running match generation for every user as a background job
+ *
+ * Submitting a job returns at once with its ID. The job ranks users a page
+ * at a time in ascending ID order and persists them in chunks of
+ * {@code neighborfit.jobs.chunk-size} users, one transaction per chunk,
+ * writing a checkpoint file after every chunk that records the last
+ * finished user ID. A job that was interrupted by a crash or restart is
+ * resumed from its checkpoint on startup, so finished chunks are not
+ * matched again. The one chunk that may have been committed just before
+ * the crash, without a checkpoint, is redone on resume in a transaction
+ * that first deletes the matches its users got since the job was
+ * submitted, so it is never persisted twice. Jobs can be cancelled between
+ * chunks.
+ */
+@Service
+@Slf4j
+public class BulkMatchingJobService {
+
+    private static final String CHECKPOINT_SUFFIX = ".checkpoint";
+
+    private final UserRepository userRepository;
+    private final SnapshotMatchingService matchingService;
+    private final DataVersionRegistry versions;
+    private final Path checkpointDir;
+    private final int pageSize;
+    private final int chunkSize;
+    private final boolean resumeOnStartup;
+    private final ExecutorService executor;
+
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+
+    public BulkMatchingJobService(UserRepository userRepository,
+                                  SnapshotMatchingService matchingService,
+                                  DataVersionRegistry versions,
+                                  @Value("${neighborfit.jobs.checkpoint-dir:${java.io.tmpdir}/neighborfit-jobs}") String checkpointDir,
+                                  @Value("${neighborfit.jobs.page-size:200}") int pageSize,
+                                  @Value("${neighborfit.jobs.chunk-size:50}") int chunkSize,
+                                  @Value("${neighborfit.jobs.max-concurrent:1}") int maxConcurrent,
+                                  @Value("${neighborfit.jobs.resume-on-startup:true}") boolean resumeOnStartup) {
+        this.userRepository = userRepository;
+        this.matchingService = matchingService;
+        this.versions = versions;
+        this.checkpointDir = Paths.get(checkpointDir);
+        this.pageSize = Math.max(1, pageSize);
+        this.chunkSize = Math.max(1, chunkSize);
+        this.resumeOnStartup = resumeOnStartup;
+        AtomicInteger threads = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(Math.max(1, maxConcurrent), runnable -> {
+            Thread thread = new Thread(runnable, "bulk-matching-job-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Resume jobs whose checkpoints show they had not finished
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!resumeOnStartup || !Files.isDirectory(checkpointDir)) {
+            return;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(checkpointDir, "*" + CHECKPOINT_SUFFIX)) {
+            for (Path file : files) {
+                Job job = readCheckpoint(file);
+                if (job != null && job.state.isActive()) {
+                    log.info("Resuming bulk matching job {} after user ID: {} ({} users already done)",
+                            job.id, job.lastUserId, job.usersDone);
+                    job.state = JobState.QUEUED;
+                    job.resumed = true;
+                    jobs.put(job.id, job);
+                    start(job);
+                } else if (job != null) {
+                    jobs.put(job.id, job);
+                }
+            }
+        } catch (IOException e) {
+            log.error("Failed to scan job checkpoints in {}: {}", checkpointDir, e.getMessage());
+        }
+    }
+
+    /**
+     * Submit a job that finds matches for every user
+     */
+    public JobProgress submit(int limitPerUser) {
+        if (limitPerUser <= 0) {
+            throw new IllegalArgumentException("Limit per user must be positive: " + limitPerUser);
+        }
+        Job job = new Job(UUID.randomUUID().toString(), limitPerUser, Instant.now());
+        jobs.put(job.id, job);
+        writeCheckpoint(job);
+        start(job);
+        log.info("Submitted bulk matching job {} with limit per user: {}", job.id, limitPerUser);
+        return job.progress();
+    }
+
+    /**
+     * Get the progress of a job
+     */
+    public Optional<JobProgress> getProgress(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId)).map(Job::progress);
+    }
+
+    /**
+     * Get the progress of every known job, newest first
+     */
+    public List<JobProgress> getAllProgress() {
+        List<JobProgress> progress = new ArrayList<>();
+        for (Job job : jobs.values()) {
+            progress.add(job.progress());
+        }
+        progress.sort(Comparator.comparing(JobProgress::submittedAt).reversed());
+        return progress;
+    }
+
+    /**
+     * Request cancellation of a job; it stops after the chunk in progress
+     */
+    public JobProgress cancel(String jobId) {
+        Job job = jobs.get(jobId);
+        if (job == null) {
+            throw new IllegalArgumentException("Job not found with ID: " + jobId);
+        }
+        job.cancelRequested = true;
+        synchronized (job) {
+            if (job.state == JobState.QUEUED) {
+                job.state = JobState.CANCELLED;
+                job.finishedAt = Instant.now();
+                writeCheckpoint(job);
+            }
+        }
+        log.info("Cancellation requested for bulk matching job {}", jobId);
+        return job.progress();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+        try {
+            executor.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void start(Job job) {
+        executor.execute(() -> run(job));
+    }
+
+    private void run(Job job) {
+        synchronized (job) {
+            if (job.state != JobState.QUEUED) {
+                return;
+            }
+            job.state = JobState.RUNNING;
+            job.startedAt = Instant.now();
+            job.usersDoneAtStart = job.usersDone;
+        }
+        job.totalUsers = userRepository.count();
+        // Only the first chunk after a restart can have been committed without a checkpoint
+        boolean replaceFirstChunk = job.resumed;
+        LocalDateTime submittedAt = LocalDateTime.ofInstant(job.submittedAt, ZoneId.systemDefault());
+        try {
+            BulkMatchingEngine.BulkMatchingResult page;
+            while ((page = matchingService.rankPage(job.lastUserId, pageSize, job.limitPerUser)) != null) {
+                for (int from = 0; from < page.userCount(); from += chunkSize) {
+                    if (job.cancelRequested || Thread.currentThread().isInterrupted()) {
+                        finish(job, job.cancelRequested ? JobState.CANCELLED : JobState.INTERRUPTED, null);
+                        return;
+                    }
+                    int to = Math.min(page.userCount(), from + chunkSize);
+                    List<MatchSummaryDto> matches = replaceFirstChunk
+                            ? matchingService.replaceRanked(page, from, to, submittedAt)
+                            : matchingService.persistRanked(page, from, to);
+                    replaceFirstChunk = false;
+                    for (int u = from; u < to; u++) {
+                        versions.userMatchesChanged(page.user(u).getId());
+                    }
+                    job.matchesFound += matches.size();
+                    completeChunk(job, to - from, page.user(to - 1).getId());
+                }
+                log.debug("Bulk matching job {} finished users up to ID: {}", job.id, job.lastUserId);
+            }
+            finish(job, JobState.COMPLETED, null);
+        } catch (Exception e) {
+            log.error("Bulk matching job {} failed after user ID {}: {}", job.id, job.lastUserId, e.getMessage());
+            finish(job, JobState.FAILED, e.getMessage());
+        }
+    }
+
+    private void completeChunk(Job job, int users, Long lastUserId) {
+        job.usersDone += users;
+        job.lastUserId = lastUserId;
+        writeCheckpoint(job);
+    }
+
+    private void finish(Job job, JobState state, String error) {
+        synchronized (job) {
+            job.state = state;
+            job.error = error;
+            job.finishedAt = Instant.now();
+            writeCheckpoint(job);
+        }
+        log.info("Bulk matching job {} {} after {} users ({} matches)",
+                job.id, state.name().toLowerCase(), job.usersDone, job.matchesFound);
+    }
+
+    /**
+     * Write the checkpoint to a temporary file and move it into place, so a crash never leaves a torn file
+     */
+    private void writeCheckpoint(Job job) {
+        Properties properties = new Properties();
+        properties.setProperty("id", job.id);
+        properties.setProperty("limitPerUser", Integer.toString(job.limitPerUser));
+        properties.setProperty("state", job.state.name());
+        properties.setProperty("lastUserId", Long.toString(job.lastUserId));
+        properties.setProperty("usersDone", Long.toString(job.usersDone));
+        properties.setProperty("matchesFound", Long.toString(job.matchesFound));
+        properties.setProperty("submittedAt", job.submittedAt.toString());
+        if (job.finishedAt != null) {
+            properties.setProperty("finishedAt", job.finishedAt.toString());
+        }
+        if (job.error != null) {
+            properties.setProperty("error", job.error);
+        }
+        try {
+            Files.createDirectories(checkpointDir);
+            Path target = checkpointDir.resolve(job.id + CHECKPOINT_SUFFIX);
+            Path temp = checkpointDir.resolve(job.id + CHECKPOINT_SUFFIX + ".tmp");
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                properties.store(out, "NeighborFit bulk matching job");
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.error("Failed to write checkpoint for bulk matching job {}: {}", job.id, e.getMessage());
+        }
+    }
+
+    private Job readCheckpoint(Path file) {
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(file)) {
+            properties.load(in);
+            Job job = new Job(properties.getProperty("id"),
+                    Integer.parseInt(properties.getProperty("limitPerUser")),
+                    Instant.parse(properties.getProperty("submittedAt")));
+            job.state = JobState.valueOf(properties.getProperty("state"));
+            job.lastUserId = Long.parseLong(properties.getProperty("lastUserId", "0"));
+            job.usersDone = Long.parseLong(properties.getProperty("usersDone", "0"));
+            job.matchesFound = Long.parseLong(properties.getProperty("matchesFound", "0"));
+            job.error = properties.getProperty("error");
+            String finishedAt = properties.getProperty("finishedAt");
+            job.finishedAt = finishedAt != null ? Instant.parse(finishedAt) : null;
+            return job;
+        } catch (IOException | RuntimeException e) {
+            log.warn("Ignoring unreadable job checkpoint {}: {}", file, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Lifecycle states of a bulk matching job
+     */
+    public enum JobState {
+        QUEUED,
+        RUNNING,
+        COMPLETED,
+        CANCELLED,
+        FAILED,
+        INTERRUPTED;
+
+        boolean isActive() {
+            return this == QUEUED || this == RUNNING || this == INTERRUPTED;
+        }
+    }
+
+    /**
+     * Point-in-time view of a job's progress
+     */
+    public record JobProgress(String jobId,
+                              JobState state,
+                              int limitPerUser,
+                              long usersDone,
+                              long totalUsers,
+                              long lastUserId,
+                              long matchesFound,
+                              double usersPerSecond,
+                              Long etaSeconds,
+                              Instant submittedAt,
+                              Instant startedAt,
+                              Instant finishedAt,
+                              String error) {
+
+        public double percentComplete() {
+            return totalUsers > 0 ? Math.min(100.0, usersDone * 100.0 / totalUsers) : 0.0;
+        }
+    }
+
+    private static final class Job {
+
+        final String id;
+        final int limitPerUser;
+        final Instant submittedAt;
+
+        volatile JobState state = JobState.QUEUED;
+        volatile boolean cancelRequested;
+        volatile boolean resumed;
+        volatile long lastUserId;
+        volatile long usersDone;
+        volatile long usersDoneAtStart;
+        volatile long matchesFound;
+        volatile long totalUsers;
+        volatile Instant startedAt;
+        volatile Instant finishedAt;
+        volatile String error;
+
+        Job(String id, int limitPerUser, Instant submittedAt) {
+            this.id = id;
+            this.limitPerUser = limitPerUser;
+            this.submittedAt = submittedAt;
+        }
+
+        JobProgress progress() {
+            double usersPerSecond = 0.0;
+            Long etaSeconds = null;
+            Instant started = startedAt;
+            if (started != null) {
+                Instant end = finishedAt != null ? finishedAt : Instant.now();
+                double seconds = Math.max(0.001, (end.toEpochMilli() - started.toEpochMilli()) / 1000.0);
+                // Throughput of this run only, so a resumed job is not credited with earlier work
+                usersPerSecond = (usersDone - usersDoneAtStart) / seconds;
+                if (state == JobState.RUNNING && usersPerSecond > 0) {
+                    etaSeconds = (long) Math.ceil(Math.max(0, totalUsers - usersDone) / usersPerSecond);
+                }
+            }
+            return new JobProgress(id, state, limitPerUser, usersDone, totalUsers, lastUserId, matchesFound,
+                    usersPerSecond, etaSeconds, submittedAt, started, finishedAt, error);
+        }
+    }
+}
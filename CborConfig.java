@@ -0,0 +1,59 @@
+package com.neighborfit.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.cbor.CBORGenerator;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * CBOR encoding for REST responses
+ * 
+ * Replaces Spring's default converter for {@code application/cbor}, which
+ * would otherwise answer first with a plain mapper, so any endpoint that
+ * returns a value rather than a stream answers in CBOR when the client sends
+ * {@code Accept: application/cbor}. The mapper comes from the application's
+ * Jackson builder, so it shares the JSON mapper's modules and settings and
+ * the DTO classes stay the single schema for both encodings. Doubles that
+ * fit a float without loss, as most scores do, are written in four bytes.
+ */
+@Configuration
+public class CborConfig implements WebMvcConfigurer {
+    
+    private final Jackson2ObjectMapperBuilder objectMapperBuilder;
+    
+    public CborConfig(Jackson2ObjectMapperBuilder objectMapperBuilder) {
+        this.objectMapperBuilder = objectMapperBuilder;
+    }
+    
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        MappingJackson2CborHttpMessageConverter cbor =
+                new MappingJackson2CborHttpMessageConverter(cborObjectMapper(objectMapperBuilder));
+        for (int i = 0; i < converters.size(); i++) {
+            if (converters.get(i) instanceof MappingJackson2CborHttpMessageConverter) {
+                // Taking the default's place keeps it after the JSON converter for clients accepting anything
+                converters.set(i, cbor);
+                return;
+            }
+        }
+        // Appended after the JSON converter so clients accepting anything still get JSON
+        converters.add(cbor);
+    }
+    
+    /**
+     * CBOR mapper configured like the application's JSON mapper
+     */
+    public static ObjectMapper cborObjectMapper(Jackson2ObjectMapperBuilder builder) {
+        CBORFactory factory = CBORFactory.builder()
+                .enable(CBORGenerator.Feature.WRITE_MINIMAL_INTS)
+                .enable(CBORGenerator.Feature.WRITE_MINIMAL_DOUBLES)
+                .build();
+        return builder.createXmlMapper(false).factory(factory).build();
+    }
+}
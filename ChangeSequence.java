@@ -0,0 +1,33 @@
+package com.neighborfit.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Named counter bumped by every transaction that changes the data it covers
+ *
+ * Lets caches persisted outside the database, such as the neighborhood
+ * snapshot file, tell whether rows were modified in place since they were
+ * written, which row counts and highest IDs cannot show.
+ */
+@Entity
+@Table(name = "change_sequence")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChangeSequence {
+
+    /**
+     * Sequence covering neighborhoods and their element collections
+     */
+    public static final String NEIGHBORHOODS = "neighborhoods";
+
+    @Id
+    @Column(name = "name", length = 64)
+    private String name;
+
+    @Column(name = "sequence_value", nullable = false)
+    private Long sequenceValue;
+}
\ No newline at end of file
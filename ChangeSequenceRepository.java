@@ -0,0 +1,25 @@
+package com.neighborfit.repository;
+
+import com.neighborfit.model.ChangeSequence;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+/**
+ * Repository interface for ChangeSequence entity
+ *
+ * Sequences are only read through here; they are bumped by
+ * NeighborhoodChangeTracker inside the transactions that change the data.
+ */
+@Repository
+public interface ChangeSequenceRepository extends JpaRepository<ChangeSequence, String> {
+
+    /**
+     * Find the current value of a sequence, empty until its data first changes
+     */
+    @Query("SELECT c.sequenceValue FROM ChangeSequence c WHERE c.name = :name")
+    Optional<Long> findValue(@Param("name") String name);
+}
\ No newline at end of file
@@ -0,0 +1,79 @@
+package com.neighborfit.service;
+
+import com.neighborfit.model.Match;
+import com.neighborfit.model.User;
+
+/**
+ * Neighborhood scorer built from weighted component scores
+ *
+ * The components are the same ones stored on a match. Implementations also
+ * give a per-user upper bound for each component. {@link TopKMatchSelector}
+ * uses these bounds to stop scoring candidates that cannot reach the top K.
+ */
+public interface ComponentScorer extends NeighborhoodScorer {
+
+    /**
+     * Score components, matching the component scores stored on a match
+     */
+    enum Component {
+        LIFESTYLE,
+        DEMOGRAPHIC,
+        LOCATION,
+        BUDGET
+    }
+
+    /**
+     * Weight of a component in the overall score
+     */
+    double weight(Component component);
+
+    /**
+     * Score one component of a user against the neighborhood at the given snapshot index
+     */
+    double componentScore(User user, NeighborhoodFeatureSnapshot.Columns columns, int index, Component component);
+
+    /**
+     * Upper bound of a component score for this user across every neighborhood in the snapshot
+     *
+     * Must never be lower than any value returned by {@link #componentScore}.
+     */
+    double upperBound(User user, NeighborhoodFeatureSnapshot.Columns columns, Component component);
+
+    /**
+     * Scorer for one user, with per-user values such as preference masks computed once
+     *
+     * Callers scoring many neighborhoods for the same user should score
+     * through the returned scorer. The default returns this scorer.
+     */
+    default ComponentScorer forUser(User user) {
+        return this;
+    }
+
+    /**
+     * Classify an overall score into a match strength
+     *
+     * Scores of at least 0.8 are {@code EXCELLENT}, 0.6 {@code GOOD} and
+     * 0.4 {@code FAIR}; anything lower, or NaN, is {@code POOR}.
+     */
+    default Match.MatchStrength strengthFor(double overallScore) {
+        if (overallScore >= 0.8) {
+            return Match.MatchStrength.EXCELLENT;
+        }
+        if (overallScore >= 0.6) {
+            return Match.MatchStrength.GOOD;
+        }
+        if (overallScore >= 0.4) {
+            return Match.MatchStrength.FAIR;
+        }
+        return Match.MatchStrength.POOR;
+    }
+
+    @Override
+    default double score(User user, NeighborhoodFeatureSnapshot.Columns columns, int index) {
+        double total = 0.0;
+        for (Component component : Component.values()) {
+            total += weight(component) * componentScore(user, columns, index, component);
+        }
+        return total;
+    }
+}
@@ -4,11 +4,14 @@ import com.neighborfit.model.Neighborhood;
 import com.neighborfit.model.User;
 import com.neighborfit.repository.NeighborhoodRepository;
 import com.neighborfit.repository.UserRepository;
+import com.neighborfit.service.BulkImportService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.stereotype.Component;
 
+import java.nio.file.Paths;
 import java.util.Arrays;
 import java.util.List;
 
@@ -16,7 +19,9 @@ import java.util.List;
  * Data initializer for populating the database with sample data
  * 
  * This component runs on application startup to create sample users
- * and neighborhoods for testing the matching algorithm.
+ * and neighborhoods for testing the matching algorithm. When
+ * {@code neighborfit.import.neighborhoods} or {@code neighborfit.import.users}
+ * points at a CSV or NDJSON file, that file is bulk imported instead.
  */
 @Component
 @RequiredArgsConstructor
@@ -25,16 +30,34 @@ public class DataInitializer implements CommandLineRunner {
     
     private final UserRepository userRepository;
     private final NeighborhoodRepository neighborhoodRepository;
+    private final BulkImportService bulkImportService;
+    
+    @Value("${neighborfit.import.neighborhoods:}")
+    private String neighborhoodsFile;
+    
+    @Value("${neighborfit.import.users:}")
+    private String usersFile;
+    
+    @Value("${neighborfit.import.mode:UPSERT}")
+    private BulkImportService.Mode importMode;
     
     @Override
     public void run(String... args) throws Exception {
         log.info("Initializing sample data...");
         
-        // Initialize sample neighborhoods
-        initializeNeighborhoods();
+        // Initialize neighborhoods from the import file, or sample neighborhoods
+        if (!neighborhoodsFile.isBlank()) {
+            bulkImportService.importNeighborhoods(Paths.get(neighborhoodsFile), importMode);
+        } else {
+            initializeNeighborhoods();
+        }
         
-        // Initialize sample users
-        initializeUsers();
+        // Initialize users from the import file, or sample users
+        if (!usersFile.isBlank()) {
+            bulkImportService.importUsers(Paths.get(usersFile), importMode);
+        } else {
+            initializeUsers();
+        }
         
         log.info("Sample data initialization completed!");
     }
@@ -0,0 +1,196 @@
+package com.neighborfit.service;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Monotonic version counters for data that derived state depends on
+ *
+ * Every change to a user's profile or matches bumps that user's version;
+ * neighborhood changes and bulk match runs bump global counters. Caches key
+ * their entries on a {@link Stamp}, so an entry built from older data can
+ * never be served again. The same counters back the {@link Validator}s used
+ * for HTTP conditional requests.
+ *
+ * Only users changed since startup have a counter, and a deleted user's
+ * counter is dropped. Users without one share a floor version, which every
+ * deletion raises above any user version handed out so far, so dropping a
+ * counter never makes a user's version go back to a value already served.
+ */
+@Component
+public class DataVersionRegistry {
+
+    // Counters restart at zero, so validators carry the instance start time to stay unique across restarts
+    private final long startedAt = System.currentTimeMillis();
+    private final String instanceId = Long.toString(startedAt, 36);
+
+    private final Map<Long, Counter> userVersions = new ConcurrentHashMap<>();
+    private final Counter usersWithoutCounter = new Counter(startedAt);
+    private final Counter neighborhoodVersion = new Counter(startedAt);
+    private final Counter matchEpoch = new Counter(startedAt);
+    private final Counter globalVersion = new Counter(startedAt);
+
+    /**
+     * Record a change to a user's profile
+     */
+    public long userProfileChanged(Long userId) {
+        return bumpUser(userId);
+    }
+
+    /**
+     * Record a user's deletion and drop the user's counter
+     */
+    public long userDeleted(Long userId) {
+        // Global versions are bumped with every user version, so this one exceeds them all
+        long floor = usersWithoutCounter.advanceTo(globalVersion.bump());
+        userVersions.remove(userId);
+        return floor;
+    }
+
+    /**
+     * Record new or updated matches for a single user
+     */
+    public long userMatchesChanged(Long userId) {
+        return bumpUser(userId);
+    }
+
+    /**
+     * Record a change to matches that may belong to any user
+     */
+    public long allMatchesChanged() {
+        globalVersion.bump();
+        return matchEpoch.bump();
+    }
+
+    /**
+     * Record a change to neighborhood data
+     */
+    public long neighborhoodsChanged() {
+        globalVersion.bump();
+        return neighborhoodVersion.bump();
+    }
+
+    /**
+     * Record a committed match write, whatever path made it
+     */
+    @EventListener
+    public void onMatchChanged(MatchChangedEvent event) {
+        if (event.before() != null && event.before().userId() != null) {
+            bumpUser(event.before().userId());
+        }
+        if (event.after() != null && event.after().userId() != null
+                && (event.before() == null || !event.after().userId().equals(event.before().userId()))) {
+            bumpUser(event.after().userId());
+        }
+    }
+
+    /**
+     * Current version of a single user's data
+     */
+    public long userVersion(Long userId) {
+        Counter version = userVersions.get(userId);
+        return version != null ? version.get() : usersWithoutCounter.get();
+    }
+
+    /**
+     * Combined version of everything a user's matches depend on
+     */
+    public Stamp stampFor(Long userId) {
+        return new Stamp(userVersion(userId), neighborhoodVersion.get(), matchEpoch.get());
+    }
+
+    /**
+     * Validator for responses derived from a single user's data and matches
+     */
+    public Validator userValidator(Long userId) {
+        Counter user = userVersions.get(userId);
+        // Times are read before versions, so a concurrent bump can only make the tag newer than the time
+        long lastModified = Math.max(user != null ? user.modifiedAt() : usersWithoutCounter.modifiedAt(),
+                Math.max(neighborhoodVersion.modifiedAt(), matchEpoch.modifiedAt()));
+        Stamp stamp = stampFor(userId);
+        return new Validator(instanceId + "-" + stamp.userVersion() + "." + stamp.neighborhoodVersion()
+                + "." + stamp.matchEpoch(), httpLastModified(lastModified));
+    }
+
+    /**
+     * Validator for responses that may depend on any user's data or matches
+     */
+    public Validator globalValidator() {
+        long lastModified = globalVersion.modifiedAt();
+        return new Validator(instanceId + "-g" + globalVersion.get(), httpLastModified(lastModified));
+    }
+
+    /**
+     * Last-Modified value for a modification time, or -1 while that second is still running
+     *
+     * HTTP dates have one-second resolution. A later change in the same
+     * second would carry the same date, and a client revalidating by date
+     * alone would get a 304 for its stale copy, so no date is given until
+     * the second has passed.
+     */
+    private static long httpLastModified(long modifiedAt) {
+        long second = modifiedAt - Math.floorMod(modifiedAt, 1000L);
+        return System.currentTimeMillis() >= second + 1000L ? second : -1L;
+    }
+
+    private long bumpUser(Long userId) {
+        globalVersion.bump();
+        return userVersions.computeIfAbsent(userId,
+                id -> new Counter(usersWithoutCounter.modifiedAt(), usersWithoutCounter.get())).bump();
+    }
+
+    /**
+     * Point-in-time versions a cached value was derived from
+     */
+    public record Stamp(long userVersion, long neighborhoodVersion, long matchEpoch) {
+    }
+
+    /**
+     * Strong entity tag and last-modified time of the data behind a response
+     *
+     * The time is in epoch milliseconds truncated to whole seconds, or -1
+     * when no date can be given yet.
+     */
+    public record Validator(String eTag, long lastModified) {
+    }
+
+    private static final class Counter {
+
+        private final AtomicLong version = new AtomicLong();
+        private volatile long modifiedAt;
+
+        Counter(long createdAt) {
+            this(createdAt, 0L);
+        }
+
+        Counter(long createdAt, long initialVersion) {
+            this.modifiedAt = createdAt;
+            this.version.set(initialVersion);
+        }
+
+        long bump() {
+            modifiedAt = System.currentTimeMillis();
+            return version.incrementAndGet();
+        }
+
+        /**
+         * Raise the version to at least {@code floor}
+         */
+        long advanceTo(long floor) {
+            modifiedAt = System.currentTimeMillis();
+            return version.accumulateAndGet(floor, Math::max);
+        }
+
+        long get() {
+            return version.get();
+        }
+
+        long modifiedAt() {
+            return modifiedAt;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.neighborfit.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Encoding of enum sets as 64-bit masks
+ *
+ * Bit {@code i} is set when the enum constant with ordinal {@code i} is
+ * present, so set operations and overlap counts become single word
+ * operations. Only enums with at most 64 constants can be encoded.
+ */
+public final class EnumBitmasks {
+
+    private EnumBitmasks() {
+    }
+
+    /**
+     * Encode a collection of enum values as a bitmask; null or empty gives 0
+     */
+    public static <E extends Enum<E>> long encode(Collection<E> values) {
+        if (values == null) {
+            return 0L;
+        }
+        long mask = 0L;
+        for (E value : values) {
+            if (value != null) {
+                mask |= bit(value);
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Encode values as a bitmask over the constants of another enum with the same names
+     *
+     * Values with no constant of the same name in {@code target} are ignored.
+     */
+    public static <E extends Enum<E>> long encodeByName(Collection<? extends Enum<?>> values, Class<E> target) {
+        if (values == null) {
+            return 0L;
+        }
+        long mask = 0L;
+        for (Enum<?> value : values) {
+            if (value == null) {
+                continue;
+            }
+            for (E constant : target.getEnumConstants()) {
+                if (constant.name().equals(value.name())) {
+                    mask |= bit(constant);
+                    break;
+                }
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Bit for a single enum value
+     */
+    public static long bit(Enum<?> value) {
+        int ordinal = value.ordinal();
+        if (ordinal >= Long.SIZE) {
+            throw new IllegalArgumentException("Enum " + value.getDeclaringClass().getSimpleName()
+                    + " has too many constants for a 64-bit mask");
+        }
+        return 1L << ordinal;
+    }
+
+    /**
+     * Decode a bitmask back into enum values, in ordinal order
+     */
+    public static <E extends Enum<E>> List<E> decode(long mask, Class<E> type) {
+        E[] constants = type.getEnumConstants();
+        List<E> values = new ArrayList<>(Long.bitCount(mask));
+        while (mask != 0) {
+            int ordinal = Long.numberOfTrailingZeros(mask);
+            values.add(constants[ordinal]);
+            mask &= mask - 1;
+        }
+        return values;
+    }
+
+    /**
+     * Number of values present in both masks
+     */
+    public static int overlap(long a, long b) {
+        return Long.bitCount(a & b);
+    }
+
+    /**
+     * Check whether every value in {@code required} is present in {@code mask}
+     */
+    public static boolean containsAll(long mask, long required) {
+        return (mask & required) == required;
+    }
+}
@@ -0,0 +1,176 @@
+package com.neighborfit.service;
+
+import com.neighborfit.model.Neighborhood;
+import com.neighborfit.model.User;
+
+/**
+ * Maps neighborhoods and users into one vector space for candidate generation
+ *
+ * The dimensions follow the inputs of {@link PreferenceScorer}: median age,
+ * home value, safety, walk, transit and school scores, commute time, and one
+ * 0/1 dimension per lifestyle characteristic. Numeric features are
+ * standardized with the mean and deviation of the snapshot they were fitted
+ * on. A user is embedded as their ideal neighborhood: their age and budget,
+ * the snapshot's best value for features where more is always better, and
+ * every lifestyle characteristic they want.
+ *
+ * Distance is measured with per-user weights from {@link #weights(User)}.
+ * Dimensions the scorer ignores for a user, such as walk score for a transit
+ * rider or schools for a household without children, get weight zero, so
+ * they neither help nor hurt. The remaining weights split each component's
+ * weight in the scorer the way the scorer splits it.
+ */
+public final class FeatureEmbedder {
+
+    private static final int NUMERIC = 7;
+    private static final int AGE = 0;
+    private static final int HOME_VALUE = 1;
+    private static final int SAFETY = 2;
+    private static final int WALK = 3;
+    private static final int TRANSIT = 4;
+    private static final int SCHOOL = 5;
+    private static final int COMMUTE = 6;
+
+    private static final int LIFESTYLES = Neighborhood.LifestyleCharacteristic.values().length;
+
+    private final ComponentScorer scorer;
+    private final double[] mean = new double[NUMERIC];
+    private final double[] deviation = new double[NUMERIC];
+    private final float[] best = new float[NUMERIC];
+
+    private FeatureEmbedder(ComponentScorer scorer) {
+        this.scorer = scorer;
+    }
+
+    /**
+     * Fit feature statistics on a snapshot; the scorer may be null for equal component weights
+     */
+    public static FeatureEmbedder fit(NeighborhoodFeatureSnapshot.Columns columns, ComponentScorer scorer) {
+        FeatureEmbedder embedder = new FeatureEmbedder(scorer);
+        int n = columns.size();
+        for (int d = 0; d < NUMERIC; d++) {
+            double sum = 0.0;
+            double sumSquares = 0.0;
+            double min = Double.POSITIVE_INFINITY;
+            double max = Double.NEGATIVE_INFINITY;
+            int count = 0;
+            for (int i = 0; i < n; i++) {
+                double value = raw(columns, i, d);
+                if (!Double.isNaN(value)) {
+                    sum += value;
+                    sumSquares += value * value;
+                    min = Math.min(min, value);
+                    max = Math.max(max, value);
+                    count++;
+                }
+            }
+            double mean = count > 0 ? sum / count : 0.0;
+            double variance = count > 0 ? sumSquares / count - mean * mean : 0.0;
+            embedder.mean[d] = mean;
+            embedder.deviation[d] = variance > 1e-12 ? Math.sqrt(variance) : 1.0;
+            // Shorter commutes are better; every other monotone feature is better when higher
+            embedder.best[d] = count > 0 ? embedder.standardize(d, d == COMMUTE ? min : max) : 0.0f;
+        }
+        return embedder;
+    }
+
+    /**
+     * Number of dimensions of every vector
+     */
+    public int dimension() {
+        return NUMERIC + LIFESTYLES;
+    }
+
+    /**
+     * Embed the neighborhood at a snapshot index
+     */
+    public float[] embed(NeighborhoodFeatureSnapshot.Columns columns, int index) {
+        float[] vector = new float[dimension()];
+        for (int d = 0; d < NUMERIC; d++) {
+            vector[d] = standardize(d, raw(columns, index, d));
+        }
+        long lifestyle = columns.lifestyleMask[index];
+        for (int b = 0; b < LIFESTYLES; b++) {
+            vector[NUMERIC + b] = (lifestyle >>> b & 1L) != 0 ? 1.0f : 0.0f;
+        }
+        return vector;
+    }
+
+    /**
+     * Embed a user as the neighborhood that would suit them best
+     */
+    public float[] embed(User user) {
+        float[] vector = new float[dimension()];
+        if (user.getAge() != null) {
+            vector[AGE] = standardize(AGE, user.getAge());
+        }
+        if (user.getMinBudget() != null && user.getMaxBudget() != null) {
+            vector[HOME_VALUE] = standardize(HOME_VALUE, (user.getMinBudget() + user.getMaxBudget()) / 2.0);
+        }
+        vector[SAFETY] = best[SAFETY];
+        vector[WALK] = best[WALK];
+        vector[TRANSIT] = best[TRANSIT];
+        vector[SCHOOL] = best[SCHOOL];
+        vector[COMMUTE] = best[COMMUTE];
+        long wanted = PreferenceScorer.lifestyleMask(user);
+        for (int b = 0; b < LIFESTYLES; b++) {
+            vector[NUMERIC + b] = (wanted >>> b & 1L) != 0 ? 1.0f : 0.0f;
+        }
+        return vector;
+    }
+
+    /**
+     * Per-dimension weights of squared distance for a user, zero where the user states no preference
+     */
+    public float[] weights(User user) {
+        float[] weights = new float[dimension()];
+        double demographic = weight(ComponentScorer.Component.DEMOGRAPHIC);
+        boolean wantsSchools = user.getFamilyStatus() == User.FamilyStatus.WITH_CHILDREN;
+        if (user.getAge() != null) {
+            weights[AGE] = (float) (wantsSchools ? demographic / 2 : demographic);
+        }
+        if (wantsSchools) {
+            weights[SCHOOL] = (float) (demographic / 2);
+        }
+        if (user.getMinBudget() != null && user.getMaxBudget() != null) {
+            weights[HOME_VALUE] = (float) weight(ComponentScorer.Component.BUDGET);
+        }
+        double location = weight(ComponentScorer.Component.LOCATION);
+        weights[SAFETY] = (float) (0.5 * location);
+        boolean prefersTransit = user.getTransportationPreference() == User.TransportationPreference.PUBLIC_TRANSIT;
+        weights[prefersTransit ? TRANSIT : WALK] = (float) (0.3 * location);
+        if (user.getMaxCommuteTimeMinutes() != null && user.getMaxCommuteTimeMinutes() > 0) {
+            weights[COMMUTE] = (float) (0.2 * location);
+        }
+        long wanted = PreferenceScorer.lifestyleMask(user);
+        int count = Long.bitCount(wanted);
+        for (int b = 0; b < LIFESTYLES; b++) {
+            if ((wanted >>> b & 1L) != 0) {
+                // Each missing characteristic costs its share of the lifestyle weight, as in the scorer
+                weights[NUMERIC + b] = (float) (weight(ComponentScorer.Component.LIFESTYLE) / count);
+            }
+        }
+        return weights;
+    }
+
+    private static double raw(NeighborhoodFeatureSnapshot.Columns c, int i, int d) {
+        return switch (d) {
+            case AGE -> c.medianAge[i];
+            case HOME_VALUE -> c.medianHomeValue[i];
+            case SAFETY -> c.safetyScore[i];
+            case WALK -> c.walkScore[i];
+            case TRANSIT -> c.transitScore[i];
+            case SCHOOL -> c.schoolRating[i];
+            case COMMUTE -> c.commuteTimeMinutes[i];
+            default -> throw new IllegalArgumentException("Unknown numeric dimension: " + d);
+        };
+    }
+
+    private float standardize(int d, double value) {
+        return Double.isNaN(value) ? 0.0f : (float) ((value - mean[d]) / deviation[d]);
+    }
+
+    private double weight(ComponentScorer.Component component) {
+        return scorer != null ? scorer.weight(component) : 1.0 / ComponentScorer.Component.values().length;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,362 @@
+package com.neighborfit.service;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Hierarchical navigable small world graph for approximate nearest-neighbor search
+ *
+ * Vectors are identified by insertion order and compared by squared
+ * Euclidean distance. Each node links to at most {@code m} neighbors per
+ * upper layer and {@code 2m} on the bottom layer, chosen with the
+ * diversity heuristic of Malkov and Yashunin. Searches may weight each
+ * dimension, so a query can leave dimensions it does not constrain out of
+ * the distance; the graph itself is built on unweighted distance. Build is
+ * single-threaded; once built, the index may be searched from any number of
+ * threads.
+ */
+public final class HnswIndex {
+
+    private final float[][] vectors;
+    private final int m;
+    private final int maxBottomLinks;
+    private final int efConstruction;
+    private final double levelMultiplier;
+    private final SplittableRandom random;
+    private final int[][][] links;
+    private final ThreadLocal<Visited> visited;
+
+    private int size;
+    private int entryPoint = -1;
+    private int topLevel = -1;
+
+    public HnswIndex(int capacity, int m, int efConstruction, long seed) {
+        if (m < 2) {
+            throw new IllegalArgumentException("HNSW m must be at least 2: " + m);
+        }
+        this.vectors = new float[capacity][];
+        this.m = m;
+        this.maxBottomLinks = 2 * m;
+        this.efConstruction = Math.max(efConstruction, m);
+        this.levelMultiplier = 1.0 / Math.log(m);
+        this.random = new SplittableRandom(seed);
+        this.links = new int[capacity][][];
+        this.visited = ThreadLocal.withInitial(() -> new Visited(capacity));
+    }
+
+    /**
+     * Number of indexed vectors
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Add a vector; its ID is the number of vectors added before it
+     */
+    public int add(float[] vector) {
+        int node = size++;
+        vectors[node] = vector;
+        int level = (int) (-Math.log(1.0 - random.nextDouble()) * levelMultiplier);
+        links[node] = new int[level + 1][];
+        for (int l = 0; l <= level; l++) {
+            links[node][l] = new int[maxLinks(l) + 1];
+        }
+        if (entryPoint < 0) {
+            entryPoint = node;
+            topLevel = level;
+            return node;
+        }
+
+        int nearest = entryPoint;
+        for (int l = topLevel; l > level; l--) {
+            nearest = greedyClosest(vector, null, nearest, l);
+        }
+        for (int l = Math.min(level, topLevel); l >= 0; l--) {
+            LongHeap found = searchLayer(vector, null, nearest, efConstruction, l);
+            long[] candidates = found.sortedAscending();
+            int[] selected = selectNeighbors(vector, candidates, m);
+            for (int neighbor : selected) {
+                addLink(node, neighbor, l);
+                addLink(neighbor, node, l);
+            }
+            nearest = node(candidates[0]);
+        }
+        if (level > topLevel) {
+            topLevel = level;
+            entryPoint = node;
+        }
+        return node;
+    }
+
+    /**
+     * IDs of approximately the {@code k} nearest vectors, nearest first
+     *
+     * A larger {@code ef} explores more of the graph, trading latency for recall.
+     */
+    public int[] search(float[] query, int k, int ef) {
+        return search(query, null, k, ef);
+    }
+
+    /**
+     * IDs of approximately the {@code k} nearest vectors by weighted squared distance, nearest first
+     *
+     * {@code weights} scales each dimension's squared difference; null weighs every dimension by one.
+     */
+    public int[] search(float[] query, float[] weights, int k, int ef) {
+        if (entryPoint < 0 || k <= 0) {
+            return new int[0];
+        }
+        int nearest = entryPoint;
+        for (int l = topLevel; l > 0; l--) {
+            nearest = greedyClosest(query, weights, nearest, l);
+        }
+        long[] found = searchLayer(query, weights, nearest, Math.max(ef, k), 0).sortedAscending();
+        int[] ids = new int[Math.min(k, found.length)];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = node(found[i]);
+        }
+        return ids;
+    }
+
+    private int greedyClosest(float[] query, float[] weights, int start, int level) {
+        int current = start;
+        float best = distance(query, vectors[current], weights);
+        boolean improved = true;
+        while (improved) {
+            improved = false;
+            int[] neighbors = links[current][level];
+            for (int j = 1; j <= neighbors[0]; j++) {
+                float d = distance(query, vectors[neighbors[j]], weights);
+                if (d < best) {
+                    best = d;
+                    current = neighbors[j];
+                    improved = true;
+                }
+            }
+        }
+        return current;
+    }
+
+    private LongHeap searchLayer(float[] query, float[] weights, int start, int ef, int level) {
+        Visited seen = visited.get();
+        seen.reset();
+        seen.mark(start);
+        long first = pack(distance(query, vectors[start], weights), start);
+        LongHeap candidates = new LongHeap(false);
+        LongHeap results = new LongHeap(true);
+        candidates.push(first);
+        results.push(first);
+        while (candidates.size() > 0) {
+            long candidate = candidates.pop();
+            if (results.size() >= ef && distance(candidate) > distance(results.peek())) {
+                break;
+            }
+            int[] neighbors = links[node(candidate)][level];
+            for (int j = 1; j <= neighbors[0]; j++) {
+                int neighbor = neighbors[j];
+                if (!seen.mark(neighbor)) {
+                    continue;
+                }
+                float d = distance(query, vectors[neighbor], weights);
+                if (results.size() < ef || d < distance(results.peek())) {
+                    long packed = pack(d, neighbor);
+                    candidates.push(packed);
+                    results.push(packed);
+                    if (results.size() > ef) {
+                        results.pop();
+                    }
+                }
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Pick up to {@code max} neighbors, preferring candidates not already covered by a closer pick
+     */
+    private int[] selectNeighbors(float[] base, long[] sortedCandidates, int max) {
+        int[] selected = new int[Math.min(max, sortedCandidates.length)];
+        boolean[] taken = new boolean[sortedCandidates.length];
+        int count = 0;
+        for (int c = 0; c < sortedCandidates.length && count < selected.length; c++) {
+            int candidate = node(sortedCandidates[c]);
+            float toBase = distance(sortedCandidates[c]);
+            boolean diverse = true;
+            for (int s = 0; s < count && diverse; s++) {
+                diverse = distance(vectors[candidate], vectors[selected[s]]) >= toBase;
+            }
+            if (diverse) {
+                selected[count++] = candidate;
+                taken[c] = true;
+            }
+        }
+        // Fill remaining slots with the closest pruned candidates to keep the graph well connected
+        for (int c = 0; c < sortedCandidates.length && count < selected.length; c++) {
+            if (!taken[c]) {
+                selected[count++] = node(sortedCandidates[c]);
+            }
+        }
+        return selected;
+    }
+
+    private void addLink(int from, int to, int level) {
+        int[] neighbors = links[from][level];
+        int max = maxLinks(level);
+        if (neighbors[0] < max) {
+            neighbors[++neighbors[0]] = to;
+            return;
+        }
+        float[] base = vectors[from];
+        long[] candidates = new long[max + 1];
+        for (int j = 1; j <= max; j++) {
+            candidates[j - 1] = pack(distance(base, vectors[neighbors[j]]), neighbors[j]);
+        }
+        candidates[max] = pack(distance(base, vectors[to]), to);
+        Arrays.sort(candidates);
+        int[] kept = selectNeighbors(base, candidates, max);
+        neighbors[0] = kept.length;
+        System.arraycopy(kept, 0, neighbors, 1, kept.length);
+    }
+
+    private int maxLinks(int level) {
+        return level == 0 ? maxBottomLinks : m;
+    }
+
+    private static float distance(float[] a, float[] b) {
+        float sum = 0.0f;
+        for (int d = 0; d < a.length; d++) {
+            float diff = a[d] - b[d];
+            sum += diff * diff;
+        }
+        return sum;
+    }
+
+    private static float distance(float[] query, float[] vector, float[] weights) {
+        if (weights == null) {
+            return distance(query, vector);
+        }
+        float sum = 0.0f;
+        for (int d = 0; d < query.length; d++) {
+            float diff = query[d] - vector[d];
+            sum += weights[d] * diff * diff;
+        }
+        return sum;
+    }
+
+    /**
+     * Pack a non-negative distance and a node into one long that orders by distance, then node
+     */
+    private static long pack(float distance, int node) {
+        return (long) Float.floatToIntBits(distance) << 32 | (node & 0xFFFFFFFFL);
+    }
+
+    private static float distance(long packed) {
+        return Float.intBitsToFloat((int) (packed >>> 32));
+    }
+
+    private static int node(long packed) {
+        return (int) packed;
+    }
+
+    /**
+     * Binary heap of packed longs, either min-first or max-first
+     */
+    private static final class LongHeap {
+
+        private final boolean max;
+        private long[] values = new long[64];
+        private int size;
+
+        LongHeap(boolean max) {
+            this.max = max;
+        }
+
+        int size() {
+            return size;
+        }
+
+        long peek() {
+            return values[0];
+        }
+
+        void push(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            int i = size++;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (!before(value, values[parent])) {
+                    break;
+                }
+                values[i] = values[parent];
+                i = parent;
+            }
+            values[i] = value;
+        }
+
+        long pop() {
+            long top = values[0];
+            long last = values[--size];
+            int i = 0;
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && before(values[child + 1], values[child])) {
+                    child++;
+                }
+                if (!before(values[child], last)) {
+                    break;
+                }
+                values[i] = values[child];
+                i = child;
+            }
+            values[i] = last;
+            return top;
+        }
+
+        long[] sortedAscending() {
+            long[] sorted = Arrays.copyOf(values, size);
+            Arrays.sort(sorted);
+            return sorted;
+        }
+
+        private boolean before(long a, long b) {
+            return max ? a > b : a < b;
+        }
+    }
+
+    /**
+     * Per-thread visited set, cleared in constant time by bumping an epoch
+     */
+    private static final class Visited {
+
+        private final int[] epochs;
+        private int epoch;
+
+        Visited(int capacity) {
+            this.epochs = new int[capacity];
+        }
+
+        void reset() {
+            if (++epoch == Integer.MAX_VALUE) {
+                Arrays.fill(epochs, 0);
+                epoch = 1;
+            }
+        }
+
+        /**
+         * Mark a node, returning false if it was already marked
+         */
+        boolean mark(int node) {
+            if (epochs[node] == epoch) {
+                return false;
+            }
+            epochs[node] = epoch;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.neighborfit.service;
+
+import com.neighborfit.model.Match;
+import com.neighborfit.model.Neighborhood;
+import com.neighborfit.repository.MatchRepository;
+import com.neighborfit.repository.NeighborhoodRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Service for updating matches after a single change
+ *
+ * When a user's profile changes, their existing matches are re-scored in
+ * place and rows are added only for neighborhoods that newly enter their
+ * top K, through {@link SnapshotMatchingService#rematchUser}. When a
+ * neighborhood changes, only the {@link Match} rows that reference it are
+ * re-scored in place, a page per transaction, instead of recomputing
+ * matches for everyone. Committed neighborhood writes trigger this through
+ * {@link NeighborhoodsChangedEvent}. Work runs asynchronously so the
+ * triggering request returns immediately.
+ */
+@Service
+@Slf4j
+public class IncrementalRematchService {
+
+    private final MatchRepository matchRepository;
+    private final NeighborhoodRepository neighborhoodRepository;
+    private final NeighborhoodFeatureSnapshot featureSnapshot;
+    private final SnapshotMatchingService matchingService;
+    private final DataVersionRegistry versions;
+    private final ComponentScorer scorer;
+    private final TransactionTemplate transactionTemplate;
+    private final int userLimit;
+    private final int pageSize;
+
+    public IncrementalRematchService(MatchRepository matchRepository,
+                                     NeighborhoodRepository neighborhoodRepository,
+                                     NeighborhoodFeatureSnapshot featureSnapshot,
+                                     SnapshotMatchingService matchingService,
+                                     DataVersionRegistry versions,
+                                     ComponentScorer scorer,
+                                     PlatformTransactionManager transactionManager,
+                                     @Value("${neighborfit.rematch.user-limit:10}") int userLimit,
+                                     @Value("${neighborfit.rematch.page-size:500}") int pageSize) {
+        this.matchRepository = matchRepository;
+        this.neighborhoodRepository = neighborhoodRepository;
+        this.featureSnapshot = featureSnapshot;
+        this.matchingService = matchingService;
+        this.versions = versions;
+        this.scorer = scorer;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.userLimit = Math.max(1, userLimit);
+        this.pageSize = Math.max(1, pageSize);
+    }
+
+    /**
+     * Check that a neighborhood exists before a rematch is scheduled for it
+     */
+    public void requireNeighborhood(Long neighborhoodId) {
+        if (!neighborhoodRepository.existsById(neighborhoodId)) {
+            throw new IllegalArgumentException("Neighborhood not found with ID: " + neighborhoodId);
+        }
+    }
+
+    /**
+     * Re-score the matches of every neighborhood a committed write changed
+     *
+     * Deleted neighborhoods are skipped, and so are new ones, which have no
+     * matches yet and are added to the snapshot by its own listener.
+     */
+    @Async
+    @EventListener
+    public void onNeighborhoodsChanged(NeighborhoodsChangedEvent event) {
+        NeighborhoodFeatureSnapshot.Columns columns = featureSnapshot.current();
+        for (Long neighborhoodId : event.neighborhoodIds()) {
+            try {
+                if (columns.indexOf(neighborhoodId) >= 0 && neighborhoodRepository.existsById(neighborhoodId)) {
+                    rescoreNeighborhood(neighborhoodId);
+                }
+            } catch (RuntimeException e) {
+                log.error("Failed to rematch neighborhood ID: {}: {}", neighborhoodId, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Re-score every match that references a changed neighborhood
+     */
+    @Async
+    public void rematchNeighborhood(Long neighborhoodId) {
+        rescoreNeighborhood(neighborhoodId);
+    }
+
+    private void rescoreNeighborhood(Long neighborhoodId) {
+        NeighborhoodFeatureSnapshot.Columns columns = transactionTemplate.execute(status -> {
+            Neighborhood neighborhood = neighborhoodRepository.findById(neighborhoodId)
+                    .orElseThrow(() -> new IllegalArgumentException("Neighborhood not found with ID: " + neighborhoodId));
+            return featureSnapshot.update(neighborhood);
+        });
+        int index = columns.indexOf(neighborhoodId);
+
+        Set<Long> affectedUsers = new HashSet<>();
+        long rescored = 0;
+        long afterId = 0L;
+        while (true) {
+            long after = afterId;
+            List<Match> page = transactionTemplate.execute(status -> rescorePage(neighborhoodId, after, columns, index));
+            if (page.isEmpty()) {
+                break;
+            }
+            for (Match match : page) {
+                affectedUsers.add(match.getUser().getId());
+            }
+            rescored += page.size();
+            afterId = page.get(page.size() - 1).getId();
+        }
+        affectedUsers.forEach(versions::userMatchesChanged);
+        log.info("Re-scored {} matches for neighborhood ID: {} ({} users affected)",
+                rescored, neighborhoodId, affectedUsers.size());
+    }
+
+    /**
+     * Re-score the matches of a user whose profile changed, adding rows only for new top neighborhoods
+     */
+    @Async
+    public void rematchUser(Long userId) {
+        int added = matchingService.rematchUser(userId, userLimit);
+        versions.userMatchesChanged(userId);
+        log.info("Re-scored matches for user ID: {} ({} new top neighborhoods)", userId, added);
+    }
+
+    private List<Match> rescorePage(Long neighborhoodId, long afterId, NeighborhoodFeatureSnapshot.Columns columns,
+                                    int index) {
+        List<Match> page = matchRepository.findByNeighborhoodIdAfter(neighborhoodId, afterId, PageRequest.of(0, pageSize));
+        for (Match match : page) {
+            SnapshotMatchingService.applyScores(match, match.getUser(), columns, index, scorer.forUser(match.getUser()));
+        }
+        return page;
+    }
+}
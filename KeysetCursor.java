@@ -0,0 +1,51 @@
+package com.neighborfit.dto;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
+
+/**
+ * Opaque cursor for keyset pagination
+ * 
+ * Encodes the sort key and ID of the last row on a page. The next page
+ * starts strictly after that position, so every page costs the same index
+ * seek no matter how deep it is.
+ */
+public record KeysetCursor(double sortKey, long id) {
+    
+    private static final int ENCODED_BYTES = Double.BYTES + Long.BYTES;
+    
+    /**
+     * Cursor positioned before the first row of a descending sort
+     */
+    public static KeysetCursor first() {
+        return new KeysetCursor(Double.MAX_VALUE, Long.MAX_VALUE);
+    }
+    
+    /**
+     * Encode as a URL-safe opaque token
+     */
+    public String encode() {
+        ByteBuffer buffer = ByteBuffer.allocate(ENCODED_BYTES).putDouble(sortKey).putLong(id);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.array());
+    }
+    
+    /**
+     * Decode a token, or return {@link #first()} when the token is blank
+     */
+    public static KeysetCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return first();
+        }
+        byte[] bytes;
+        try {
+            bytes = Base64.getUrlDecoder().decode(token);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Malformed cursor: " + token);
+        }
+        if (bytes.length != ENCODED_BYTES) {
+            throw new IllegalArgumentException("Malformed cursor: " + token);
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        return new KeysetCursor(buffer.getDouble(), buffer.getLong());
+    }
+} 
\ No newline at end of file
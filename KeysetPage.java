@@ -0,0 +1,15 @@
+package com.neighborfit.dto;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated result
+ * 
+ * {@code nextCursor} is null on the last page.
+ */
+public record KeysetPage<T>(List<T> items, int size, String nextCursor) {
+    
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+} 
\ No newline at end of file
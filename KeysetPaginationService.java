@@ -0,0 +1,114 @@
+package com.neighborfit.service;
+
+import com.neighborfit.dto.KeysetCursor;
+import com.neighborfit.dto.KeysetPage;
+import com.neighborfit.dto.MatchSummaryDto;
+import com.neighborfit.model.Match;
+import com.neighborfit.model.User;
+import com.neighborfit.repository.MatchRepository;
+import com.neighborfit.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Service for cursor-based pagination of large match and user listings
+ *
+ * Every page is an index seek past the last (sort key, id) pair of the
+ * previous page, so deep pages cost the same as the first one. One extra
+ * row is fetched to decide whether a next cursor exists.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class KeysetPaginationService {
+
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 500;
+
+    private final MatchRepository matchRepository;
+    private final UserRepository userRepository;
+
+    /**
+     * Page of matches with a given strength, by overall score descending
+     */
+    public KeysetPage<MatchSummaryDto> getMatchesByStrength(Match.MatchStrength strength, String cursor, int size) {
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        int pageSize = validateSize(size);
+        List<Match> rows = matchRepository.findByMatchStrengthAfter(
+                strength, after.sortKey(), after.id(), lookahead(pageSize));
+        return toMatchPage(rows, pageSize, Match::getOverallScore);
+    }
+
+    /**
+     * Page of matches with an overall score in a range, by overall score descending
+     */
+    public KeysetPage<MatchSummaryDto> getMatchesByScoreRange(Double minScore, Double maxScore, String cursor, int size) {
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        int pageSize = validateSize(size);
+        List<Match> rows = matchRepository.findByScoreRangeAfter(
+                minScore, maxScore, after.sortKey(), after.id(), lookahead(pageSize));
+        return toMatchPage(rows, pageSize, Match::getOverallScore);
+    }
+
+    /**
+     * Page of matches with at least a minimum component score, by that component descending
+     */
+    public KeysetPage<MatchSummaryDto> getMatchesByMinComponentScore(ComponentScorer.Component component,
+                                                                     Double minScore, String cursor, int size) {
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        int pageSize = validateSize(size);
+        Pageable pageable = lookahead(pageSize);
+        return switch (component) {
+            case LIFESTYLE -> toMatchPage(matchRepository.findByMinLifestyleScoreAfter(
+                    minScore, after.sortKey(), after.id(), pageable), pageSize, Match::getLifestyleScore);
+            case DEMOGRAPHIC -> toMatchPage(matchRepository.findByMinDemographicScoreAfter(
+                    minScore, after.sortKey(), after.id(), pageable), pageSize, Match::getDemographicScore);
+            case LOCATION -> toMatchPage(matchRepository.findByMinLocationScoreAfter(
+                    minScore, after.sortKey(), after.id(), pageable), pageSize, Match::getLocationScore);
+            case BUDGET -> toMatchPage(matchRepository.findByMinBudgetScoreAfter(
+                    minScore, after.sortKey(), after.id(), pageable), pageSize, Match::getBudgetScore);
+        };
+    }
+
+    /**
+     * Page of users by ID ascending
+     */
+    public KeysetPage<User> getUsers(String cursor, int size) {
+        long afterId = cursor == null || cursor.isBlank() ? 0L : KeysetCursor.decode(cursor).id();
+        int pageSize = validateSize(size);
+        List<User> rows = userRepository.findNextPageAfterId(afterId, lookahead(pageSize));
+        boolean hasNext = rows.size() > pageSize;
+        List<User> items = hasNext ? rows.subList(0, pageSize) : rows;
+        String next = hasNext ? new KeysetCursor(0.0, items.get(items.size() - 1).getId()).encode() : null;
+        return new KeysetPage<>(List.copyOf(items), items.size(), next);
+    }
+
+    private KeysetPage<MatchSummaryDto> toMatchPage(List<Match> rows, int pageSize, ToDoubleFunction<Match> sortKey) {
+        boolean hasNext = rows.size() > pageSize;
+        List<Match> items = hasNext ? rows.subList(0, pageSize) : rows;
+        String next = null;
+        if (hasNext) {
+            Match last = items.get(items.size() - 1);
+            next = new KeysetCursor(sortKey.applyAsDouble(last), last.getId()).encode();
+        }
+        List<MatchSummaryDto> dtos = items.stream().map(MatchSummaryDto::from).toList();
+        return new KeysetPage<>(dtos, dtos.size(), next);
+    }
+
+    private static Pageable lookahead(int pageSize) {
+        return PageRequest.of(0, pageSize + 1);
+    }
+
+    private static int validateSize(int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE + ": " + size);
+        }
+        return size;
+    }
+}
@@ -0,0 +1,259 @@
+package com.neighborfit.service;
+
+import com.neighborfit.model.Match;
+import com.neighborfit.repository.MatchRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Live match analytics maintained from match writes
+ *
+ * Keeps striped counters per match strength, running sum and count per user
+ * and per neighborhood, and a histogram of overall scores. Every committed
+ * {@link MatchChangedEvent} updates them, so reads are O(1) however large
+ * the match table is. A periodic reconciliation rebuilds the aggregates from
+ * the database and swaps them in. Events that arrive while it runs are
+ * recorded and replayed onto the rebuilt aggregates before the swap, so
+ * writes committed during a rebuild are not lost. An update whose previous
+ * state is unknown cannot be applied as a delta, so it is skipped and a
+ * reconciliation is run shortly after instead. Scores are bucketed over
+ * [0, max-score], which defaults to the scorer's range of [0, 1].
+ */
+@Service
+@Slf4j
+public class LiveMatchAnalytics {
+
+    private final MatchRepository matchRepository;
+    private final int histogramBuckets;
+    private final double histogramMaxScore;
+
+    /**
+     * Held shared while applying an event and exclusively while swapping in rebuilt aggregates
+     */
+    private final ReadWriteLock swapLock = new ReentrantReadWriteLock();
+
+    private volatile Aggregates aggregates;
+    private volatile Queue<MatchChangedEvent> pendingReplay;
+    private volatile Instant lastReconciledAt;
+    private volatile boolean reconcileRequested;
+
+    public LiveMatchAnalytics(MatchRepository matchRepository,
+                              @Value("${neighborfit.analytics.histogram.buckets:20}") int histogramBuckets,
+                              @Value("${neighborfit.analytics.histogram.max-score:1.0}") double histogramMaxScore) {
+        this.matchRepository = matchRepository;
+        this.histogramBuckets = Math.max(1, histogramBuckets);
+        this.histogramMaxScore = histogramMaxScore;
+        this.aggregates = new Aggregates(this.histogramBuckets);
+    }
+
+    /**
+     * Apply a committed match write to the aggregates
+     */
+    @EventListener
+    public void onMatchChanged(MatchChangedEvent event) {
+        if (event.isUnknownUpdate()) {
+            reconcileRequested = true;
+            return;
+        }
+        swapLock.readLock().lock();
+        try {
+            apply(aggregates, event);
+            Queue<MatchChangedEvent> replay = pendingReplay;
+            if (replay != null) {
+                replay.add(event);
+            }
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Build the aggregates from the database once the application is ready
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void onApplicationReady() {
+        reconcile();
+    }
+
+    /**
+     * Reconcile soon after an update that could not be applied as a delta
+     */
+    @Scheduled(fixedDelayString = "${neighborfit.analytics.requested-reconcile-delay-ms:5000}")
+    @Transactional(readOnly = true)
+    public void reconcileIfRequested() {
+        if (reconcileRequested) {
+            // Cleared first, so an unknown update arriving during the rebuild asks for another one
+            reconcileRequested = false;
+            reconcile();
+        }
+    }
+
+    /**
+     * Rebuild the aggregates from the database and swap them in, replaying events that arrived meanwhile
+     */
+    @Scheduled(fixedDelayString = "${neighborfit.analytics.reconcile-interval-ms:600000}",
+               initialDelayString = "${neighborfit.analytics.reconcile-interval-ms:600000}")
+    @Transactional(readOnly = true)
+    public synchronized void reconcile() {
+        long start = System.nanoTime();
+        Aggregates rebuilt = new Aggregates(histogramBuckets);
+        // Recording starts before the query, so a write racing the query start may be counted twice
+        // until the next reconciliation, but is never dropped
+        Queue<MatchChangedEvent> replay = new ConcurrentLinkedQueue<>();
+        pendingReplay = replay;
+        try (Stream<Object[]> rows = matchRepository.streamMatchStates()) {
+            rows.forEach(row -> rebuilt.apply(new MatchChangedEvent.MatchState(
+                    (Long) row[0], (Long) row[1], (Match.MatchStrength) row[2], (Double) row[3]), 1, histogramMaxScore));
+        } catch (RuntimeException e) {
+            pendingReplay = null;
+            throw e;
+        }
+
+        long drift;
+        int replayed = 0;
+        swapLock.writeLock().lock();
+        try {
+            MatchChangedEvent event;
+            while ((event = replay.poll()) != null) {
+                apply(rebuilt, event);
+                replayed++;
+            }
+            drift = aggregates.totalCount.sum() - rebuilt.totalCount.sum();
+            aggregates = rebuilt;
+            pendingReplay = null;
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+        lastReconciledAt = Instant.now();
+        log.info("Reconciled live match analytics over {} matches in {} ms ({} events replayed, drift {})",
+                rebuilt.totalCount.sum(), (System.nanoTime() - start) / 1_000_000, replayed, drift);
+    }
+
+    /**
+     * Current global analytics
+     */
+    public Summary getSummary() {
+        Aggregates current = aggregates;
+        Map<Match.MatchStrength, Long> byStrength = new EnumMap<>(Match.MatchStrength.class);
+        current.byStrength.forEach((strength, count) -> byStrength.put(strength, count.sum()));
+        long[] histogram = new long[current.histogram.length];
+        for (int i = 0; i < histogram.length; i++) {
+            histogram[i] = current.histogram[i].sum();
+        }
+        long total = current.totalCount.sum();
+        double average = total > 0 ? current.totalSum.sum() / total : 0.0;
+        return new Summary(total, average, byStrength, histogram, histogramMaxScore, lastReconciledAt);
+    }
+
+    /**
+     * Match count and average overall score for a user
+     */
+    public ScoreStats getUserStats(Long userId) {
+        return ScoreStats.of(aggregates.byUser.get(userId));
+    }
+
+    /**
+     * Match count and average overall score for a neighborhood
+     */
+    public ScoreStats getNeighborhoodStats(Long neighborhoodId) {
+        return ScoreStats.of(aggregates.byNeighborhood.get(neighborhoodId));
+    }
+
+    private void apply(Aggregates target, MatchChangedEvent event) {
+        if (event.before() != null) {
+            target.apply(event.before(), -1, histogramMaxScore);
+        }
+        if (event.after() != null) {
+            target.apply(event.after(), 1, histogramMaxScore);
+        }
+    }
+
+    private static final class Aggregates {
+
+        final Map<Match.MatchStrength, LongAdder> byStrength = new EnumMap<>(Match.MatchStrength.class);
+        final Map<Long, RunningSum> byUser = new ConcurrentHashMap<>();
+        final Map<Long, RunningSum> byNeighborhood = new ConcurrentHashMap<>();
+        final LongAdder[] histogram;
+        final DoubleAdder totalSum = new DoubleAdder();
+        final LongAdder totalCount = new LongAdder();
+
+        Aggregates(int buckets) {
+            for (Match.MatchStrength strength : Match.MatchStrength.values()) {
+                byStrength.put(strength, new LongAdder());
+            }
+            histogram = new LongAdder[buckets];
+            for (int i = 0; i < buckets; i++) {
+                histogram[i] = new LongAdder();
+            }
+        }
+
+        void apply(MatchChangedEvent.MatchState state, int sign, double maxScore) {
+            if (state.matchStrength() != null) {
+                byStrength.get(state.matchStrength()).add(sign);
+            }
+            double score = state.overallScore() != null ? state.overallScore() : 0.0;
+            totalCount.add(sign);
+            totalSum.add(sign * score);
+            if (state.userId() != null) {
+                byUser.computeIfAbsent(state.userId(), id -> new RunningSum()).add(sign, score);
+            }
+            if (state.neighborhoodId() != null) {
+                byNeighborhood.computeIfAbsent(state.neighborhoodId(), id -> new RunningSum()).add(sign, score);
+            }
+            if (state.overallScore() != null) {
+                int bucket = (int) (score / maxScore * histogram.length);
+                histogram[Math.max(0, Math.min(histogram.length - 1, bucket))].add(sign);
+            }
+        }
+    }
+
+    private static final class RunningSum {
+
+        final DoubleAdder sum = new DoubleAdder();
+        final LongAdder count = new LongAdder();
+
+        void add(int sign, double score) {
+            count.add(sign);
+            sum.add(sign * score);
+        }
+    }
+
+    /**
+     * Global analytics snapshot
+     */
+    public record Summary(long totalMatches, double averageScore, Map<Match.MatchStrength, Long> countsByStrength,
+                          long[] scoreHistogram, double histogramMaxScore, Instant lastReconciledAt) {
+    }
+
+    /**
+     * Count and average of overall scores
+     */
+    public record ScoreStats(long matchCount, Double averageScore) {
+
+        static ScoreStats of(RunningSum sum) {
+            if (sum == null) {
+                return new ScoreStats(0, null);
+            }
+            long count = sum.count.sum();
+            return new ScoreStats(count, count > 0 ? sum.sum.sum() / count : null);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.neighborfit.service;
+
+import com.neighborfit.model.Match;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bulk persistence path for match rows
+ *
+ * Persists matches through the entity manager, flushing every
+ * {@code batchSize} rows and then detaching the rows just written. Each
+ * flush goes out as a JDBC batch, and the first-level cache stays bounded
+ * however many rows are written. Only the written matches are detached, so
+ * entities the caller loaded in the same transaction stay managed. The batch
+ * size should equal {@code hibernate.jdbc.batch_size}. Single-user and bulk
+ * matching in {@link SnapshotMatchingService} persist through this writer.
+ */
+@Service
+@Slf4j
+public class MatchBatchWriter {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final DataVersionRegistry versions;
+    private final MatchingMetrics metrics;
+    private final int batchSize;
+
+    public MatchBatchWriter(DataVersionRegistry versions,
+                            MatchingMetrics metrics,
+                            @Value("${neighborfit.persistence.batch-size:500}") int batchSize) {
+        this.versions = versions;
+        this.metrics = metrics;
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    /**
+     * Persist new matches in batches, returning the number written
+     *
+     * Matches are detached after this call. Their user and neighborhood may
+     * be references obtained with {@code getReference}, so no rows are loaded.
+     */
+    @Transactional
+    public long persistAll(Iterable<Match> matches) {
+        return persistAll(matches.iterator());
+    }
+
+    /**
+     * Persist new matches from an iterator, consuming it lazily
+     *
+     * Lets callers stream matches as they are produced without holding them all in memory.
+     */
+    @Transactional
+    public long persistAll(Iterator<Match> matches) {
+        long start = System.nanoTime();
+        long written = 0;
+        Set<Long> userIds = new HashSet<>();
+        List<Match> batch = new ArrayList<>(batchSize);
+        while (matches.hasNext()) {
+            Match match = matches.next();
+            entityManager.persist(match);
+            userIds.add(match.getUser().getId());
+            batch.add(match);
+            written++;
+            if (batch.size() == batchSize) {
+                flushAndDetach(batch);
+            }
+        }
+        flushAndDetach(batch);
+        userIds.forEach(versions::userMatchesChanged);
+
+        long elapsedNanos = System.nanoTime() - start;
+        metrics.timer(MatchingMetrics.Stage.PERSIST).record(elapsedNanos, TimeUnit.NANOSECONDS);
+        long elapsedMillis = elapsedNanos / 1_000_000;
+        log.debug("Persisted {} matches for {} users in {} ms (batch size {})",
+                written, userIds.size(), elapsedMillis, batchSize);
+        return written;
+    }
+
+    private void flushAndDetach(List<Match> batch) {
+        entityManager.flush();
+        for (Match match : batch) {
+            entityManager.detach(match);
+        }
+        batch.clear();
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+}
@@ -0,0 +1,124 @@
+package com.neighborfit.service;
+
+import com.neighborfit.model.Match;
+import com.neighborfit.model.Neighborhood;
+import com.neighborfit.model.User;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Hibernate listener that turns committed match writes into {@link MatchChangedEvent}s
+ *
+ * Hooks into the session factory rather than individual services, so every
+ * write path is covered: matching, bulk persistence, rematching and feedback
+ * updates. Events are only published after the transaction commits, so
+ * rolled-back writes are never observed.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class MatchChangeListener implements PostCommitInsertEventListener,
+        PostCommitUpdateEventListener, PostCommitDeleteEventListener {
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @PostConstruct
+    public void register() {
+        SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        EventListenerRegistry registry = sessionFactory.getServiceRegistry().getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, this);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof Match match) {
+            publish(new MatchChangedEvent(match.getId(), MatchChangedEvent.Type.INSERT, null, stateOf(match)));
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (event.getEntity() instanceof Match match) {
+            // Null when the old state was not loaded; consumers see an update they cannot apply as a delta
+            MatchChangedEvent.MatchState before = event.getOldState() != null
+                    ? stateOf(event.getPersister(), event.getOldState())
+                    : null;
+            publish(new MatchChangedEvent(match.getId(), MatchChangedEvent.Type.UPDATE, before, stateOf(match)));
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof Match match) {
+            MatchChangedEvent.MatchState before = event.getDeletedState() != null
+                    ? stateOf(event.getPersister(), event.getDeletedState())
+                    : stateOf(match);
+            publish(new MatchChangedEvent(match.getId(), MatchChangedEvent.Type.DELETE, before, null));
+        }
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return Match.class.isAssignableFrom(persister.getMappedClass());
+    }
+
+    private void publish(MatchChangedEvent event) {
+        try {
+            eventPublisher.publishEvent(event);
+        } catch (RuntimeException e) {
+            // The write is already committed; a failing observer must not surface to the caller
+            log.error("Failed to handle change of match ID {}: {}", event.matchId(), e.getMessage());
+        }
+    }
+
+    private static MatchChangedEvent.MatchState stateOf(Match match) {
+        return new MatchChangedEvent.MatchState(
+                match.getUser() != null ? match.getUser().getId() : null,
+                match.getNeighborhood() != null ? match.getNeighborhood().getId() : null,
+                match.getMatchStrength(),
+                match.getOverallScore());
+    }
+
+    private static MatchChangedEvent.MatchState stateOf(EntityPersister persister, Object[] state) {
+        List<String> names = Arrays.asList(persister.getPropertyNames());
+        User user = (User) state[names.indexOf("user")];
+        Neighborhood neighborhood = (Neighborhood) state[names.indexOf("neighborhood")];
+        return new MatchChangedEvent.MatchState(
+                user != null ? user.getId() : null,
+                neighborhood != null ? neighborhood.getId() : null,
+                (Match.MatchStrength) state[names.indexOf("matchStrength")],
+                (Double) state[names.indexOf("overallScore")]);
+    }
+}
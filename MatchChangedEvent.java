@@ -0,0 +1,42 @@
+package com.neighborfit.service;
+
+import com.neighborfit.model.Match;
+
+/**
+ * Event published after a committed insert, update or delete of a match
+ *
+ * {@code before} is null for inserts and {@code after} is null for deletes.
+ * An update can also have a null {@code before} when Hibernate did not know
+ * the previous state, as when a detached match is merged.
+ */
+public record MatchChangedEvent(Long matchId, Type type, MatchState before, MatchState after) {
+
+    /**
+     * Kind of write
+     */
+    public enum Type {
+        INSERT,
+        UPDATE,
+        DELETE
+    }
+
+    /**
+     * The match columns that derived views depend on
+     */
+    public record MatchState(Long userId, Long neighborhoodId, Match.MatchStrength matchStrength, Double overallScore) {
+    }
+
+    /**
+     * Whether this is an update whose previous state is unknown, so it cannot be applied as a delta
+     */
+    public boolean isUnknownUpdate() {
+        return type == Type.UPDATE && before == null;
+    }
+
+    /**
+     * User whose matches changed
+     */
+    public Long userId() {
+        return after != null ? after.userId() : before.userId();
+    }
+}
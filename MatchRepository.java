@@ -2,12 +2,19 @@ package com.neighborfit.repository;
 
 import com.neighborfit.model.Match;
 import com.neighborfit.model.User;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Repository interface for Match entity
@@ -21,31 +28,98 @@ public interface MatchRepository extends JpaRepository<Match, Long> {
     /**
      * Find matches by user
      */
+    @EntityGraph(attributePaths = "neighborhood")
     List<Match> findByUserOrderByOverallScoreDesc(User user);
     
     /**
      * Find matches by user with minimum score
      */
+    @EntityGraph(attributePaths = "neighborhood")
     @Query("SELECT m FROM Match m WHERE m.user = :user AND m.overallScore >= :minScore ORDER BY m.overallScore DESC")
     List<Match> findByUserAndMinScore(@Param("user") User user, @Param("minScore") Double minScore);
     
     /**
      * Find matches by match strength
      */
+    @EntityGraph(attributePaths = {"user", "neighborhood"})
     List<Match> findByMatchStrengthOrderByOverallScoreDesc(Match.MatchStrength matchStrength);
     
     /**
      * Find top matches for a user
      */
+    @EntityGraph(attributePaths = "neighborhood")
     @Query("SELECT m FROM Match m WHERE m.user = :user ORDER BY m.overallScore DESC LIMIT :limit")
     List<Match> findTopMatchesForUser(@Param("user") User user, @Param("limit") int limit);
     
+    /**
+     * Find the top matches for a user by ID, for maintaining the top-matches read model
+     */
+    @Query("SELECT m FROM Match m JOIN FETCH m.neighborhood WHERE m.user.id = :userId " +
+           "ORDER BY m.overallScore DESC, m.id DESC")
+    List<Match> findTopByUserId(@Param("userId") Long userId, Pageable pageable);
+    
+    /**
+     * Count matches for a user
+     */
+    @Query("SELECT COUNT(m) FROM Match m WHERE m.user.id = :userId")
+    long countByUserId(@Param("userId") Long userId);
+    
+    /**
+     * Find the matches of some users created at or after a time
+     */
+    @Query("SELECT m FROM Match m WHERE m.user.id IN :userIds AND m.createdAt >= :since")
+    List<Match> findByUserIdsCreatedSince(@Param("userIds") Collection<Long> userIds,
+                                          @Param("since") LocalDateTime since);
+    
+    /**
+     * Find the IDs of every user that has matches
+     */
+    @Query("SELECT DISTINCT m.user.id FROM Match m")
+    List<Long> findDistinctUserIds();
+    
+    /**
+     * Keyset page of the IDs of users that have matches, after a user ID
+     */
+    @Query("SELECT DISTINCT m.user.id FROM Match m WHERE m.user.id > :afterId ORDER BY m.user.id ASC")
+    List<Long> findDistinctUserIdsAfter(@Param("afterId") Long afterId, Pageable pageable);
+    
+    /**
+     * Count the matches of each of the given users, as (userId, count) rows
+     */
+    @Query("SELECT m.user.id, COUNT(m) FROM Match m WHERE m.user.id IN :userIds GROUP BY m.user.id")
+    List<Object[]> countByUserIds(@Param("userIds") Collection<Long> userIds);
+    
+    /**
+     * Find the IDs of each given user's top {@code limit} matches, in one statement
+     */
+    @Query(value = "SELECT ranked.id FROM (SELECT m.id, ROW_NUMBER() OVER (PARTITION BY m.user_id " +
+                   "ORDER BY m.overall_score DESC, m.id DESC) AS match_rank FROM matches m " +
+                   "WHERE m.user_id IN (:userIds)) ranked WHERE ranked.match_rank <= :limit",
+           nativeQuery = true)
+    List<Long> findTopIdsByUserIds(@Param("userIds") Collection<Long> userIds, @Param("limit") int limit);
+    
+    /**
+     * Find matches by ID with their neighborhoods
+     */
+    @Query("SELECT m FROM Match m JOIN FETCH m.neighborhood WHERE m.id IN :ids")
+    List<Match> findWithNeighborhoodByIdIn(@Param("ids") Collection<Long> ids);
+    
     /**
      * Find matches by neighborhood
      */
+    @EntityGraph(attributePaths = {"user", "neighborhood"})
     @Query("SELECT m FROM Match m WHERE m.neighborhood.id = :neighborhoodId ORDER BY m.overallScore DESC")
     List<Match> findByNeighborhoodOrderByOverallScoreDesc(@Param("neighborhoodId") Long neighborhoodId);
     
+    /**
+     * Keyset page of matches for a neighborhood with their users, after a match ID
+     */
+    @Query("SELECT m FROM Match m JOIN FETCH m.user WHERE m.neighborhood.id = :neighborhoodId AND m.id > :afterId " +
+           "ORDER BY m.id ASC")
+    List<Match> findByNeighborhoodIdAfter(@Param("neighborhoodId") Long neighborhoodId,
+                                          @Param("afterId") Long afterId,
+                                          Pageable pageable);
+
     /**
      * Find matches with user feedback
      */
@@ -72,30 +146,35 @@ public interface MatchRepository extends JpaRepository<Match, Long> {
     /**
      * Find matches by score range
      */
+    @EntityGraph(attributePaths = {"user", "neighborhood"})
     @Query("SELECT m FROM Match m WHERE m.overallScore BETWEEN :minScore AND :maxScore ORDER BY m.overallScore DESC")
     List<Match> findByScoreRange(@Param("minScore") Double minScore, @Param("maxScore") Double maxScore);
     
     /**
      * Find matches by component score
      */
+    @EntityGraph(attributePaths = {"user", "neighborhood"})
     @Query("SELECT m FROM Match m WHERE m.lifestyleScore >= :minLifestyleScore ORDER BY m.lifestyleScore DESC")
     List<Match> findByMinLifestyleScore(@Param("minLifestyleScore") Double minLifestyleScore);
     
     /**
      * Find matches by demographic score
      */
+    @EntityGraph(attributePaths = {"user", "neighborhood"})
     @Query("SELECT m FROM Match m WHERE m.demographicScore >= :minDemographicScore ORDER BY m.demographicScore DESC")
     List<Match> findByMinDemographicScore(@Param("minDemographicScore") Double minDemographicScore);
     
     /**
      * Find matches by location score
      */
+    @EntityGraph(attributePaths = {"user", "neighborhood"})
     @Query("SELECT m FROM Match m WHERE m.locationScore >= :minLocationScore ORDER BY m.locationScore DESC")
     List<Match> findByMinLocationScore(@Param("minLocationScore") Double minLocationScore);
     
     /**
      * Find matches by budget score
      */
+    @EntityGraph(attributePaths = {"user", "neighborhood"})
     @Query("SELECT m FROM Match m WHERE m.budgetScore >= :minBudgetScore ORDER BY m.budgetScore DESC")
     List<Match> findByMinBudgetScore(@Param("minBudgetScore") Double minBudgetScore);
     
@@ -108,6 +187,81 @@ public interface MatchRepository extends JpaRepository<Match, Long> {
     /**
      * Find recent matches
      */
+    @EntityGraph(attributePaths = {"user", "neighborhood"})
     @Query("SELECT m FROM Match m ORDER BY m.createdAt DESC LIMIT :limit")
     List<Match> findRecentMatches(@Param("limit") int limit);
+    
+    /**
+     * Keyset page of matches by match strength, after (overallScore, id)
+     */
+    @Query("SELECT m FROM Match m JOIN FETCH m.neighborhood WHERE m.matchStrength = :matchStrength AND " +
+           "(m.overallScore < :afterScore OR (m.overallScore = :afterScore AND m.id < :afterId)) " +
+           "ORDER BY m.overallScore DESC, m.id DESC")
+    List<Match> findByMatchStrengthAfter(@Param("matchStrength") Match.MatchStrength matchStrength,
+                                         @Param("afterScore") Double afterScore,
+                                         @Param("afterId") Long afterId,
+                                         Pageable pageable);
+    
+    /**
+     * Keyset page of matches by score range, after (overallScore, id)
+     */
+    @Query("SELECT m FROM Match m JOIN FETCH m.neighborhood WHERE m.overallScore BETWEEN :minScore AND :maxScore AND " +
+           "(m.overallScore < :afterScore OR (m.overallScore = :afterScore AND m.id < :afterId)) " +
+           "ORDER BY m.overallScore DESC, m.id DESC")
+    List<Match> findByScoreRangeAfter(@Param("minScore") Double minScore,
+                                      @Param("maxScore") Double maxScore,
+                                      @Param("afterScore") Double afterScore,
+                                      @Param("afterId") Long afterId,
+                                      Pageable pageable);
+    
+    /**
+     * Keyset page of matches by minimum lifestyle score, after (lifestyleScore, id)
+     */
+    @Query("SELECT m FROM Match m JOIN FETCH m.neighborhood WHERE m.lifestyleScore >= :minScore AND " +
+           "(m.lifestyleScore < :afterScore OR (m.lifestyleScore = :afterScore AND m.id < :afterId)) " +
+           "ORDER BY m.lifestyleScore DESC, m.id DESC")
+    List<Match> findByMinLifestyleScoreAfter(@Param("minScore") Double minScore,
+                                             @Param("afterScore") Double afterScore,
+                                             @Param("afterId") Long afterId,
+                                             Pageable pageable);
+    
+    /**
+     * Keyset page of matches by minimum demographic score, after (demographicScore, id)
+     */
+    @Query("SELECT m FROM Match m JOIN FETCH m.neighborhood WHERE m.demographicScore >= :minScore AND " +
+           "(m.demographicScore < :afterScore OR (m.demographicScore = :afterScore AND m.id < :afterId)) " +
+           "ORDER BY m.demographicScore DESC, m.id DESC")
+    List<Match> findByMinDemographicScoreAfter(@Param("minScore") Double minScore,
+                                               @Param("afterScore") Double afterScore,
+                                               @Param("afterId") Long afterId,
+                                               Pageable pageable);
+    
+    /**
+     * Keyset page of matches by minimum location score, after (locationScore, id)
+     */
+    @Query("SELECT m FROM Match m JOIN FETCH m.neighborhood WHERE m.locationScore >= :minScore AND " +
+           "(m.locationScore < :afterScore OR (m.locationScore = :afterScore AND m.id < :afterId)) " +
+           "ORDER BY m.locationScore DESC, m.id DESC")
+    List<Match> findByMinLocationScoreAfter(@Param("minScore") Double minScore,
+                                            @Param("afterScore") Double afterScore,
+                                            @Param("afterId") Long afterId,
+                                            Pageable pageable);
+    
+    /**
+     * Keyset page of matches by minimum budget score, after (budgetScore, id)
+     */
+    @Query("SELECT m FROM Match m JOIN FETCH m.neighborhood WHERE m.budgetScore >= :minScore AND " +
+           "(m.budgetScore < :afterScore OR (m.budgetScore = :afterScore AND m.id < :afterId)) " +
+           "ORDER BY m.budgetScore DESC, m.id DESC")
+    List<Match> findByMinBudgetScoreAfter(@Param("minScore") Double minScore,
+                                          @Param("afterScore") Double afterScore,
+                                          @Param("afterId") Long afterId,
+                                          Pageable pageable);
+    
+    /**
+     * Stream (userId, neighborhoodId, matchStrength, overallScore) for every match, for analytics reconciliation
+     */
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "1000"))
+    @Query("SELECT m.user.id, m.neighborhood.id, m.matchStrength, m.overallScore FROM Match m")
+    Stream<Object[]> streamMatchStates();
 } 
\ No newline at end of file
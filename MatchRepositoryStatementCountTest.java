@@ -0,0 +1,135 @@
+package com.neighborfit.repository;
+
+import com.neighborfit.config.PersistenceBatchingConfig;
+import com.neighborfit.model.Match;
+import com.neighborfit.model.Neighborhood;
+import com.neighborfit.model.User;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Statement counts of the match read paths
+ *
+ * Loads a user's match history and top matches, then touches every
+ * association and element collection a response would serialize. The
+ * number of prepared statements must not grow with the number of matches,
+ * which is what the entity graphs and batch fetching guarantee.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import(PersistenceBatchingConfig.class)
+class MatchRepositoryStatementCountTest {
+
+    private static final int FEW = 3;
+    private static final int MANY = 40;
+
+    /**
+     * One query for the matches with their neighborhoods, plus one batch per element collection
+     */
+    private static final long MAX_STATEMENTS = 6;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private MatchRepository matchRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+    }
+
+    @Test
+    void historyUsesConstantStatementCount() {
+        User few = userWithMatches("few", FEW);
+        User many = userWithMatches("many", MANY);
+
+        long fewStatements = countStatements(few, matchRepository::findByUserOrderByOverallScoreDesc, FEW);
+        long manyStatements = countStatements(many, matchRepository::findByUserOrderByOverallScoreDesc, MANY);
+
+        assertThat(manyStatements).isEqualTo(fewStatements);
+        assertThat(manyStatements).isLessThanOrEqualTo(MAX_STATEMENTS);
+    }
+
+    @Test
+    void topMatchesUseConstantStatementCount() {
+        User few = userWithMatches("few", FEW);
+        User many = userWithMatches("many", MANY);
+
+        long fewStatements = countStatements(few, user -> matchRepository.findTopMatchesForUser(user, FEW), FEW);
+        long manyStatements = countStatements(many, user -> matchRepository.findTopMatchesForUser(user, MANY), MANY);
+
+        assertThat(manyStatements).isEqualTo(fewStatements);
+        assertThat(manyStatements).isLessThanOrEqualTo(MAX_STATEMENTS);
+    }
+
+    private long countStatements(User user, Function<User, List<Match>> query, int expectedMatches) {
+        entityManager.clear();
+        User reference = entityManager.getEntityManager().getReference(User.class, user.getId());
+        statistics.clear();
+
+        List<Match> matches = query.apply(reference);
+        for (Match match : matches) {
+            Neighborhood neighborhood = match.getNeighborhood();
+            neighborhood.getName();
+            neighborhood.getLifestyleCharacteristics().size();
+            neighborhood.getAmenities().size();
+            neighborhood.getTransportationOptions().size();
+        }
+
+        assertThat(matches).hasSize(expectedMatches);
+        return statistics.getPrepareStatementCount();
+    }
+
+    private User userWithMatches(String name, int count) {
+        User user = entityManager.persist(User.builder()
+                .name(name)
+                .email(name + "@statements.neighborfit.test")
+                .age(30)
+                .lifestylePreferences(new ArrayList<>(List.of(User.LifestylePreference.values()[0])))
+                .familyStatus(User.FamilyStatus.SINGLE)
+                .transportationPreference(User.TransportationPreference.PUBLIC_TRANSIT)
+                .minBudget(300000)
+                .maxBudget(600000)
+                .build());
+        for (int i = 0; i < count; i++) {
+            Neighborhood neighborhood = entityManager.persist(Neighborhood.builder()
+                    .name(name + " District " + i)
+                    .city("Chicago")
+                    .state("IL")
+                    .zipCode(String.format("%05d", 60000 + i))
+                    .lifestyleCharacteristics(new ArrayList<>(List.of(Neighborhood.LifestyleCharacteristic.values()[0])))
+                    .amenities(new ArrayList<>(List.of(Neighborhood.Amenity.values()[0])))
+                    .transportationOptions(new ArrayList<>(List.of(Neighborhood.TransportationOption.values()[0])))
+                    .build());
+            entityManager.persist(Match.builder()
+                    .user(user)
+                    .neighborhood(neighborhood)
+                    .overallScore(1.0 - i / 100.0)
+                    .matchStrength(Match.MatchStrength.values()[0])
+                    .createdAt(LocalDateTime.now())
+                    .build());
+        }
+        entityManager.flush();
+        return user;
+    }
+}
@@ -0,0 +1,76 @@
+package com.neighborfit.service;
+
+import com.neighborfit.dto.MatchResultDto;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Coalesces concurrent identical match requests for a user
+ *
+ * Requests are keyed on user, limit and the user's {@link DataVersionRegistry.Stamp},
+ * so calls that would compute the same result from the same data share one
+ * computation and one persistence pass instead of each writing duplicate
+ * matches. A request arriving after the data changed gets a different key
+ * and computes afresh. A caller that joins another's computation runs a
+ * callback first, so it can give back resources it will not use while
+ * waiting.
+ */
+@Component
+public class MatchRequestCoalescer {
+
+    private final MatchingService matchingService;
+    private final DataVersionRegistry versions;
+    private final SingleFlight<Key, List<MatchResultDto>> flights = new SingleFlight<>();
+
+    public MatchRequestCoalescer(MatchingService matchingService,
+                                 DataVersionRegistry versions,
+                                 MeterRegistry registry) {
+        this.matchingService = matchingService;
+        this.versions = versions;
+        FunctionCounter.builder("neighborfit.matching.requests.executed", flights, SingleFlight::getExecutions)
+                .description("Match requests that ran a computation")
+                .register(registry);
+        FunctionCounter.builder("neighborfit.matching.requests.coalesced", flights, SingleFlight::getCoalesced)
+                .description("Match requests that shared an identical request already in flight")
+                .register(registry);
+        Gauge.builder("neighborfit.matching.requests.in-flight", flights, SingleFlight::getInFlight)
+                .description("Distinct match computations in flight")
+                .register(registry);
+    }
+
+    /**
+     * Find and persist matches for a user, sharing any identical computation already in flight
+     *
+     * {@code onJoin} runs before a caller waits on a computation already in flight.
+     */
+    public List<MatchResultDto> findMatchesForUser(Long userId, int limit, Runnable onJoin) {
+        Key key = new Key(userId, limit, versions.stampFor(userId));
+        return flights.execute(key, () -> {
+            List<MatchResultDto> matches = matchingService.findMatchesForUser(userId, limit);
+            versions.userMatchesChanged(userId);
+            return matches;
+        }, onJoin);
+    }
+
+    /**
+     * Execution and coalescing counts
+     */
+    public CoalescingStats getStats() {
+        return new CoalescingStats(flights.getExecutions(), flights.getCoalesced(), flights.getInFlight());
+    }
+
+    public record CoalescingStats(long executed, long coalesced, int inFlight) {
+
+        public double coalescedRatio() {
+            long total = executed + coalesced;
+            return total > 0 ? (double) coalesced / total : 0.0;
+        }
+    }
+
+    private record Key(Long userId, int limit, DataVersionRegistry.Stamp stamp) {
+    }
+}
@@ -0,0 +1,143 @@
+package com.neighborfit.service;
+
+import com.neighborfit.dto.MatchResultDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Bounded cache of per-user match results
+ *
+ * Entries are keyed on the user, the query and the {@link DataVersionRegistry.Stamp}
+ * current when they were loaded. Any profile, match or neighborhood change
+ * moves the stamp, so stale results are never served. Capacity is bounded
+ * with LRU eviction and every entry expires after a fixed TTL.
+ */
+@Component
+public class MatchResultCache {
+
+    /**
+     * Kind of per-user query being cached
+     */
+    public enum Query {
+        HISTORY,
+        TOP_MATCHES
+    }
+
+    private final DataVersionRegistry versions;
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final LinkedHashMap<Key, Entry> entries;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public MatchResultCache(DataVersionRegistry versions,
+                            @Value("${neighborfit.cache.matches.max-entries:10000}") int maxEntries,
+                            @Value("${neighborfit.cache.matches.ttl:PT5M}") Duration ttl) {
+        this.versions = versions;
+        this.maxEntries = Math.max(1, maxEntries);
+        this.ttlNanos = ttl.toNanos();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * Get cached results for a user query, loading and caching them on a miss
+     */
+    public List<MatchResultDto> get(Long userId, Query query, int limit, Supplier<List<MatchResultDto>> loader) {
+        // Take the stamp before loading so a concurrent change makes this entry unreachable
+        Key key = new Key(userId, query, limit, versions.stampFor(userId));
+        long now = System.nanoTime();
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                if (now - entry.loadedAt < ttlNanos) {
+                    hits.increment();
+                    return entry.value;
+                }
+                entries.remove(key);
+                evictions.increment();
+            }
+        }
+        misses.increment();
+        List<MatchResultDto> value = List.copyOf(loader.get());
+        synchronized (entries) {
+            entries.put(key, new Entry(value, now));
+            evictOverflow();
+        }
+        return value;
+    }
+
+    /**
+     * Drop all cached entries for a user
+     *
+     * Stale entries are already unreachable once the user's version moves;
+     * this only frees their memory early.
+     */
+    public void invalidateUser(Long userId) {
+        synchronized (entries) {
+            Iterator<Key> it = entries.keySet().iterator();
+            while (it.hasNext()) {
+                if (it.next().userId.equals(userId)) {
+                    it.remove();
+                    evictions.increment();
+                }
+            }
+        }
+    }
+
+    /**
+     * Drop every cached entry
+     */
+    public void invalidateAll() {
+        synchronized (entries) {
+            evictions.add(entries.size());
+            entries.clear();
+        }
+    }
+
+    /**
+     * Cache statistics since startup
+     */
+    public CacheStats getStats() {
+        int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+        return new CacheStats(size, maxEntries, hits.sum(), misses.sum(), evictions.sum());
+    }
+
+    private void evictOverflow() {
+        Iterator<Map.Entry<Key, Entry>> it = entries.entrySet().iterator();
+        while (entries.size() > maxEntries && it.hasNext()) {
+            it.next();
+            it.remove();
+            evictions.increment();
+        }
+    }
+
+    private record Key(Long userId, Query query, int limit, DataVersionRegistry.Stamp stamp) {
+    }
+
+    private record Entry(List<MatchResultDto> value, long loadedAt) {
+    }
+
+    /**
+     * Cache statistics
+     */
+    public record CacheStats(int size, int maxEntries, long hits, long misses, long evictions) {
+
+        public double hitRatio() {
+            long total = hits + misses;
+            return total > 0 ? (double) hits / total : 0.0;
+        }
+    }
+}
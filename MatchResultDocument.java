@@ -0,0 +1,57 @@
+package com.neighborfit.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Materialized match API responses for one user
+ *
+ * Holds the serialized {@code MatchResultDto} lists the top-matches and
+ * history endpoints return, so they are served with a single primary key
+ * lookup. The history is only kept when it fits in the top-matches list.
+ * {@link #versionTag} records the user's data version the lists were built
+ * from, and a document whose tag no longer matches is not served.
+ */
+@Entity
+@Table(name = "match_result_documents")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MatchResultDocument {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "version_tag", nullable = false)
+    private String versionTag;
+
+    /**
+     * JSON array of the user's best matches, best first
+     */
+    @Lob
+    @Column(name = "top_matches", nullable = false)
+    private String topMatches;
+
+    /**
+     * Number of matches in {@link #topMatches}
+     */
+    @Column(name = "top_match_count", nullable = false)
+    private Integer topMatchCount;
+
+    /**
+     * JSON array of the user's whole match history, or null when it is longer than the top matches
+     */
+    @Lob
+    @Column(name = "history")
+    private String history;
+
+    @Column(name = "refreshed_at", nullable = false)
+    private LocalDateTime refreshedAt;
+}
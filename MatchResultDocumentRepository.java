@@ -0,0 +1,24 @@
+package com.neighborfit.repository;
+
+import com.neighborfit.model.MatchResultDocument;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+
+/**
+ * Repository interface for materialized match API responses
+ */
+@Repository
+public interface MatchResultDocumentRepository extends JpaRepository<MatchResultDocument, Long> {
+
+    /**
+     * Delete the documents of the given users
+     */
+    @Modifying
+    @Query("DELETE FROM MatchResultDocument d WHERE d.userId IN :userIds")
+    int deleteByUserIds(@Param("userIds") Collection<Long> userIds);
+}
@@ -0,0 +1,67 @@
+package com.neighborfit.dto;
+
+import com.neighborfit.model.Match;
+import com.neighborfit.model.Neighborhood;
+import com.neighborfit.model.TopMatchView;
+
+import java.time.LocalDateTime;
+
+/**
+ * Flat view of a match for paginated listings
+ * 
+ * Carries only match columns and the neighborhood fields needed to display
+ * a row, so building it touches no element collections.
+ */
+public record MatchSummaryDto(
+    Long matchId,
+    Long userId,
+    Long neighborhoodId,
+    String neighborhoodName,
+    String city,
+    String state,
+    Double overallScore,
+    Double lifestyleScore,
+    Double demographicScore,
+    Double locationScore,
+    Double budgetScore,
+    Match.MatchStrength matchStrength,
+    LocalDateTime createdAt
+) {
+    
+    public static MatchSummaryDto from(Match match) {
+        Neighborhood neighborhood = match.getNeighborhood();
+        return new MatchSummaryDto(
+            match.getId(),
+            match.getUser().getId(),
+            neighborhood.getId(),
+            neighborhood.getName(),
+            neighborhood.getCity(),
+            neighborhood.getState(),
+            match.getOverallScore(),
+            match.getLifestyleScore(),
+            match.getDemographicScore(),
+            match.getLocationScore(),
+            match.getBudgetScore(),
+            match.getMatchStrength(),
+            match.getCreatedAt()
+        );
+    }
+    
+    public static MatchSummaryDto from(TopMatchView view) {
+        return new MatchSummaryDto(
+            view.getMatchId(),
+            view.getUserId(),
+            view.getNeighborhoodId(),
+            view.getNeighborhoodName(),
+            view.getCity(),
+            view.getState(),
+            view.getOverallScore(),
+            view.getLifestyleScore(),
+            view.getDemographicScore(),
+            view.getLocationScore(),
+            view.getBudgetScore(),
+            view.getMatchStrength(),
+            view.getCreatedAt()
+        );
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,108 @@
+package com.neighborfit.benchmark;
+
+import com.neighborfit.model.User;
+import com.neighborfit.service.BulkMatchingEngine;
+import com.neighborfit.service.NeighborhoodFeatureSnapshot;
+import com.neighborfit.service.TopKHeap;
+import com.neighborfit.service.TopKMatchSelector;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for in-memory single-user and bulk matching
+ *
+ * Runs against the columnar neighborhood snapshot built from synthetic data,
+ * so no database is involved. Run through {@link BenchmarkRunner} to get
+ * allocation rates from the GC profiler.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MatchingBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    public int neighborhoods;
+
+    @Param({"1000"})
+    public int users;
+
+    @Param({"10"})
+    public int limit;
+
+    private NeighborhoodFeatureSnapshot.Columns columns;
+    private List<User> userList;
+    private BenchmarkScorer scorer;
+    private TopKMatchSelector selector;
+    private BulkMatchingEngine engine;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SyntheticDataGenerator generator = new SyntheticDataGenerator(42L);
+        columns = NeighborhoodFeatureSnapshot.Columns.from(generator.neighborhoodsWithIds(neighborhoods));
+        userList = generator.usersWithIds(users);
+        scorer = new BenchmarkScorer();
+        selector = new TopKMatchSelector();
+        engine = new BulkMatchingEngine(selector, 0, 64);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        engine.shutdown();
+    }
+
+    /**
+     * Top-K for one user with upper-bound pruning
+     */
+    @Benchmark
+    public TopKHeap.Ranked singleUserTopK() {
+        User user = userList.get(next++ % userList.size());
+        return selector.select(user, columns, scorer, limit);
+    }
+
+    /**
+     * Top-K for one user scoring every candidate fully
+     */
+    @Benchmark
+    public TopKHeap.Ranked singleUserFullScan() {
+        User user = userList.get(next++ % userList.size());
+        return selector.select(user, columns, scorer::score, limit);
+    }
+
+    /**
+     * All users on the fork-join engine
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public BulkMatchingEngine.BulkMatchingResult bulkParallel() {
+        return engine.matchAll(userList, columns, scorer, limit);
+    }
+
+    /**
+     * All users on the calling thread, as the baseline for parallel speed-up
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public BulkMatchingEngine.BulkMatchingResult bulkSequential() {
+        return engine.matchAllSequential(userList, columns, scorer, limit);
+    }
+}
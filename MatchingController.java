@@ -1,21 +1,51 @@
 package com.neighborfit.controller;
 
+import com.neighborfit.config.AdmissionControlInterceptor;
+import com.neighborfit.dto.KeysetPage;
 import com.neighborfit.dto.MatchResultDto;
+import com.neighborfit.dto.MatchSummaryDto;
 import com.neighborfit.model.Match;
+import com.neighborfit.service.AnnCandidateGenerator;
+import com.neighborfit.service.BulkMatchingJobService;
+import com.neighborfit.service.ComponentScorer;
+import com.neighborfit.service.DataVersionRegistry;
+import com.neighborfit.service.IncrementalRematchService;
+import com.neighborfit.service.KeysetPaginationService;
+import com.neighborfit.service.LiveMatchAnalytics;
+import com.neighborfit.service.MatchRequestCoalescer;
+import com.neighborfit.service.MatchResultCache;
 import com.neighborfit.service.MatchingService;
+import com.neighborfit.service.ParallelMatchingService;
+import com.neighborfit.service.StreamingExportService;
+import com.neighborfit.service.TopKMatchSelector;
+import com.neighborfit.service.TopMatchReadModel;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.io.IOException;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * REST API controller for matching operations
  * 
  * Provides endpoints for finding matches, retrieving match history,
- * and managing user feedback on matches.
+ * and managing user feedback on matches. Responses are JSON, or CBOR
+ * when requested with {@code Accept: application/cbor}. Polled reads
+ * support conditional GET: they carry an ETag and Last-Modified derived from
+ * {@link DataVersionRegistry}, and a request whose validators still match
+ * gets a 304 before any query runs.
  */
 @RestController
 @RequestMapping("/matching")
@@ -25,16 +55,31 @@ import java.util.List;
 public class MatchingController {
     
     private final MatchingService matchingService;
+    private final StreamingExportService streamingExportService;
+    private final TopKMatchSelector topKMatchSelector;
+    private final MatchResultCache matchResultCache;
+    private final DataVersionRegistry dataVersions;
+    private final IncrementalRematchService incrementalRematchService;
+    private final KeysetPaginationService keysetPaginationService;
+    private final LiveMatchAnalytics liveMatchAnalytics;
+    private final BulkMatchingJobService bulkMatchingJobService;
+    private final AnnCandidateGenerator annCandidateGenerator;
+    private final TopMatchReadModel topMatchReadModel;
+    private final MatchRequestCoalescer matchRequestCoalescer;
+    private final ParallelMatchingService parallelMatchingService;
     
     /**
      * Find matches for a specific user
      */
     @PostMapping("/users/{userId}/matches")
     public ResponseEntity<List<MatchResultDto>> findMatchesForUser(@PathVariable Long userId,
-                                                                  @RequestParam(defaultValue = "10") int limit) {
+                                                                   @RequestParam(defaultValue = "10") int limit,
+                                                                   HttpServletRequest request) {
         try {
-            log.info("Finding matches for user ID: {} with limit: {}", userId, limit);
-            List<MatchResultDto> matches = matchingService.findMatchesForUser(userId, limit);
+            log.debug("Finding matches for user ID: {} with limit: {}", userId, limit);
+            // A caller sharing an identical request in flight waits without holding a matching permit
+            List<MatchResultDto> matches = matchRequestCoalescer.findMatchesForUser(userId, limit,
+                    () -> AdmissionControlInterceptor.releasePermits(request));
             return ResponseEntity.ok(matches);
         } catch (IllegalArgumentException e) {
             log.error("Match finding failed: {}", e.getMessage());
@@ -46,28 +91,145 @@ public class MatchingController {
     }
     
     /**
-     * Find matches for all users
+     * Find matches for all users, matching each page of users in parallel
      */
     @PostMapping("/all-users/matches")
     public ResponseEntity<List<MatchResultDto>> findMatchesForAllUsers(@RequestParam(defaultValue = "5") int limitPerUser) {
         try {
             log.info("Finding matches for all users with limit per user: {}", limitPerUser);
-            List<MatchResultDto> matches = matchingService.findMatchesForAllUsers(limitPerUser);
+            List<MatchResultDto> matches = parallelMatchingService.findMatchesForAllUsers(limitPerUser);
+            dataVersions.allMatchesChanged();
             return ResponseEntity.ok(matches);
+        } catch (IllegalArgumentException e) {
+            log.error("Bulk match finding failed: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             log.error("Unexpected error during bulk match finding: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
     
+    /**
+     * Find matches for all users, streamed as newline-delimited JSON
+     */
+    @PostMapping(value = "/all-users/matches", produces = StreamingExportService.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamMatchesForAllUsers(@RequestParam(defaultValue = "5") int limitPerUser) {
+        try {
+            log.info("Streaming matches for all users with limit per user: {}", limitPerUser);
+            if (limitPerUser <= 0) {
+                throw new IllegalArgumentException("Limit per user must be positive: " + limitPerUser);
+            }
+            StreamingResponseBody body = out -> {
+                try {
+                    streamingExportService.streamMatchesForAllUsers(limitPerUser, out);
+                } catch (IOException | RuntimeException e) {
+                    // The status is already sent, so the client sees a truncated stream
+                    log.error("Streaming matches for all users failed: {}", e.getMessage());
+                    throw e;
+                } finally {
+                    dataVersions.allMatchesChanged();
+                }
+            };
+            return ResponseEntity.ok()
+                    .contentType(MediaType.parseMediaType(StreamingExportService.APPLICATION_NDJSON_VALUE))
+                    .body(body);
+        } catch (IllegalArgumentException e) {
+            log.error("Bulk match streaming failed: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            log.error("Unexpected error during bulk match streaming: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
+    /**
+     * Submit a background job that finds matches for all users
+     */
+    @PostMapping("/jobs")
+    public ResponseEntity<BulkMatchingJobService.JobProgress> submitBulkMatchingJob(@RequestParam(defaultValue = "5") int limitPerUser) {
+        try {
+            log.info("Submitting bulk matching job with limit per user: {}", limitPerUser);
+            BulkMatchingJobService.JobProgress job = bulkMatchingJobService.submit(limitPerUser);
+            return ResponseEntity.accepted()
+                    .location(ServletUriComponentsBuilder.fromCurrentRequest()
+                            .path("/{jobId}").buildAndExpand(job.jobId()).toUri())
+                    .body(job);
+        } catch (IllegalArgumentException e) {
+            log.error("Bulk matching job submission failed: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            log.error("Unexpected error submitting bulk matching job: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
+    /**
+     * List bulk matching jobs
+     */
+    @GetMapping("/jobs")
+    public ResponseEntity<List<BulkMatchingJobService.JobProgress>> getBulkMatchingJobs() {
+        return ResponseEntity.ok(bulkMatchingJobService.getAllProgress());
+    }
+    
+    /**
+     * Get progress of a bulk matching job
+     */
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<BulkMatchingJobService.JobProgress> getBulkMatchingJob(@PathVariable String jobId) {
+        return bulkMatchingJobService.getProgress(jobId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+    
+    /**
+     * Cancel a bulk matching job
+     */
+    @PostMapping("/jobs/{jobId}/cancel")
+    public ResponseEntity<BulkMatchingJobService.JobProgress> cancelBulkMatchingJob(@PathVariable String jobId) {
+        try {
+            log.info("Cancelling bulk matching job: {}", jobId);
+            return ResponseEntity.ok(bulkMatchingJobService.cancel(jobId));
+        } catch (IllegalArgumentException e) {
+            log.error("Bulk matching job cancellation failed: {}", e.getMessage());
+            return ResponseEntity.notFound().build();
+        } catch (Exception e) {
+            log.error("Unexpected error cancelling bulk matching job: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
+    /**
+     * Re-score existing matches after a neighborhood changed
+     */
+    @PostMapping("/neighborhoods/{neighborhoodId}/rematch")
+    public ResponseEntity<Void> rematchNeighborhood(@PathVariable Long neighborhoodId) {
+        try {
+            log.info("Scheduling incremental rematch for neighborhood ID: {}", neighborhoodId);
+            incrementalRematchService.requireNeighborhood(neighborhoodId);
+            incrementalRematchService.rematchNeighborhood(neighborhoodId);
+            return ResponseEntity.accepted().build();
+        } catch (IllegalArgumentException e) {
+            log.error("Neighborhood rematch failed: {}", e.getMessage());
+            return ResponseEntity.notFound().build();
+        } catch (Exception e) {
+            log.error("Unexpected error scheduling neighborhood rematch: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
     /**
      * Get match history for a user
      */
     @GetMapping("/users/{userId}/history")
-    public ResponseEntity<List<MatchResultDto>> getMatchHistoryForUser(@PathVariable Long userId) {
+    public ResponseEntity<List<MatchResultDto>> getMatchHistoryForUser(@PathVariable Long userId,
+                                                                      ServletWebRequest request) {
         try {
-            log.info("Getting match history for user ID: {}", userId);
-            List<MatchResultDto> matches = matchingService.getMatchHistoryForUser(userId);
+            if (notModified(request, dataVersions.userValidator(userId))) {
+                return null;
+            }
+            log.debug("Getting match history for user ID: {}", userId);
+            List<MatchResultDto> matches = matchResultCache.get(userId, MatchResultCache.Query.HISTORY, 0,
+                    () -> topMatchReadModel.getHistoryResults(userId));
             return ResponseEntity.ok(matches);
         } catch (IllegalArgumentException e) {
             log.error("Failed to get match history: {}", e.getMessage());
@@ -83,10 +245,15 @@ public class MatchingController {
      */
     @GetMapping("/users/{userId}/top-matches")
     public ResponseEntity<List<MatchResultDto>> getTopMatchesForUser(@PathVariable Long userId,
-                                                                    @RequestParam(defaultValue = "5") int limit) {
+                                                                    @RequestParam(defaultValue = "5") int limit,
+                                                                    ServletWebRequest request) {
         try {
-            log.info("Getting top {} matches for user ID: {}", limit, userId);
-            List<MatchResultDto> matches = matchingService.getTopMatchesForUser(userId, limit);
+            if (notModified(request, dataVersions.userValidator(userId))) {
+                return null;
+            }
+            log.debug("Getting top {} matches for user ID: {}", limit, userId);
+            List<MatchResultDto> matches = matchResultCache.get(userId, MatchResultCache.Query.TOP_MATCHES, limit,
+                    () -> topMatchReadModel.getTopMatchResults(userId, limit));
             return ResponseEntity.ok(matches);
         } catch (IllegalArgumentException e) {
             log.error("Failed to get top matches: {}", e.getMessage());
@@ -97,28 +264,132 @@ public class MatchingController {
         }
     }
     
+    /**
+     * Get match history for a user from the materialized read model
+     */
+    @GetMapping("/users/{userId}/history/view")
+    public ResponseEntity<List<MatchSummaryDto>> getMatchHistoryView(@PathVariable Long userId) {
+        try {
+            log.debug("Getting materialized match history for user ID: {}", userId);
+            return ResponseEntity.ok(topMatchReadModel.getHistory(userId));
+        } catch (Exception e) {
+            log.error("Unexpected error getting materialized match history: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
+    /**
+     * Get top matches for a user from the materialized read model
+     */
+    @GetMapping("/users/{userId}/top-matches/view")
+    public ResponseEntity<List<MatchSummaryDto>> getTopMatchesView(@PathVariable Long userId,
+                                                                  @RequestParam(defaultValue = "5") int limit) {
+        try {
+            log.debug("Getting materialized top {} matches for user ID: {}", limit, userId);
+            return ResponseEntity.ok(topMatchReadModel.getTopMatches(userId, limit));
+        } catch (IllegalArgumentException e) {
+            log.error("Failed to get materialized top matches: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            log.error("Unexpected error getting materialized top matches: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
     /**
      * Get matches by strength
+     * 
+     * @deprecated loads every match of the strength in one response; use
+     * {@code /strength/{strength}/page}, which the response names in its
+     * {@code Link} header
      */
+    @Deprecated
     @GetMapping("/strength/{strength}")
     public ResponseEntity<List<MatchResultDto>> getMatchesByStrength(@PathVariable Match.MatchStrength strength) {
         try {
-            log.info("Getting matches by strength: {}", strength);
+            log.debug("Getting matches by strength: {}", strength);
             List<MatchResultDto> matches = matchingService.getMatchesByStrength(strength);
-            return ResponseEntity.ok(matches);
+            String successor = ServletUriComponentsBuilder.fromCurrentRequest().path("/page").build().toUriString();
+            return ResponseEntity.ok()
+                    .header("Deprecation", "true")
+                    .header(HttpHeaders.LINK, "<" + successor + ">; rel=\"successor-version\"")
+                    .body(matches);
         } catch (Exception e) {
             log.error("Unexpected error getting matches by strength: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
     
+    /**
+     * Get a page of matches by strength
+     */
+    @GetMapping("/strength/{strength}/page")
+    public ResponseEntity<KeysetPage<MatchSummaryDto>> getMatchesByStrengthPage(@PathVariable Match.MatchStrength strength,
+                                                                               @RequestParam(required = false) String cursor,
+                                                                               @RequestParam(defaultValue = "50") int size) {
+        try {
+            log.debug("Getting page of matches by strength: {} with size: {}", strength, size);
+            return ResponseEntity.ok(keysetPaginationService.getMatchesByStrength(strength, cursor, size));
+        } catch (IllegalArgumentException e) {
+            log.error("Invalid page request: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            log.error("Unexpected error getting page of matches by strength: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
+    /**
+     * Get a page of matches by overall score range
+     */
+    @GetMapping("/score-range/page")
+    public ResponseEntity<KeysetPage<MatchSummaryDto>> getMatchesByScoreRangePage(@RequestParam Double minScore,
+                                                                                 @RequestParam Double maxScore,
+                                                                                 @RequestParam(required = false) String cursor,
+                                                                                 @RequestParam(defaultValue = "50") int size) {
+        try {
+            log.debug("Getting page of matches by score range: {} - {} with size: {}", minScore, maxScore, size);
+            return ResponseEntity.ok(keysetPaginationService.getMatchesByScoreRange(minScore, maxScore, cursor, size));
+        } catch (IllegalArgumentException e) {
+            log.error("Invalid page request: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            log.error("Unexpected error getting page of matches by score range: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
+    /**
+     * Get a page of matches by minimum component score
+     */
+    @GetMapping("/component/{component}/page")
+    public ResponseEntity<KeysetPage<MatchSummaryDto>> getMatchesByComponentScorePage(@PathVariable ComponentScorer.Component component,
+                                                                                     @RequestParam Double minScore,
+                                                                                     @RequestParam(required = false) String cursor,
+                                                                                     @RequestParam(defaultValue = "50") int size) {
+        try {
+            log.debug("Getting page of matches by minimum {} score: {} with size: {}", component, minScore, size);
+            return ResponseEntity.ok(keysetPaginationService.getMatchesByMinComponentScore(component, minScore, cursor, size));
+        } catch (IllegalArgumentException e) {
+            log.error("Invalid page request: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            log.error("Unexpected error getting page of matches by component score: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
     /**
      * Get recent matches
      */
     @GetMapping("/recent")
-    public ResponseEntity<List<MatchResultDto>> getRecentMatches(@RequestParam(defaultValue = "10") int limit) {
+    public ResponseEntity<List<MatchResultDto>> getRecentMatches(@RequestParam(defaultValue = "10") int limit,
+                                                                ServletWebRequest request) {
         try {
-            log.info("Getting recent {} matches", limit);
+            if (notModified(request, dataVersions.globalValidator())) {
+                return null;
+            }
+            log.debug("Getting recent {} matches", limit);
             List<MatchResultDto> matches = matchingService.getRecentMatches(limit);
             return ResponseEntity.ok(matches);
         } catch (Exception e) {
@@ -150,20 +421,85 @@ public class MatchingController {
     }
     
     /**
-     * Get match analytics
+     * Get match analytics, maintained live from match writes
      */
-    @GetMapping("/analytics")
-    public ResponseEntity<MatchingService.MatchAnalytics> getMatchAnalytics() {
+    @GetMapping({"/analytics", "/analytics/live"})
+    public ResponseEntity<LiveMatchAnalytics.Summary> getMatchAnalytics(ServletWebRequest request) {
         try {
-            log.info("Getting match analytics");
-            MatchingService.MatchAnalytics analytics = matchingService.getMatchAnalytics();
-            return ResponseEntity.ok(analytics);
+            if (notModified(request, dataVersions.globalValidator())) {
+                return null;
+            }
+            log.debug("Getting match analytics");
+            return ResponseEntity.ok(liveMatchAnalytics.getSummary());
         } catch (Exception e) {
             log.error("Unexpected error getting match analytics: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
     
+    /**
+     * Get live match count and average score for a user
+     */
+    @GetMapping("/analytics/live/users/{userId}")
+    public ResponseEntity<LiveMatchAnalytics.ScoreStats> getLiveUserAnalytics(@PathVariable Long userId) {
+        return ResponseEntity.ok(liveMatchAnalytics.getUserStats(userId));
+    }
+    
+    /**
+     * Get live match count and average score for a neighborhood
+     */
+    @GetMapping("/analytics/live/neighborhoods/{neighborhoodId}")
+    public ResponseEntity<LiveMatchAnalytics.ScoreStats> getLiveNeighborhoodAnalytics(@PathVariable Long neighborhoodId) {
+        return ResponseEntity.ok(liveMatchAnalytics.getNeighborhoodStats(neighborhoodId));
+    }
+    
+    /**
+     * Get top-K candidate pruning statistics
+     */
+    @GetMapping("/analytics/pruning")
+    public ResponseEntity<TopKMatchSelector.PruningStats> getPruningStats() {
+        return ResponseEntity.ok(topKMatchSelector.getStats());
+    }
+    
+    /**
+     * Measure recall@K of ANN candidate generation against exhaustive scoring
+     */
+    @GetMapping("/analytics/ann-recall")
+    public CompletableFuture<ResponseEntity<AnnCandidateGenerator.RecallReport>> getAnnRecall(@RequestParam(defaultValue = "100") int sampleSize,
+                                                                                             @RequestParam(defaultValue = "10") int k,
+                                                                                             @RequestParam(defaultValue = "300") int candidates,
+                                                                                             @RequestParam(defaultValue = "400") int ef) {
+        log.info("Measuring ANN recall@{} over {} random users with {} candidates and ef {}", k, sampleSize, candidates, ef);
+        // Measured on the task executor; the request thread is released until the report is ready
+        return annCandidateGenerator.measureRecall(sampleSize, k, candidates, ef)
+                .thenApply(ResponseEntity::ok)
+                .exceptionally(e -> {
+                    Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                    if (cause instanceof IllegalArgumentException) {
+                        log.error("Invalid recall request: {}", cause.getMessage());
+                        return ResponseEntity.badRequest().build();
+                    }
+                    log.error("Unexpected error measuring ANN recall: {}", cause.getMessage());
+                    return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+                });
+    }
+    
+    /**
+     * Get match request coalescing statistics
+     */
+    @GetMapping("/analytics/coalescing")
+    public ResponseEntity<MatchRequestCoalescer.CoalescingStats> getCoalescingStats() {
+        return ResponseEntity.ok(matchRequestCoalescer.getStats());
+    }
+    
+    /**
+     * Get match result cache statistics
+     */
+    @GetMapping("/analytics/cache")
+    public ResponseEntity<MatchResultCache.CacheStats> getCacheStats() {
+        return ResponseEntity.ok(matchResultCache.getStats());
+    }
+    
     /**
      * Health check endpoint
      */
@@ -171,4 +507,19 @@ public class MatchingController {
     public ResponseEntity<String> healthCheck() {
         return ResponseEntity.ok("Matching service is healthy");
     }
+    
+    /**
+     * Set the response validators and report whether the client's copy is still current
+     */
+    private boolean notModified(ServletWebRequest request, DataVersionRegistry.Validator validator) {
+        // JSON and CBOR bodies are different representations, so the tag varies with Accept
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        String eTag = accept != null
+                ? validator.eTag() + "-" + Integer.toHexString(accept.hashCode())
+                : validator.eTag();
+        // Replaces the default no-store, so clients keep the body and revalidate it on every poll
+        request.getResponse().setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().cachePrivate().getHeaderValue());
+        request.getResponse().addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        return request.checkNotModified("\"" + eTag + "\"", validator.lastModified());
+    }
 } 
\ No newline at end of file
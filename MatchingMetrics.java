@@ -0,0 +1,95 @@
+package com.neighborfit.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Micrometer instrumentation for the matching pipeline
+ *
+ * Records a latency timer with percentile histograms for each pipeline
+ * stage, plus counters for candidates scored and matches persisted. Counts
+ * already kept by the top-K selector are exposed as function counters, so
+ * the scoring loop itself pays nothing for metrics.
+ */
+@Component
+public class MatchingMetrics {
+
+    /**
+     * Stages of a matching request, as recorded by {@link SnapshotMatchingService}
+     */
+    public enum Stage {
+        /** Loading the user to match */
+        CANDIDATE_FETCH,
+        /** Top-K selection over the neighborhood snapshot */
+        SCORING,
+        /** Writing match rows through {@link MatchBatchWriter} */
+        PERSIST,
+        /** Loading the winning neighborhoods and building the response */
+        MAPPING,
+        /** Mean cost of one user within a bulk-ranked page */
+        BULK_USER
+    }
+
+    private final Map<Stage, Timer> stageTimers = new EnumMap<>(Stage.class);
+    private final Counter matchesPersisted;
+
+    public MatchingMetrics(MeterRegistry registry, TopKMatchSelector selector) {
+        for (Stage stage : Stage.values()) {
+            stageTimers.put(stage, Timer.builder("neighborfit.matching.stage")
+                    .description("Latency of one matching pipeline stage")
+                    .tag("stage", stage.name().toLowerCase())
+                    .publishPercentileHistogram()
+                    .register(registry));
+        }
+        matchesPersisted = Counter.builder("neighborfit.matching.matches.persisted")
+                .description("Match rows written")
+                .register(registry);
+        FunctionCounter.builder("neighborfit.matching.candidates.scored", selector,
+                        s -> s.getStats().candidatesConsidered() - s.getStats().candidatesPruned())
+                .description("Candidates scored in full")
+                .register(registry);
+        FunctionCounter.builder("neighborfit.matching.candidates.pruned", selector,
+                        s -> s.getStats().candidatesPruned())
+                .description("Candidates skipped by upper-bound pruning")
+                .register(registry);
+    }
+
+    /**
+     * Time a stage and return its result
+     */
+    public <T> T time(Stage stage, Supplier<T> work) {
+        return stageTimers.get(stage).record(work);
+    }
+
+    /**
+     * Time a stage without a result
+     */
+    public void time(Stage stage, Runnable work) {
+        stageTimers.get(stage).record(work);
+    }
+
+    /**
+     * Timer for a stage, for callers that measure durations themselves
+     */
+    public Timer timer(Stage stage) {
+        return stageTimers.get(stage);
+    }
+
+    /**
+     * Count every committed match insert, whichever path wrote it
+     */
+    @EventListener
+    public void onMatchChanged(MatchChangedEvent event) {
+        if (event.before() == null) {
+            matchesPersisted.increment();
+        }
+    }
+}
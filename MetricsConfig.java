@@ -0,0 +1,41 @@
+package com.neighborfit.config;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Metrics configuration for NeighborFit
+ * 
+ * Publishes latency percentiles and histograms for every HTTP endpoint, so
+ * per-endpoint p50/p95/p99 for the matching and user APIs are available from
+ * the Prometheus scrape endpoint.
+ */
+@Configuration
+public class MetricsConfig {
+    
+    private static final String HTTP_SERVER_REQUESTS = "http.server.requests";
+    
+    @Bean
+    public MeterFilter httpServerRequestsPercentiles() {
+        return new MeterFilter() {
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                if (!id.getName().equals(HTTP_SERVER_REQUESTS)) {
+                    return config;
+                }
+                return DistributionStatisticConfig.builder()
+                        .percentiles(0.5, 0.95, 0.99)
+                        .percentilesHistogram(true)
+                        .minimumExpectedValue((double) Duration.ofMillis(1).toNanos())
+                        .maximumExpectedValue((double) Duration.ofSeconds(30).toNanos())
+                        .build()
+                        .merge(config);
+            }
+        };
+    }
+} 
\ No newline at end of file
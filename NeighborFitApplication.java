@@ -26,5 +26,6 @@ public class NeighborFitApplication {
         System.out.println("🚀 NeighborFit Application Started Successfully!");
         System.out.println("📍 Access the application at: http://localhost:8095/api");
         System.out.println("📊 H2 Database Console: http://localhost:8095/api/h2-console");
+        System.out.println("📈 Prometheus Metrics: http://localhost:8095/api/actuator/prometheus");
     }
 } 
\ No newline at end of file
@@ -0,0 +1,262 @@
+package com.neighborfit.service;
+
+import com.neighborfit.model.Neighborhood;
+import com.neighborfit.repository.NeighborhoodRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Inverted bitmap index over neighborhood enum attributes
+ *
+ * Keeps one bitmap per lifestyle characteristic, amenity and transportation
+ * option, with bit {@code i} set when snapshot row {@code i} has that value.
+ * AND/OR filters are computed a word at a time, so they return each
+ * neighborhood once and need no join over the element collection tables. The
+ * index is rebuilt lazily whenever the {@link NeighborhoodFeatureSnapshot}
+ * is replaced. Matching uses it to score the rows sharing a user's lifestyle
+ * preferences first, which lets the top-K selector prune more of the rest.
+ */
+@Service
+@RequiredArgsConstructor
+public class NeighborhoodBitmapIndex {
+
+    private final NeighborhoodFeatureSnapshot featureSnapshot;
+    private final NeighborhoodRepository neighborhoodRepository;
+
+    private volatile Bitmaps bitmaps;
+
+    /**
+     * Rows having at least one of the given lifestyle characteristics
+     */
+    public long[] withAnyLifestyle(Collection<Neighborhood.LifestyleCharacteristic> characteristics) {
+        Bitmaps b = current();
+        return b.or(b.lifestyle, characteristics);
+    }
+
+    /**
+     * Rows of a given snapshot having at least one lifestyle characteristic of a bitmask
+     */
+    public long[] withAnyLifestyle(NeighborhoodFeatureSnapshot.Columns columns, long characteristics) {
+        Bitmaps b = bitmapsFor(columns);
+        return b.or(b.lifestyle, characteristics);
+    }
+
+    /**
+     * Rows having all of the given lifestyle characteristics
+     */
+    public long[] withAllLifestyles(Collection<Neighborhood.LifestyleCharacteristic> characteristics) {
+        Bitmaps b = current();
+        return b.and(b.lifestyle, characteristics);
+    }
+
+    /**
+     * Rows having at least one of the given amenities
+     */
+    public long[] withAnyAmenity(Collection<Neighborhood.Amenity> amenities) {
+        Bitmaps b = current();
+        return b.or(b.amenity, amenities);
+    }
+
+    /**
+     * Rows having all of the given amenities
+     */
+    public long[] withAllAmenities(Collection<Neighborhood.Amenity> amenities) {
+        Bitmaps b = current();
+        return b.and(b.amenity, amenities);
+    }
+
+    /**
+     * Rows having at least one of the given transportation options
+     */
+    public long[] withAnyTransportation(Collection<Neighborhood.TransportationOption> options) {
+        Bitmaps b = current();
+        return b.or(b.transportation, options);
+    }
+
+    /**
+     * Rows having all of the given transportation options
+     */
+    public long[] withAllTransportation(Collection<Neighborhood.TransportationOption> options) {
+        Bitmaps b = current();
+        return b.and(b.transportation, options);
+    }
+
+    /**
+     * Neighborhoods having at least one of the given lifestyle characteristics, without duplicates
+     */
+    public List<Neighborhood> findByLifestyleCharacteristics(Collection<Neighborhood.LifestyleCharacteristic> characteristics) {
+        Bitmaps b = current();
+        return load(b, b.or(b.lifestyle, characteristics));
+    }
+
+    /**
+     * Neighborhoods having at least one of the given amenities, without duplicates
+     */
+    public List<Neighborhood> findByAmenities(Collection<Neighborhood.Amenity> amenities) {
+        Bitmaps b = current();
+        return load(b, b.or(b.amenity, amenities));
+    }
+
+    /**
+     * Intersect two row bitmaps in place, returning the first
+     */
+    public static long[] and(long[] target, long[] other) {
+        for (int w = 0; w < target.length; w++) {
+            target[w] &= w < other.length ? other[w] : 0L;
+        }
+        return target;
+    }
+
+    /**
+     * Number of rows set in a bitmap
+     */
+    public static int cardinality(long[] bits) {
+        int count = 0;
+        for (long word : bits) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /**
+     * Convert a row bitmap to ascending snapshot indexes
+     */
+    public static int[] toIndexes(long[] bits) {
+        int[] indexes = new int[cardinality(bits)];
+        int n = 0;
+        for (int w = 0; w < bits.length; w++) {
+            long word = bits[w];
+            while (word != 0) {
+                indexes[n++] = (w << 6) + Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+            }
+        }
+        return indexes;
+    }
+
+    private List<Neighborhood> load(Bitmaps b, long[] bits) {
+        int[] indexes = toIndexes(bits);
+        List<Long> ids = new ArrayList<>(indexes.length);
+        for (int index : indexes) {
+            ids.add(b.columns.ids[index]);
+        }
+        Map<Long, Neighborhood> byId = new HashMap<>();
+        for (Neighborhood neighborhood : neighborhoodRepository.findAllById(ids)) {
+            byId.put(neighborhood.getId(), neighborhood);
+        }
+        List<Neighborhood> ordered = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Neighborhood neighborhood = byId.get(id);
+            if (neighborhood != null) {
+                ordered.add(neighborhood);
+            }
+        }
+        return ordered;
+    }
+
+    private Bitmaps current() {
+        return bitmapsFor(featureSnapshot.current());
+    }
+
+    private Bitmaps bitmapsFor(NeighborhoodFeatureSnapshot.Columns columns) {
+        Bitmaps b = bitmaps;
+        if (b == null || b.columns != columns) {
+            synchronized (this) {
+                b = bitmaps;
+                if (b == null || b.columns != columns) {
+                    b = new Bitmaps(columns);
+                    bitmaps = b;
+                }
+            }
+        }
+        return b;
+    }
+
+    /**
+     * Per-value row bitmaps for one snapshot
+     */
+    private static final class Bitmaps {
+
+        final NeighborhoodFeatureSnapshot.Columns columns;
+        final int words;
+        final long[][] lifestyle;
+        final long[][] amenity;
+        final long[][] transportation;
+
+        Bitmaps(NeighborhoodFeatureSnapshot.Columns columns) {
+            this.columns = columns;
+            this.words = (columns.size() + 63) >>> 6;
+            this.lifestyle = invert(columns.lifestyleMask, Neighborhood.LifestyleCharacteristic.values().length);
+            this.amenity = invert(columns.amenityMask, Neighborhood.Amenity.values().length);
+            this.transportation = invert(columns.transportationMask, Neighborhood.TransportationOption.values().length);
+        }
+
+        private long[][] invert(long[] masks, int values) {
+            long[][] index = new long[values][words];
+            for (int row = 0; row < masks.length; row++) {
+                long mask = masks[row];
+                while (mask != 0) {
+                    int value = Long.numberOfTrailingZeros(mask);
+                    index[value][row >>> 6] |= 1L << row;
+                    mask &= mask - 1;
+                }
+            }
+            return index;
+        }
+
+        long[] or(long[][] family, Collection<? extends Enum<?>> values) {
+            long[] result = new long[words];
+            if (values == null) {
+                return result;
+            }
+            for (Enum<?> value : values) {
+                long[] bitmap = family[value.ordinal()];
+                for (int w = 0; w < words; w++) {
+                    result[w] |= bitmap[w];
+                }
+            }
+            return result;
+        }
+
+        long[] or(long[][] family, long values) {
+            long[] result = new long[words];
+            while (values != 0) {
+                int value = Long.numberOfTrailingZeros(values);
+                if (value < family.length) {
+                    long[] bitmap = family[value];
+                    for (int w = 0; w < words; w++) {
+                        result[w] |= bitmap[w];
+                    }
+                }
+                values &= values - 1;
+            }
+            return result;
+        }
+
+        long[] and(long[][] family, Collection<? extends Enum<?>> values) {
+            long[] result = new long[words];
+            if (values == null || values.isEmpty()) {
+                return result;
+            }
+            Arrays.fill(result, -1L);
+            int tail = columns.size() & 63;
+            if (tail != 0) {
+                result[words - 1] = (1L << tail) - 1;
+            }
+            for (Enum<?> value : values) {
+                long[] bitmap = family[value.ordinal()];
+                for (int w = 0; w < words; w++) {
+                    result[w] &= bitmap[w];
+                }
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.neighborfit.service;
+
+import com.neighborfit.model.ChangeSequence;
+import com.neighborfit.model.Neighborhood;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCollectionRecreateEvent;
+import org.hibernate.event.spi.PostCollectionRecreateEventListener;
+import org.hibernate.event.spi.PostCollectionRemoveEvent;
+import org.hibernate.event.spi.PostCollectionRemoveEventListener;
+import org.hibernate.event.spi.PostCollectionUpdateEvent;
+import org.hibernate.event.spi.PostCollectionUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bumps the neighborhoods {@link ChangeSequence} in every transaction that writes a neighborhood
+ *
+ * Listens to entity and element collection writes flushed by Hibernate and,
+ * once per transaction, increments the sequence just before commit, so the
+ * bump commits or rolls back with the change itself. Once the transaction
+ * has committed, a {@link NeighborhoodsChangedEvent} names the neighborhoods
+ * it wrote. Bulk JPQL and native SQL statements bypass these events and are
+ * not counted.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class NeighborhoodChangeTracker implements PostInsertEventListener, PostUpdateEventListener,
+        PostDeleteEventListener, PostCollectionRecreateEventListener, PostCollectionUpdateEventListener,
+        PostCollectionRemoveEventListener {
+
+    private static final String NEIGHBORHOOD = Neighborhood.class.getName();
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Neighborhood IDs written by each session's current transaction
+     */
+    private final Map<EventSource, Set<Long>> pending = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void register() {
+        SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        EventListenerRegistry registry = sessionFactory.getServiceRegistry().getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, this);
+        registry.appendListeners(EventType.POST_UPDATE, this);
+        registry.appendListeners(EventType.POST_DELETE, this);
+        registry.appendListeners(EventType.POST_COLLECTION_RECREATE, this);
+        registry.appendListeners(EventType.POST_COLLECTION_UPDATE, this);
+        registry.appendListeners(EventType.POST_COLLECTION_REMOVE, this);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof Neighborhood) {
+            track(event.getId(), event.getSession());
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (event.getEntity() instanceof Neighborhood) {
+            track(event.getId(), event.getSession());
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof Neighborhood) {
+            track(event.getId(), event.getSession());
+        }
+    }
+
+    @Override
+    public void onPostRecreateCollection(PostCollectionRecreateEvent event) {
+        if (NEIGHBORHOOD.equals(event.getAffectedOwnerEntityName())) {
+            track(event.getAffectedOwnerIdOrNull(), event.getSession());
+        }
+    }
+
+    @Override
+    public void onPostUpdateCollection(PostCollectionUpdateEvent event) {
+        if (NEIGHBORHOOD.equals(event.getAffectedOwnerEntityName())) {
+            track(event.getAffectedOwnerIdOrNull(), event.getSession());
+        }
+    }
+
+    @Override
+    public void onPostRemoveCollection(PostCollectionRemoveEvent event) {
+        if (NEIGHBORHOOD.equals(event.getAffectedOwnerEntityName())) {
+            track(event.getAffectedOwnerIdOrNull(), event.getSession());
+        }
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+    private void track(Object neighborhoodId, EventSource session) {
+        Set<Long> ids = pending.get(session);
+        if (ids == null) {
+            ids = new HashSet<>();
+            pending.put(session, ids);
+            session.getActionQueue().registerProcess((BeforeTransactionCompletionProcess) this::increment);
+            session.getActionQueue().registerProcess((AfterTransactionCompletionProcess) (success, s) -> {
+                // Cleared whatever happens, or a failed completion would leak the session and its IDs
+                try {
+                    Set<Long> changed = pending.get(session);
+                    if (success && changed != null) {
+                        publish(new NeighborhoodsChangedEvent(changed));
+                    }
+                } finally {
+                    pending.remove(session);
+                }
+            });
+        }
+        if (neighborhoodId instanceof Long id) {
+            ids.add(id);
+        }
+    }
+
+    private void publish(NeighborhoodsChangedEvent event) {
+        try {
+            eventPublisher.publishEvent(event);
+        } catch (RuntimeException e) {
+            // The write is already committed; a failing observer must not surface to the caller
+            log.error("Failed to handle change of {} neighborhoods: {}", event.neighborhoodIds().size(), e.getMessage());
+        }
+    }
+
+    /**
+     * Bump the sequence row, which schema.sql seeds so that concurrent first writers never race to insert it
+     */
+    private void increment(SessionImplementor session) {
+        int updated = session.createMutationQuery(
+                        "UPDATE ChangeSequence c SET c.sequenceValue = c.sequenceValue + 1 WHERE c.name = :name")
+                .setParameter("name", ChangeSequence.NEIGHBORHOODS)
+                .executeUpdate();
+        if (updated == 0) {
+            throw new IllegalStateException("Change sequence " + ChangeSequence.NEIGHBORHOODS
+                    + " is missing; schema.sql seeds it");
+        }
+    }
+}
\ No newline at end of file
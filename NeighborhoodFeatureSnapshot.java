@@ -0,0 +1,385 @@
+package com.neighborfit.service;
+
+import com.neighborfit.model.Neighborhood;
+import com.neighborfit.repository.NeighborhoodRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Read-optimized columnar snapshot of neighborhood attributes
+ *
+ * Holds every neighborhood as one row across parallel primitive columns
+ * so the matching algorithm can score candidates without hydrating JPA
+ * entities. Lifestyle characteristics, amenities and transportation options
+ * are stored as {@link EnumBitmasks} words. Missing values are stored as
+ * {@link Double#NaN} (or -1 for integer columns). The snapshot is immutable
+ * once built and is replaced atomically by {@link #rebuild()}. Every new
+ * snapshot is also persisted by {@link NeighborhoodSnapshotStore}, and a
+ * restarted instance loads that file instead of reading every neighborhood.
+ * Committed neighborhood writes reach the snapshot through
+ * {@link NeighborhoodsChangedEvent}: a few changed rows are replaced one by
+ * one, and larger changes rebuild it.
+ */
+@Component
+@Slf4j
+public class NeighborhoodFeatureSnapshot {
+
+    private final NeighborhoodRepository neighborhoodRepository;
+    private final DataVersionRegistry versions;
+    private final NeighborhoodSnapshotStore snapshotStore;
+    private final int rebuildThreshold;
+
+    private volatile Columns columns = Columns.EMPTY;
+
+    public NeighborhoodFeatureSnapshot(NeighborhoodRepository neighborhoodRepository,
+                                       DataVersionRegistry versions,
+                                       NeighborhoodSnapshotStore snapshotStore,
+                                       @Value("${neighborfit.snapshot.rebuild-threshold:100}") int rebuildThreshold) {
+        this.neighborhoodRepository = neighborhoodRepository;
+        this.versions = versions;
+        this.snapshotStore = snapshotStore;
+        this.rebuildThreshold = Math.max(1, rebuildThreshold);
+    }
+
+    /**
+     * Load the persisted snapshot as soon as the context is up, before startup runners
+     */
+    @EventListener(ContextRefreshedEvent.class)
+    public synchronized void onContextRefreshed() {
+        if (columns != Columns.EMPTY) {
+            return;
+        }
+        snapshotStore.load().ifPresent(loaded -> {
+            columns = loaded;
+            versions.neighborhoodsChanged();
+        });
+    }
+
+    /**
+     * Rebuild the snapshot once the application is ready unless the loaded one is still current
+     *
+     * Startup runners may have imported neighborhoods after the file was loaded.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void onApplicationReady() {
+        Columns loaded = columns;
+        if (loaded == Columns.EMPTY || !snapshotStore.isCurrent(loaded)) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Apply a committed neighborhood write to the snapshot
+     *
+     * Runs asynchronously, after the writing transaction has completed.
+     * Changes to more than {@code neighborfit.snapshot.rebuild-threshold}
+     * neighborhoods, or to neighborhoods that were inserted or deleted,
+     * rebuild the snapshot; others replace their rows.
+     */
+    @Async
+    @EventListener
+    @Transactional(readOnly = true)
+    public void onNeighborhoodsChanged(NeighborhoodsChangedEvent event) {
+        Set<Long> ids = event.neighborhoodIds();
+        try {
+            if (ids.size() > rebuildThreshold) {
+                rebuild();
+                return;
+            }
+            List<Neighborhood> changed = neighborhoodRepository.findAllById(ids);
+            Columns existing = columns;
+            boolean insertedOrDeleted = changed.size() < ids.size()
+                    || changed.stream().anyMatch(n -> existing.indexOf(n.getId()) < 0);
+            if (insertedOrDeleted) {
+                rebuild();
+                return;
+            }
+            changed.forEach(this::update);
+        } catch (RuntimeException e) {
+            log.error("Failed to apply change of {} neighborhoods to the feature snapshot: {}",
+                    ids.size(), e.getMessage());
+        } finally {
+            // Bumped even if the snapshot could not be updated, since the data itself changed
+            versions.neighborhoodsChanged();
+        }
+    }
+
+    /**
+     * Rebuild the snapshot from the repository and swap it in atomically
+     *
+     * Must be called whenever neighborhood data is created, updated or deleted.
+     */
+    @Transactional(readOnly = true)
+    public synchronized Columns rebuild() {
+        long start = System.nanoTime();
+        // Read before the rows, so a change committed in between leaves the snapshot looking stale, never current
+        long changeSequence = snapshotStore.changeSequence();
+        Columns rebuilt = Columns.from(neighborhoodRepository.findAll(), changeSequence);
+        columns = rebuilt;
+        versions.neighborhoodsChanged();
+        snapshotStore.saveAsync(rebuilt);
+        log.info("Rebuilt neighborhood feature snapshot with {} rows in {} ms",
+                rebuilt.size(), (System.nanoTime() - start) / 1_000_000);
+        return rebuilt;
+    }
+
+    /**
+     * Apply a change to a single neighborhood
+     *
+     * Replaces the neighborhood's row in a copy of the current columns, which
+     * is far cheaper than reloading every neighborhood. Unknown neighborhoods
+     * fall back to a full rebuild. The copy takes the database's change
+     * sequence only when this is the one change since the current snapshot;
+     * otherwise it keeps the old sequence, so a persisted copy is rebuilt on
+     * the next start rather than trusted with changes it may not contain.
+     */
+    public synchronized Columns update(Neighborhood neighborhood) {
+        Columns existing = columns;
+        int index = existing.indexOf(neighborhood.getId());
+        if (index < 0) {
+            return rebuild();
+        }
+        long changeSequence = snapshotStore.changeSequence();
+        if (changeSequence != existing.changeSequence + 1) {
+            changeSequence = existing.changeSequence;
+        }
+        Columns updated = existing.withRow(index, neighborhood, changeSequence);
+        columns = updated;
+        versions.neighborhoodsChanged();
+        snapshotStore.saveAsync(updated);
+        return updated;
+    }
+
+    /**
+     * Get the current snapshot
+     *
+     * Callers should read this once per request and score against the returned
+     * instance so a concurrent rebuild cannot mix rows from two versions.
+     */
+    public Columns current() {
+        return columns;
+    }
+
+    /**
+     * Immutable set of parallel columns keyed by neighborhood index
+     */
+    public static final class Columns {
+
+        static final Columns EMPTY = from(List.of());
+
+        public final long[] ids;
+        public final double[] latitude;
+        public final double[] longitude;
+        public final int[] totalPopulation;
+        public final double[] medianAge;
+        public final double[] medianIncome;
+        public final double[] homeOwnershipRate;
+        public final double[] collegeGraduateRate;
+        public final double[] medianHomeValue;
+        public final double[] medianRent;
+        public final double[] vacancyRate;
+        public final double[] crimeRate;
+        public final double[] safetyScore;
+        public final double[] schoolRating;
+        public final int[] numberOfSchools;
+        public final double[] unemploymentRate;
+        public final double[] commuteTimeMinutes;
+        public final double[] airQualityIndex;
+        public final double[] walkScore;
+        public final double[] bikeScore;
+        public final double[] transitScore;
+        public final double[] diversityIndex;
+        public final int[] numberOfRestaurants;
+        public final int[] numberOfParks;
+        public final int[] numberOfLibraries;
+        public final long[] lifestyleMask;
+        public final long[] amenityMask;
+        public final long[] transportationMask;
+
+        /**
+         * Neighborhoods {@link com.neighborfit.model.ChangeSequence} value the rows reflect
+         */
+        public final long changeSequence;
+
+        private final Map<Long, Integer> indexById;
+
+        private Columns(int size, long changeSequence) {
+            this.changeSequence = changeSequence;
+            ids = new long[size];
+            latitude = new double[size];
+            longitude = new double[size];
+            totalPopulation = new int[size];
+            medianAge = new double[size];
+            medianIncome = new double[size];
+            homeOwnershipRate = new double[size];
+            collegeGraduateRate = new double[size];
+            medianHomeValue = new double[size];
+            medianRent = new double[size];
+            vacancyRate = new double[size];
+            crimeRate = new double[size];
+            safetyScore = new double[size];
+            schoolRating = new double[size];
+            numberOfSchools = new int[size];
+            unemploymentRate = new double[size];
+            commuteTimeMinutes = new double[size];
+            airQualityIndex = new double[size];
+            walkScore = new double[size];
+            bikeScore = new double[size];
+            transitScore = new double[size];
+            diversityIndex = new double[size];
+            numberOfRestaurants = new int[size];
+            numberOfParks = new int[size];
+            numberOfLibraries = new int[size];
+            lifestyleMask = new long[size];
+            amenityMask = new long[size];
+            transportationMask = new long[size];
+            indexById = new HashMap<>(Math.max(16, size * 2));
+        }
+
+        /**
+         * Build columns from loaded neighborhoods; element collections must be initialized
+         */
+        public static Columns from(List<Neighborhood> neighborhoods) {
+            return from(neighborhoods, 0L);
+        }
+
+        /**
+         * Build columns from neighborhoods loaded at the given change sequence
+         */
+        public static Columns from(List<Neighborhood> neighborhoods, long changeSequence) {
+            Columns c = new Columns(neighborhoods.size(), changeSequence);
+            for (int i = 0; i < neighborhoods.size(); i++) {
+                c.setRow(i, neighborhoods.get(i));
+            }
+            return c;
+        }
+
+        /**
+         * Columns of the given size with every value zero, to be filled and then {@link #reindex() reindexed}
+         */
+        static Columns allocate(int size, long changeSequence) {
+            return new Columns(size, changeSequence);
+        }
+
+        /**
+         * Rebuild the ID lookup after the columns were filled directly
+         */
+        Columns reindex() {
+            indexById.clear();
+            for (int i = 0; i < ids.length; i++) {
+                indexById.put(ids[i], i);
+            }
+            return this;
+        }
+
+        /**
+         * Copy of these columns with one row replaced
+         */
+        Columns withRow(int index, Neighborhood neighborhood, long changeSequence) {
+            Columns c = new Columns(size(), changeSequence);
+            copyColumns(this, c);
+            c.indexById.putAll(indexById);
+            c.setRow(index, neighborhood);
+            return c;
+        }
+
+        private static void copyColumns(Columns from, Columns to) {
+            int n = from.size();
+            System.arraycopy(from.ids, 0, to.ids, 0, n);
+            System.arraycopy(from.latitude, 0, to.latitude, 0, n);
+            System.arraycopy(from.longitude, 0, to.longitude, 0, n);
+            System.arraycopy(from.totalPopulation, 0, to.totalPopulation, 0, n);
+            System.arraycopy(from.medianAge, 0, to.medianAge, 0, n);
+            System.arraycopy(from.medianIncome, 0, to.medianIncome, 0, n);
+            System.arraycopy(from.homeOwnershipRate, 0, to.homeOwnershipRate, 0, n);
+            System.arraycopy(from.collegeGraduateRate, 0, to.collegeGraduateRate, 0, n);
+            System.arraycopy(from.medianHomeValue, 0, to.medianHomeValue, 0, n);
+            System.arraycopy(from.medianRent, 0, to.medianRent, 0, n);
+            System.arraycopy(from.vacancyRate, 0, to.vacancyRate, 0, n);
+            System.arraycopy(from.crimeRate, 0, to.crimeRate, 0, n);
+            System.arraycopy(from.safetyScore, 0, to.safetyScore, 0, n);
+            System.arraycopy(from.schoolRating, 0, to.schoolRating, 0, n);
+            System.arraycopy(from.numberOfSchools, 0, to.numberOfSchools, 0, n);
+            System.arraycopy(from.unemploymentRate, 0, to.unemploymentRate, 0, n);
+            System.arraycopy(from.commuteTimeMinutes, 0, to.commuteTimeMinutes, 0, n);
+            System.arraycopy(from.airQualityIndex, 0, to.airQualityIndex, 0, n);
+            System.arraycopy(from.walkScore, 0, to.walkScore, 0, n);
+            System.arraycopy(from.bikeScore, 0, to.bikeScore, 0, n);
+            System.arraycopy(from.transitScore, 0, to.transitScore, 0, n);
+            System.arraycopy(from.diversityIndex, 0, to.diversityIndex, 0, n);
+            System.arraycopy(from.numberOfRestaurants, 0, to.numberOfRestaurants, 0, n);
+            System.arraycopy(from.numberOfParks, 0, to.numberOfParks, 0, n);
+            System.arraycopy(from.numberOfLibraries, 0, to.numberOfLibraries, 0, n);
+            System.arraycopy(from.lifestyleMask, 0, to.lifestyleMask, 0, n);
+            System.arraycopy(from.amenityMask, 0, to.amenityMask, 0, n);
+            System.arraycopy(from.transportationMask, 0, to.transportationMask, 0, n);
+        }
+
+        private void setRow(int i, Neighborhood n) {
+            ids[i] = n.getId();
+            latitude[i] = unbox(n.getLatitude());
+            longitude[i] = unbox(n.getLongitude());
+            totalPopulation[i] = unbox(n.getTotalPopulation());
+            medianAge[i] = unbox(n.getMedianAge());
+            medianIncome[i] = unbox(n.getMedianIncome());
+            homeOwnershipRate[i] = unbox(n.getHomeOwnershipRate());
+            collegeGraduateRate[i] = unbox(n.getCollegeGraduateRate());
+            medianHomeValue[i] = unbox(n.getMedianHomeValue());
+            medianRent[i] = unbox(n.getMedianRent());
+            vacancyRate[i] = unbox(n.getVacancyRate());
+            crimeRate[i] = unbox(n.getCrimeRate());
+            safetyScore[i] = unbox(n.getSafetyScore());
+            schoolRating[i] = unbox(n.getSchoolRating());
+            numberOfSchools[i] = unbox(n.getNumberOfSchools());
+            unemploymentRate[i] = unbox(n.getUnemploymentRate());
+            commuteTimeMinutes[i] = unbox(n.getCommuteTimeMinutes());
+            airQualityIndex[i] = unbox(n.getAirQualityIndex());
+            walkScore[i] = unbox(n.getWalkScore());
+            bikeScore[i] = unbox(n.getBikeScore());
+            transitScore[i] = unbox(n.getTransitScore());
+            diversityIndex[i] = unbox(n.getDiversityIndex());
+            numberOfRestaurants[i] = unbox(n.getNumberOfRestaurants());
+            numberOfParks[i] = unbox(n.getNumberOfParks());
+            numberOfLibraries[i] = unbox(n.getNumberOfLibraries());
+            lifestyleMask[i] = EnumBitmasks.encode(n.getLifestyleCharacteristics());
+            amenityMask[i] = EnumBitmasks.encode(n.getAmenities());
+            transportationMask[i] = EnumBitmasks.encode(n.getTransportationOptions());
+            indexById.put(n.getId(), i);
+        }
+
+        /**
+         * Number of neighborhoods in the snapshot
+         */
+        public int size() {
+            return ids.length;
+        }
+
+        /**
+         * Find the row index of a neighborhood, or -1 if it is not in the snapshot
+         */
+        public int indexOf(Long neighborhoodId) {
+            Integer index = indexById.get(neighborhoodId);
+            return index != null ? index : -1;
+        }
+
+        private static double unbox(Double value) {
+            return value != null ? value : Double.NaN;
+        }
+
+        private static int unbox(Integer value) {
+            return value != null ? value : -1;
+        }
+    }
+}
@@ -6,6 +6,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -27,6 +28,11 @@ public interface NeighborhoodRepository extends JpaRepository<Neighborhood, Long
      */
     List<Neighborhood> findByZipCode(String zipCode);
     
+    /**
+     * Find neighborhoods in any of the given ZIP codes
+     */
+    List<Neighborhood> findByZipCodeIn(Collection<String> zipCodes);
+    
     /**
      * Find neighborhoods by income range
      */
@@ -72,13 +78,13 @@ public interface NeighborhoodRepository extends JpaRepository<Neighborhood, Long
     /**
      * Find neighborhoods by lifestyle characteristics
      */
-    @Query("SELECT n FROM Neighborhood n JOIN n.lifestyleCharacteristics lc WHERE lc IN :characteristics")
+    @Query("SELECT DISTINCT n FROM Neighborhood n JOIN n.lifestyleCharacteristics lc WHERE lc IN :characteristics")
     List<Neighborhood> findByLifestyleCharacteristics(@Param("characteristics") List<Neighborhood.LifestyleCharacteristic> characteristics);
     
     /**
      * Find neighborhoods by amenities
      */
-    @Query("SELECT n FROM Neighborhood n JOIN n.amenities a WHERE a IN :amenities")
+    @Query("SELECT DISTINCT n FROM Neighborhood n JOIN n.amenities a WHERE a IN :amenities")
     List<Neighborhood> findByAmenities(@Param("amenities") List<Neighborhood.Amenity> amenities);
     
     /**
@@ -110,4 +116,10 @@ public interface NeighborhoodRepository extends JpaRepository<Neighborhood, Long
         @Param("maxCrimeRate") Double maxCrimeRate,
         @Param("minSafetyScore") Double minSafetyScore
     );
+    
+    /**
+     * Find the highest neighborhood ID, or null when there are none
+     */
+    @Query("SELECT MAX(n.id) FROM Neighborhood n")
+    Long findMaxId();
 } 
\ No newline at end of file
@@ -0,0 +1,19 @@
+package com.neighborfit.service;
+
+import com.neighborfit.model.User;
+
+/**
+ * Scoring function used by the bulk matching engine
+ *
+ * Scores a user against one row of a {@link NeighborhoodFeatureSnapshot}.
+ * Implementations must be stateless and thread-safe, since the engine
+ * calls them concurrently from several worker threads.
+ */
+@FunctionalInterface
+public interface NeighborhoodScorer {
+
+    /**
+     * Score a user against the neighborhood at the given snapshot index
+     */
+    double score(User user, NeighborhoodFeatureSnapshot.Columns columns, int index);
+}
@@ -0,0 +1,317 @@
+package com.neighborfit.service;
+
+import com.neighborfit.model.ChangeSequence;
+import com.neighborfit.model.Neighborhood;
+import com.neighborfit.repository.ChangeSequenceRepository;
+import com.neighborfit.repository.NeighborhoodRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.CRC32;
+
+/**
+ * Versioned binary file holding the neighborhood feature snapshot
+ *
+ * Lets a restarted instance serve matches without re-reading every
+ * neighborhood through JPA. The file starts with a fixed header carrying a
+ * magic number, the schema version, a fingerprint of the enum layouts
+ * behind the bitmasks, the row count, the highest neighborhood ID, the
+ * neighborhoods {@link ChangeSequence} value the rows reflect and a CRC32 of
+ * the payload. The payload is each column in turn, little-endian. The file
+ * is memory-mapped on load and copied into the columns with bulk reads. A
+ * file with a bad checksum or another schema or layout is rejected, and so
+ * is one whose change sequence, row count or highest ID no longer matches
+ * the database; the sequence catches rows updated in place. The caller then
+ * rebuilds from the repository instead.
+ */
+@Component
+@Slf4j
+public class NeighborhoodSnapshotStore {
+
+    static final int MAGIC = 0x4E46534E;
+    static final int SCHEMA_VERSION = 2;
+
+    private static final int HEADER_BYTES = 64;
+
+    private final NeighborhoodRepository neighborhoodRepository;
+    private final ChangeSequenceRepository changeSequenceRepository;
+    private final Path file;
+    private final boolean enabled;
+    private final ExecutorService writer;
+    private final AtomicReference<NeighborhoodFeatureSnapshot.Columns> pending = new AtomicReference<>();
+
+    public NeighborhoodSnapshotStore(NeighborhoodRepository neighborhoodRepository,
+                                     ChangeSequenceRepository changeSequenceRepository,
+                                     @Value("${neighborfit.snapshot.file:${java.io.tmpdir}/neighborfit/neighborhood-features.bin}") String file,
+                                     @Value("${neighborfit.snapshot.persist:true}") boolean enabled) {
+        this.neighborhoodRepository = neighborhoodRepository;
+        this.changeSequenceRepository = changeSequenceRepository;
+        this.file = Paths.get(file);
+        this.enabled = enabled;
+        this.writer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "neighborhood-snapshot-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Load the snapshot file if it is intact and still matches the database
+     */
+    public Optional<NeighborhoodFeatureSnapshot.Columns> load() {
+        if (!enabled || !Files.isRegularFile(file)) {
+            return Optional.empty();
+        }
+        long start = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            mapped.order(ByteOrder.LITTLE_ENDIAN);
+            Header header = Header.read(mapped);
+            String problem = header.problem(channel.size());
+            if (problem == null) {
+                problem = staleness(header);
+            }
+            if (problem != null) {
+                log.info("Ignoring neighborhood snapshot file {}: {}", file, problem);
+                return Optional.empty();
+            }
+
+            ByteBuffer payload = mapped.slice(HEADER_BYTES, (int) header.payloadBytes).order(ByteOrder.LITTLE_ENDIAN);
+            CRC32 crc = new CRC32();
+            crc.update(payload.duplicate());
+            if (crc.getValue() != header.crc) {
+                log.warn("Ignoring neighborhood snapshot file {}: checksum mismatch", file);
+                return Optional.empty();
+            }
+
+            NeighborhoodFeatureSnapshot.Columns columns = NeighborhoodFeatureSnapshot.Columns.allocate(header.rows, header.changeSequence);
+            for (long[] column : longColumns(columns)) {
+                payload.asLongBuffer().get(column);
+                payload.position(payload.position() + column.length * Long.BYTES);
+            }
+            for (double[] column : doubleColumns(columns)) {
+                payload.asDoubleBuffer().get(column);
+                payload.position(payload.position() + column.length * Double.BYTES);
+            }
+            for (int[] column : intColumns(columns)) {
+                payload.asIntBuffer().get(column);
+                payload.position(payload.position() + column.length * Integer.BYTES);
+            }
+            columns.reindex();
+            log.info("Loaded neighborhood snapshot with {} rows from {} in {} ms",
+                    header.rows, file, (System.nanoTime() - start) / 1_000_000);
+            return Optional.of(columns);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to load neighborhood snapshot file {}: {}", file, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Check whether a loaded snapshot still matches the database
+     */
+    public boolean isCurrent(NeighborhoodFeatureSnapshot.Columns columns) {
+        return staleness(columns.size(), maxId(columns), columns.changeSequence) == null;
+    }
+
+    /**
+     * Current value of the neighborhoods change sequence in the database
+     */
+    public long changeSequence() {
+        return changeSequenceRepository.findValue(ChangeSequence.NEIGHBORHOODS).orElse(0L);
+    }
+
+    /**
+     * Write the snapshot in the background; only the newest pending snapshot is written
+     */
+    public void saveAsync(NeighborhoodFeatureSnapshot.Columns columns) {
+        if (!enabled) {
+            return;
+        }
+        if (pending.getAndSet(columns) == null) {
+            writer.execute(() -> {
+                NeighborhoodFeatureSnapshot.Columns latest = pending.getAndSet(null);
+                if (latest != null) {
+                    save(latest);
+                }
+            });
+        }
+    }
+
+    /**
+     * Write the snapshot to a temporary file and move it into place
+     */
+    public void save(NeighborhoodFeatureSnapshot.Columns columns) {
+        long start = System.nanoTime();
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            Path temp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                CRC32 crc = new CRC32();
+                long payloadBytes = 0;
+                channel.position(HEADER_BYTES);
+                for (long[] column : longColumns(columns)) {
+                    ByteBuffer buffer = ByteBuffer.allocate(column.length * Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+                    buffer.asLongBuffer().put(column);
+                    payloadBytes += write(channel, buffer, crc);
+                }
+                for (double[] column : doubleColumns(columns)) {
+                    ByteBuffer buffer = ByteBuffer.allocate(column.length * Double.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+                    buffer.asDoubleBuffer().put(column);
+                    payloadBytes += write(channel, buffer, crc);
+                }
+                for (int[] column : intColumns(columns)) {
+                    ByteBuffer buffer = ByteBuffer.allocate(column.length * Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+                    buffer.asIntBuffer().put(column);
+                    payloadBytes += write(channel, buffer, crc);
+                }
+                Header header = new Header(MAGIC, SCHEMA_VERSION, layoutFingerprint(), columns.size(),
+                        maxId(columns), columns.changeSequence, payloadBytes, crc.getValue());
+                channel.write(header.toBuffer(), 0);
+                channel.force(true);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.debug("Saved neighborhood snapshot with {} rows to {} in {} ms",
+                    columns.size(), file, (System.nanoTime() - start) / 1_000_000);
+        } catch (IOException e) {
+            log.warn("Failed to save neighborhood snapshot file {}: {}", file, e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        writer.shutdown();
+    }
+
+    private String staleness(Header header) {
+        return staleness(header.rows, header.maxId, header.changeSequence);
+    }
+
+    private String staleness(long rows, long maxId, long changeSequence) {
+        long dbChangeSequence = changeSequence();
+        if (dbChangeSequence != changeSequence) {
+            return "stale (file has change sequence " + changeSequence
+                    + ", database has " + dbChangeSequence + ")";
+        }
+        long count = neighborhoodRepository.count();
+        Long dbMaxId = neighborhoodRepository.findMaxId();
+        long expectedMaxId = dbMaxId != null ? dbMaxId : 0L;
+        if (count != rows || expectedMaxId != maxId) {
+            return "stale (file has " + rows + " rows up to ID " + maxId
+                    + ", database has " + count + " rows up to ID " + expectedMaxId + ")";
+        }
+        return null;
+    }
+
+    private static long write(FileChannel channel, ByteBuffer buffer, CRC32 crc) throws IOException {
+        crc.update(buffer.duplicate());
+        int bytes = buffer.remaining();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        return bytes;
+    }
+
+    private static long maxId(NeighborhoodFeatureSnapshot.Columns columns) {
+        long max = 0L;
+        for (long id : columns.ids) {
+            max = Math.max(max, id);
+        }
+        return max;
+    }
+
+    /**
+     * Hash of the enum constants encoded in the bitmask columns, so reordering them invalidates old files
+     */
+    static long layoutFingerprint() {
+        long hash = 1125899906842597L;
+        for (Enum<?>[] values : new Enum<?>[][] {
+                Neighborhood.LifestyleCharacteristic.values(),
+                Neighborhood.Amenity.values(),
+                Neighborhood.TransportationOption.values()}) {
+            for (Enum<?> value : values) {
+                for (char c : value.name().toCharArray()) {
+                    hash = 31 * hash + c;
+                }
+            }
+            hash = 31 * hash + values.length;
+        }
+        return hash;
+    }
+
+    private static long[][] longColumns(NeighborhoodFeatureSnapshot.Columns c) {
+        return new long[][] {c.ids, c.lifestyleMask, c.amenityMask, c.transportationMask};
+    }
+
+    private static double[][] doubleColumns(NeighborhoodFeatureSnapshot.Columns c) {
+        return new double[][] {
+            c.latitude, c.longitude, c.medianAge, c.medianIncome, c.homeOwnershipRate,
+            c.collegeGraduateRate, c.medianHomeValue, c.medianRent, c.vacancyRate, c.crimeRate,
+            c.safetyScore, c.schoolRating, c.unemploymentRate, c.commuteTimeMinutes,
+            c.airQualityIndex, c.walkScore, c.bikeScore, c.transitScore, c.diversityIndex
+        };
+    }
+
+    private static int[][] intColumns(NeighborhoodFeatureSnapshot.Columns c) {
+        return new int[][] {
+            c.totalPopulation, c.numberOfSchools, c.numberOfRestaurants, c.numberOfParks, c.numberOfLibraries
+        };
+    }
+
+    private static long payloadBytes(int rows) {
+        return (long) rows * (4L * Long.BYTES + 19L * Double.BYTES + 5L * Integer.BYTES);
+    }
+
+    private record Header(int magic, int schemaVersion, long fingerprint, int rows,
+                          long maxId, long changeSequence, long payloadBytes, long crc) {
+
+        static Header read(ByteBuffer buffer) {
+            if (buffer.limit() < HEADER_BYTES) {
+                return new Header(0, 0, 0, 0, 0, 0, 0, 0);
+            }
+            return new Header(buffer.getInt(0), buffer.getInt(4), buffer.getLong(8), buffer.getInt(16),
+                    buffer.getLong(20), buffer.getLong(44), buffer.getLong(28), buffer.getLong(36));
+        }
+
+        ByteBuffer toBuffer() {
+            ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(0, magic).putInt(4, schemaVersion).putLong(8, fingerprint).putInt(16, rows)
+                    .putLong(20, maxId).putLong(28, payloadBytes).putLong(36, crc).putLong(44, changeSequence);
+            return buffer;
+        }
+
+        String problem(long fileBytes) {
+            if (magic != MAGIC) {
+                return "not a neighborhood snapshot file";
+            }
+            if (schemaVersion != SCHEMA_VERSION) {
+                return "schema version " + schemaVersion + ", expected " + SCHEMA_VERSION;
+            }
+            if (fingerprint != layoutFingerprint()) {
+                return "enum layout changed";
+            }
+            if (rows < 0 || payloadBytes != NeighborhoodSnapshotStore.payloadBytes(rows)
+                    || fileBytes != HEADER_BYTES + payloadBytes || payloadBytes > Integer.MAX_VALUE) {
+                return "truncated or malformed";
+            }
+            return null;
+        }
+    }
+}
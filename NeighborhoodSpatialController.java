@@ -0,0 +1,93 @@
+package com.neighborfit.controller;
+
+import com.neighborfit.model.Neighborhood;
+import com.neighborfit.service.NeighborhoodSpatialIndex;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * REST API controller for geographic neighborhood queries
+ * 
+ * Serves nearest-neighbor, radius and bounding-box lookups from the
+ * in-memory spatial index instead of scanning the neighborhood table.
+ */
+@RestController
+@RequestMapping("/neighborhoods/spatial")
+@RequiredArgsConstructor
+@Slf4j
+@CrossOrigin(origins = "*")
+public class NeighborhoodSpatialController {
+    
+    private static final int MAX_RESULTS = 1000;
+    
+    private final NeighborhoodSpatialIndex spatialIndex;
+    
+    /**
+     * Find the nearest neighborhoods to a point
+     */
+    @GetMapping("/nearest")
+    public ResponseEntity<List<Neighborhood>> findNearest(@RequestParam double lat,
+                                                          @RequestParam double lng,
+                                                          @RequestParam(defaultValue = "10") int k) {
+        try {
+            log.debug("Finding {} nearest neighborhoods to ({}, {})", k, lat, lng);
+            if (k < 1 || k > MAX_RESULTS || !isValidPoint(lat, lng)) {
+                return ResponseEntity.badRequest().build();
+            }
+            return ResponseEntity.ok(spatialIndex.findNearest(lat, lng, k));
+        } catch (Exception e) {
+            log.error("Unexpected error finding nearest neighborhoods: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
+    /**
+     * Find the nearest neighborhoods within a radius of a point, ordered by distance
+     */
+    @GetMapping("/within-radius")
+    public ResponseEntity<List<Neighborhood>> findWithinRadius(@RequestParam double lat,
+                                                               @RequestParam double lng,
+                                                               @RequestParam double radiusKm,
+                                                               @RequestParam(defaultValue = "100") int limit) {
+        try {
+            log.debug("Finding up to {} neighborhoods within {} km of ({}, {})", limit, radiusKm, lat, lng);
+            if (radiusKm < 0 || limit < 1 || limit > MAX_RESULTS || !isValidPoint(lat, lng)) {
+                return ResponseEntity.badRequest().build();
+            }
+            return ResponseEntity.ok(spatialIndex.findWithinRadius(lat, lng, radiusKm, limit));
+        } catch (Exception e) {
+            log.error("Unexpected error finding neighborhoods within radius: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
+    /**
+     * Find neighborhoods inside a bounding box, up to a limit
+     */
+    @GetMapping("/within-bounds")
+    public ResponseEntity<List<Neighborhood>> findWithinBounds(@RequestParam double minLat,
+                                                               @RequestParam double maxLat,
+                                                               @RequestParam double minLng,
+                                                               @RequestParam double maxLng,
+                                                               @RequestParam(defaultValue = "100") int limit) {
+        try {
+            log.debug("Finding up to {} neighborhoods within bounds [{}, {}] x [{}, {}]", limit, minLat, maxLat, minLng, maxLng);
+            if (minLat > maxLat || minLng > maxLng || limit < 1 || limit > MAX_RESULTS) {
+                return ResponseEntity.badRequest().build();
+            }
+            return ResponseEntity.ok(spatialIndex.findWithinBounds(minLat, maxLat, minLng, maxLng, limit));
+        } catch (Exception e) {
+            log.error("Unexpected error finding neighborhoods within bounds: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
+    private boolean isValidPoint(double lat, double lng) {
+        return lat >= -90.0 && lat <= 90.0 && lng >= -180.0 && lng <= 180.0;
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,337 @@
+package com.neighborfit.service;
+
+import com.neighborfit.model.Neighborhood;
+import com.neighborfit.repository.NeighborhoodRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory spatial index over neighborhood coordinates
+ *
+ * A 2-d tree over latitude/longitude of the current {@link NeighborhoodFeatureSnapshot},
+ * serving bounding-box, radius and k-nearest queries without touching the
+ * database. The tree is rebuilt lazily whenever the snapshot is replaced.
+ * Distances are great-circle distances in kilometers.
+ */
+@Service
+@RequiredArgsConstructor
+public class NeighborhoodSpatialIndex {
+
+    public static final double EARTH_RADIUS_KM = 6371.0088;
+
+    private static final double KM_PER_DEGREE_LAT = Math.toRadians(1.0) * EARTH_RADIUS_KM;
+
+    private final NeighborhoodFeatureSnapshot featureSnapshot;
+    private final NeighborhoodRepository neighborhoodRepository;
+
+    private volatile KdTree tree;
+
+    /**
+     * Snapshot indexes of at most {@code limit} neighborhoods inside a bounding box
+     */
+    public int[] withinBounds(double minLat, double maxLat, double minLng, double maxLng, int limit) {
+        return withinBounds(currentTree(), minLat, maxLat, minLng, maxLng, limit);
+    }
+
+    /**
+     * Snapshot indexes of the nearest {@code limit} neighborhoods within a radius, ordered by distance
+     */
+    public int[] withinRadius(double lat, double lng, double radiusKm, int limit) {
+        return withinRadius(currentTree(), lat, lng, radiusKm, limit);
+    }
+
+    /**
+     * Snapshot indexes of the {@code k} nearest neighborhoods, ordered by distance
+     */
+    public int[] nearest(double lat, double lng, int k) {
+        return nearest(currentTree(), lat, lng, k);
+    }
+
+    /**
+     * At most {@code limit} neighborhoods inside a bounding box
+     */
+    public List<Neighborhood> findWithinBounds(double minLat, double maxLat, double minLng, double maxLng, int limit) {
+        KdTree t = currentTree();
+        return load(t, withinBounds(t, minLat, maxLat, minLng, maxLng, limit));
+    }
+
+    /**
+     * The nearest {@code limit} neighborhoods within a radius, ordered by distance
+     */
+    public List<Neighborhood> findWithinRadius(double lat, double lng, double radiusKm, int limit) {
+        KdTree t = currentTree();
+        return load(t, withinRadius(t, lat, lng, radiusKm, limit));
+    }
+
+    /**
+     * The {@code k} nearest neighborhoods, ordered by distance
+     */
+    public List<Neighborhood> findNearest(double lat, double lng, int k) {
+        KdTree t = currentTree();
+        return load(t, nearest(t, lat, lng, k));
+    }
+
+    private int[] withinBounds(KdTree t, double minLat, double maxLat, double minLng, double maxLng, int limit) {
+        IntList out = new IntList();
+        t.range(0, t.size, 0, minLat, maxLat, minLng, maxLng, out);
+        return Arrays.copyOf(out.values, Math.min(out.size, Math.max(limit, 0)));
+    }
+
+    private int[] withinRadius(KdTree t, double lat, double lng, double radiusKm, int limit) {
+        if (radiusKm < 0) {
+            throw new IllegalArgumentException("Radius must not be negative: " + radiusKm);
+        }
+        double latDelta = radiusKm / KM_PER_DEGREE_LAT;
+        double cosLat = Math.cos(Math.toRadians(Math.min(89.9, Math.abs(lat) + latDelta)));
+        double lngDelta = cosLat > 0 ? Math.min(180.0, latDelta / cosLat) : 180.0;
+
+        IntList candidates = new IntList();
+        if (lngDelta >= 180.0) {
+            t.range(0, t.size, 0, lat - latDelta, lat + latDelta, -180.0, 180.0, candidates);
+        } else {
+            t.range(0, t.size, 0, lat - latDelta, lat + latDelta, lng - lngDelta, lng + lngDelta, candidates);
+            // Boxes that cross the antimeridian are clipped; query the wrapped part as well
+            if (lng - lngDelta < -180.0) {
+                t.range(0, t.size, 0, lat - latDelta, lat + latDelta, lng - lngDelta + 360.0, 180.0, candidates);
+            }
+            if (lng + lngDelta > 180.0) {
+                t.range(0, t.size, 0, lat - latDelta, lat + latDelta, -180.0, lng + lngDelta - 360.0, candidates);
+            }
+        }
+
+        TopKHeap heap = new TopKHeap(Math.min(candidates.size, Math.max(limit, 0)));
+        for (int i = 0; i < candidates.size; i++) {
+            int index = candidates.values[i];
+            double distance = distanceKm(lat, lng, t.lat[index], t.lng[index]);
+            if (distance <= radiusKm) {
+                heap.offer(index, -distance);
+            }
+        }
+        return heap.drainRanked().indexes();
+    }
+
+    private int[] nearest(KdTree t, double lat, double lng, int k) {
+        TopKHeap heap = new TopKHeap(Math.min(Math.max(k, 0), t.size));
+        t.nearest(0, t.size, 0, lat, lng, heap);
+        return heap.drainRanked().indexes();
+    }
+
+    /**
+     * Great-circle distance between two points in kilometers
+     */
+    public static double distanceKm(double lat1, double lng1, double lat2, double lng2) {
+        double phi1 = Math.toRadians(lat1);
+        double phi2 = Math.toRadians(lat2);
+        double dPhi = phi2 - phi1;
+        double dLambda = Math.toRadians(lng2 - lng1);
+        double a = Math.sin(dPhi / 2) * Math.sin(dPhi / 2)
+                + Math.cos(phi1) * Math.cos(phi2) * Math.sin(dLambda / 2) * Math.sin(dLambda / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+
+    private List<Neighborhood> load(KdTree t, int[] indexes) {
+        NeighborhoodFeatureSnapshot.Columns columns = t.columns;
+        List<Long> ids = new ArrayList<>(indexes.length);
+        for (int index : indexes) {
+            ids.add(columns.ids[index]);
+        }
+        Map<Long, Neighborhood> byId = new HashMap<>();
+        for (Neighborhood neighborhood : neighborhoodRepository.findAllById(ids)) {
+            byId.put(neighborhood.getId(), neighborhood);
+        }
+        List<Neighborhood> ordered = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Neighborhood neighborhood = byId.get(id);
+            if (neighborhood != null) {
+                ordered.add(neighborhood);
+            }
+        }
+        return ordered;
+    }
+
+    private KdTree currentTree() {
+        NeighborhoodFeatureSnapshot.Columns columns = featureSnapshot.current();
+        KdTree t = tree;
+        if (t == null || t.columns != columns) {
+            synchronized (this) {
+                t = tree;
+                if (t == null || t.columns != columns) {
+                    t = new KdTree(columns);
+                    tree = t;
+                }
+            }
+        }
+        return t;
+    }
+
+    /**
+     * Implicit 2-d tree stored as a permutation of snapshot indexes
+     *
+     * The median of each range {@code [from, to)} is its split node; even depths
+     * split on latitude and odd depths on longitude.
+     */
+    private static final class KdTree {
+
+        final NeighborhoodFeatureSnapshot.Columns columns;
+        final double[] lat;
+        final double[] lng;
+        final int[] nodes;
+        final int size;
+
+        KdTree(NeighborhoodFeatureSnapshot.Columns columns) {
+            this.columns = columns;
+            this.lat = columns.latitude;
+            this.lng = columns.longitude;
+            IntList valid = new IntList();
+            for (int i = 0; i < columns.size(); i++) {
+                if (!Double.isNaN(lat[i]) && !Double.isNaN(lng[i])) {
+                    valid.add(i);
+                }
+            }
+            this.nodes = valid.toArray();
+            this.size = nodes.length;
+            build(0, size, 0);
+        }
+
+        private void build(int from, int to, int depth) {
+            if (to - from <= 1) {
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            select(from, to - 1, mid, depth & 1);
+            build(from, mid, depth + 1);
+            build(mid + 1, to, depth + 1);
+        }
+
+        private double coordinate(int node, int axis) {
+            return axis == 0 ? lat[node] : lng[node];
+        }
+
+        /**
+         * Quickselect so that nodes[k] holds the median of nodes[left..right] on the given axis
+         */
+        private void select(int left, int right, int k, int axis) {
+            while (left < right) {
+                double pivot = coordinate(nodes[(left + right) >>> 1], axis);
+                int i = left;
+                int j = right;
+                while (i <= j) {
+                    while (coordinate(nodes[i], axis) < pivot) {
+                        i++;
+                    }
+                    while (coordinate(nodes[j], axis) > pivot) {
+                        j--;
+                    }
+                    if (i <= j) {
+                        int tmp = nodes[i];
+                        nodes[i++] = nodes[j];
+                        nodes[j--] = tmp;
+                    }
+                }
+                if (k <= j) {
+                    right = j;
+                } else if (k >= i) {
+                    left = i;
+                } else {
+                    return;
+                }
+            }
+        }
+
+        void range(int from, int to, int depth, double minLat, double maxLat,
+                   double minLng, double maxLng, IntList out) {
+            if (from >= to) {
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            int node = nodes[mid];
+            double nodeLat = lat[node];
+            double nodeLng = lng[node];
+            if (nodeLat >= minLat && nodeLat <= maxLat && nodeLng >= minLng && nodeLng <= maxLng) {
+                out.add(node);
+            }
+            int axis = depth & 1;
+            double split = axis == 0 ? nodeLat : nodeLng;
+            double min = axis == 0 ? minLat : minLng;
+            double max = axis == 0 ? maxLat : maxLng;
+            if (min <= split) {
+                range(from, mid, depth + 1, minLat, maxLat, minLng, maxLng, out);
+            }
+            if (max >= split) {
+                range(mid + 1, to, depth + 1, minLat, maxLat, minLng, maxLng, out);
+            }
+        }
+
+        void nearest(int from, int to, int depth, double queryLat, double queryLng, TopKHeap heap) {
+            if (from >= to || heap.isFull() && heap.size() == 0) {
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            int node = nodes[mid];
+            heap.offer(node, -distanceKm(queryLat, queryLng, lat[node], lng[node]));
+
+            int axis = depth & 1;
+            double delta = axis == 0 ? queryLat - lat[node] : queryLng - lng[node];
+            boolean leftFirst = delta < 0;
+            if (leftFirst) {
+                nearest(from, mid, depth + 1, queryLat, queryLng, heap);
+            } else {
+                nearest(mid + 1, to, depth + 1, queryLat, queryLng, heap);
+            }
+            // Visit the far side only if the splitting line is closer than the current k-th distance
+            if (!heap.isFull() || splitDistanceKm(axis, queryLat, queryLng, delta) <= -heap.threshold()) {
+                if (leftFirst) {
+                    nearest(mid + 1, to, depth + 1, queryLat, queryLng, heap);
+                } else {
+                    nearest(from, mid, depth + 1, queryLat, queryLng, heap);
+                }
+            }
+        }
+
+        /**
+         * Lower bound on the distance from the query to any point on the far side of a split
+         *
+         * A longitude split's far side also borders the antimeridian, which may
+         * be closer than the split itself, so the bound takes the nearer of the two.
+         */
+        private static double splitDistanceKm(int axis, double queryLat, double queryLng, double delta) {
+            if (axis == 0) {
+                return Math.abs(delta) * KM_PER_DEGREE_LAT;
+            }
+            // delta >= 0 puts the far side in [-180, split], reached eastward across the antimeridian;
+            // delta < 0 puts it in [split, 180], reached westward
+            double dLng = delta >= 0
+                    ? Math.min(delta, 180.0 - queryLng)
+                    : Math.min(-delta, 180.0 + queryLng);
+            if (dLng >= 90.0) {
+                return 0.0;
+            }
+            // Angular distance to the meridian's great circle bounds the distance to the meridian itself
+            double sine = Math.cos(Math.toRadians(queryLat)) * Math.sin(Math.toRadians(dLng));
+            return EARTH_RADIUS_KM * Math.asin(Math.min(1.0, sine));
+        }
+    }
+
+    private static final class IntList {
+
+        int[] values = new int[16];
+        int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
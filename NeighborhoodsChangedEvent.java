@@ -0,0 +1,9 @@
+package com.neighborfit.service;
+
+import java.util.Set;
+
+/**
+ * Event published after a committed transaction that inserted, updated or deleted neighborhoods
+ */
+public record NeighborhoodsChangedEvent(Set<Long> neighborhoodIds) {
+}
\ No newline at end of file
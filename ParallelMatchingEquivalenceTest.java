@@ -0,0 +1,99 @@
+package com.neighborfit.service;
+
+import com.neighborfit.benchmark.SyntheticDataGenerator;
+import com.neighborfit.dto.MatchResultDto;
+import com.neighborfit.model.Match;
+import com.neighborfit.model.Neighborhood;
+import com.neighborfit.model.User;
+import com.neighborfit.repository.MatchRepository;
+import com.neighborfit.repository.NeighborhoodRepository;
+import com.neighborfit.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Parallel all-users matching against the sequential {@link MatchingService} path
+ *
+ * Runs both paths over the same seeded data, clearing matches in between,
+ * and requires every user to end up with the same persisted top K and the
+ * responses to be the same size. Not transactional, since the parallel path
+ * matches users on worker threads with transactions of their own.
+ */
+@SpringBootTest
+class ParallelMatchingEquivalenceTest {
+
+    private static final long SEED = 7L;
+    private static final int NEIGHBORHOODS = 300;
+    private static final int USERS = 40;
+    private static final int K = 5;
+
+    @Autowired
+    private MatchingService matchingService;
+
+    @Autowired
+    private ParallelMatchingService parallelMatchingService;
+
+    @Autowired
+    private NeighborhoodRepository neighborhoodRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MatchRepository matchRepository;
+
+    private List<Neighborhood> neighborhoods;
+    private List<User> users;
+
+    @BeforeEach
+    void seed() {
+        SyntheticDataGenerator generator = new SyntheticDataGenerator(SEED);
+        neighborhoods = neighborhoodRepository.saveAll(generator.neighborhoods(NEIGHBORHOODS));
+        users = userRepository.saveAll(generator.users(USERS));
+        matchRepository.deleteAll();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        matchRepository.deleteAll();
+        userRepository.deleteAll(users);
+        neighborhoodRepository.deleteAll(neighborhoods);
+    }
+
+    @Test
+    void parallelPathMatchesSequentialPath() {
+        List<MatchResultDto> sequential = matchingService.findMatchesForAllUsers(K);
+        Map<Long, List<Long>> expected = persistedTopK();
+        matchRepository.deleteAll();
+
+        List<MatchResultDto> parallel = parallelMatchingService.findMatchesForAllUsers(K);
+        Map<Long, List<Long>> actual = persistedTopK();
+
+        assertThat(parallel).hasSameSizeAs(sequential);
+        assertThat(actual).isEqualTo(expected);
+    }
+
+    /**
+     * Neighborhood IDs of every user's persisted top K, best first
+     */
+    private Map<Long, List<Long>> persistedTopK() {
+        Map<Long, List<Long>> topK = new LinkedHashMap<>();
+        for (User user : userRepository.findAll()) {
+            topK.put(user.getId(), matchRepository.findTopByUserId(user.getId(), PageRequest.of(0, K)).stream()
+                    .map(Match::getNeighborhood)
+                    .map(Neighborhood::getId)
+                    .toList());
+        }
+        return topK;
+    }
+}
@@ -0,0 +1,66 @@
+package com.neighborfit.service;
+
+import com.neighborfit.dto.MatchResultDto;
+import com.neighborfit.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Matching for every user, with users matched in parallel
+ *
+ * Each user goes through {@link MatchingService#findMatchesForUser}, the
+ * same call the sequential {@link MatchingService#findMatchesForAllUsers}
+ * makes, so the results are the same. Users are read in ID-ordered pages
+ * and each page is spread over the {@link BulkMatchingEngine} pool. Results
+ * are collected in user ID order.
+ */
+@Service
+@Slf4j
+public class ParallelMatchingService {
+
+    private final MatchingService matchingService;
+    private final UserRepository userRepository;
+    private final BulkMatchingEngine engine;
+    private final int pageSize;
+
+    public ParallelMatchingService(MatchingService matchingService,
+                                   UserRepository userRepository,
+                                   BulkMatchingEngine engine,
+                                   @Value("${neighborfit.matching.bulk.page-size:200}") int pageSize) {
+        this.matchingService = matchingService;
+        this.userRepository = userRepository;
+        this.engine = engine;
+        this.pageSize = Math.max(1, pageSize);
+    }
+
+    /**
+     * Find and persist matches for every user, in user ID order
+     */
+    public List<MatchResultDto> findMatchesForAllUsers(int limitPerUser) {
+        if (limitPerUser <= 0) {
+            throw new IllegalArgumentException("Limit per user must be positive: " + limitPerUser);
+        }
+        long start = System.nanoTime();
+        List<MatchResultDto> matches = new ArrayList<>();
+        int users = 0;
+        long afterId = 0L;
+        List<Long> page;
+        while (!(page = userRepository.findNextIdsAfterId(afterId, PageRequest.of(0, pageSize))).isEmpty()) {
+            for (List<MatchResultDto> userMatches
+                    : engine.mapAll(page, userId -> matchingService.findMatchesForUser(userId, limitPerUser))) {
+                matches.addAll(userMatches);
+            }
+            users += page.size();
+            afterId = page.get(page.size() - 1);
+        }
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        log.info("Found {} matches for {} users in {} ms (parallelism={})",
+                matches.size(), users, elapsedMillis, engine.getParallelism());
+        return matches;
+    }
+}
@@ -0,0 +1,128 @@
+package com.neighborfit.benchmark;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.neighborfit.NeighborFitApplication;
+import com.neighborfit.config.CborConfig;
+import com.neighborfit.dto.MatchResultDto;
+import com.neighborfit.model.User;
+import com.neighborfit.repository.NeighborhoodRepository;
+import com.neighborfit.repository.UserRepository;
+import com.neighborfit.service.MatchingService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON versus CBOR encoding of match and user response payloads
+ *
+ * Serializes and deserializes a {@code List<MatchResultDto>} as returned by
+ * the bulk matching endpoint and a {@code List<User>} as returned by the
+ * user listing, using the application's JSON mapper and the CBOR mapper from
+ * {@link CborConfig}. Encoded sizes of both payloads are printed at setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PayloadEncodingBenchmark {
+
+    @Param({"json", "cbor"})
+    public String format;
+
+    @Param({"2000"})
+    public int neighborhoods;
+
+    @Param({"100"})
+    public int users;
+
+    @Param({"10"})
+    public int limit;
+
+    private ConfigurableApplicationContext context;
+    private ObjectMapper mapper;
+    private JavaType matchListType;
+    private JavaType userListType;
+    private List<MatchResultDto> matches;
+    private List<User> userList;
+    private byte[] encodedMatches;
+    private byte[] encodedUsers;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        SpringApplication application = new SpringApplication(NeighborFitApplication.class);
+        application.setWebApplicationType(WebApplicationType.NONE);
+        application.setDefaultProperties(Map.of("logging.level.root", "WARN"));
+        context = application.run();
+
+        ObjectMapper jsonMapper = context.getBean(ObjectMapper.class);
+        ObjectMapper cborMapper = CborConfig.cborObjectMapper(context.getBean(Jackson2ObjectMapperBuilder.class));
+        mapper = format.equals("cbor") ? cborMapper : jsonMapper;
+        matchListType = mapper.getTypeFactory().constructCollectionType(List.class, MatchResultDto.class);
+        userListType = mapper.getTypeFactory().constructCollectionType(List.class, User.class);
+
+        SyntheticDataGenerator generator = new SyntheticDataGenerator(42L);
+        context.getBean(NeighborhoodRepository.class).saveAll(generator.neighborhoods(neighborhoods));
+        userList = context.getBean(UserRepository.class).saveAll(generator.users(users));
+        MatchingService matchingService = context.getBean(MatchingService.class);
+        matches = new ArrayList<>();
+        for (User user : userList) {
+            matches.addAll(matchingService.findMatchesForUser(user.getId(), limit));
+        }
+
+        encodedMatches = mapper.writeValueAsBytes(matches);
+        encodedUsers = mapper.writeValueAsBytes(userList);
+        int jsonMatches = jsonMapper.writeValueAsBytes(matches).length;
+        int jsonUsers = jsonMapper.writeValueAsBytes(userList).length;
+        System.out.printf("%-4s matches=%d bytes (%.1f%% of JSON) users=%d bytes (%.1f%% of JSON)%n",
+                format, encodedMatches.length, 100.0 * encodedMatches.length / jsonMatches,
+                encodedUsers.length, 100.0 * encodedUsers.length / jsonUsers);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public byte[] serializeMatches() throws IOException {
+        return mapper.writeValueAsBytes(matches);
+    }
+
+    @Benchmark
+    public List<MatchResultDto> deserializeMatches() throws IOException {
+        return mapper.readValue(encodedMatches, matchListType);
+    }
+
+    @Benchmark
+    public byte[] serializeUsers() throws IOException {
+        return mapper.writeValueAsBytes(userList);
+    }
+
+    @Benchmark
+    public List<User> deserializeUsers() throws IOException {
+        return mapper.readValue(encodedUsers, userListType);
+    }
+}
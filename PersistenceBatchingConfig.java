@@ -0,0 +1,39 @@
+package com.neighborfit.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Hibernate JDBC batching configuration
+ * 
+ * Groups inserts and updates into JDBC batches ordered by entity type, so
+ * bulk writes of match rows cost one round trip per batch instead of one
+ * per row. Batching only applies to entities whose IDs are not generated
+ * by IDENTITY columns.
+ * 
+ * Lazy associations and element collections are batch fetched, so reading
+ * a page of users or neighborhoods initializes each collection with one
+ * IN query per batch instead of one query per row.
+ */
+@Configuration
+public class PersistenceBatchingConfig {
+    
+    @Value("${neighborfit.persistence.batch-size:500}")
+    private int batchSize;
+    
+    @Value("${neighborfit.persistence.fetch-batch-size:100}")
+    private int fetchBatchSize;
+    
+    @Bean
+    public HibernatePropertiesCustomizer batchingHibernatePropertiesCustomizer() {
+        return properties -> {
+            properties.putIfAbsent("hibernate.jdbc.batch_size", batchSize);
+            properties.putIfAbsent("hibernate.order_inserts", true);
+            properties.putIfAbsent("hibernate.order_updates", true);
+            properties.putIfAbsent("hibernate.jdbc.batch_versioned_data", true);
+            properties.putIfAbsent("hibernate.default_batch_fetch_size", fetchBatchSize);
+        };
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,278 @@
+package com.neighborfit.service;
+
+import com.neighborfit.model.Neighborhood;
+import com.neighborfit.model.User;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * Production scorer matching a user's stated preferences against the neighborhood snapshot
+ *
+ * Every component is in [0, 1]:
+ * <ul>
+ *   <li>lifestyle is the share of the user's lifestyle preferences the neighborhood has</li>
+ *   <li>demographic is the fit of the median age, and of the school rating for families with children</li>
+ *   <li>location combines safety, transit or walk score by transportation preference, and commute time</li>
+ *   <li>budget is 1 inside the user's budget and falls off with the distance to it</li>
+ * </ul>
+ * A missing value on either side scores 0.5, so it neither helps nor hurts.
+ *
+ * Upper bounds come from {@link ColumnStats} of the snapshot, built once per
+ * snapshot: the user's best lifestyle overlap over the distinct masks, the
+ * closest median age and home value to the user's age and budget, and the
+ * best safety, mobility, school and commute values.
+ */
+@Component
+public class PreferenceScorer implements ComponentScorer {
+
+    private static final double NEUTRAL = 0.5;
+    private static final double AGE_TOLERANCE_YEARS = 40.0;
+
+    private volatile ColumnStats stats = ColumnStats.of(NeighborhoodFeatureSnapshot.Columns.EMPTY);
+
+    @Override
+    public double weight(Component component) {
+        return switch (component) {
+            case LIFESTYLE -> 0.35;
+            case DEMOGRAPHIC -> 0.20;
+            case LOCATION -> 0.25;
+            case BUDGET -> 0.20;
+        };
+    }
+
+    @Override
+    public ComponentScorer forUser(User user) {
+        return new UserScorer(user);
+    }
+
+    @Override
+    public double componentScore(User user, NeighborhoodFeatureSnapshot.Columns columns, int index, Component component) {
+        return forUser(user).componentScore(user, columns, index, component);
+    }
+
+    @Override
+    public double upperBound(User user, NeighborhoodFeatureSnapshot.Columns columns, Component component) {
+        return forUser(user).upperBound(user, columns, component);
+    }
+
+    /**
+     * Neighborhood lifestyle characteristics matching a user's lifestyle preferences by name
+     */
+    public static long lifestyleMask(User user) {
+        return EnumBitmasks.encodeByName(user.getLifestylePreferences(), Neighborhood.LifestyleCharacteristic.class);
+    }
+
+    private static double clamp(double value) {
+        return Double.isNaN(value) ? 0.0 : Math.max(0.0, Math.min(1.0, value));
+    }
+
+    private static double neutralIfNaN(double value) {
+        return Double.isNaN(value) ? NEUTRAL : clamp(value);
+    }
+
+    private static double orNaN(Integer value) {
+        return value != null ? value : Double.NaN;
+    }
+
+    /**
+     * Statistics of the given snapshot, reusing the last ones when the snapshot has not changed
+     */
+    private ColumnStats statsFor(NeighborhoodFeatureSnapshot.Columns columns) {
+        ColumnStats current = stats;
+        if (current.columns != columns) {
+            current = ColumnStats.of(columns);
+            stats = current;
+        }
+        return current;
+    }
+
+    /**
+     * Scorer bound to one user; ignores the user argument of every call
+     */
+    private final class UserScorer implements ComponentScorer {
+
+        private final long lifestyle;
+        private final int wanted;
+        private final double age;
+        private final double minBudget;
+        private final double maxBudget;
+        private final double maxCommute;
+        private final boolean wantsSchools;
+        private final boolean prefersTransit;
+
+        UserScorer(User user) {
+            this.lifestyle = lifestyleMask(user);
+            this.wanted = Long.bitCount(lifestyle);
+            this.age = orNaN(user.getAge());
+            this.minBudget = orNaN(user.getMinBudget());
+            this.maxBudget = orNaN(user.getMaxBudget());
+            this.maxCommute = orNaN(user.getMaxCommuteTimeMinutes());
+            this.wantsSchools = user.getFamilyStatus() == User.FamilyStatus.WITH_CHILDREN;
+            this.prefersTransit = user.getTransportationPreference() == User.TransportationPreference.PUBLIC_TRANSIT;
+        }
+
+        @Override
+        public double weight(Component component) {
+            return PreferenceScorer.this.weight(component);
+        }
+
+        @Override
+        public ComponentScorer forUser(User user) {
+            return PreferenceScorer.this.forUser(user);
+        }
+
+        @Override
+        public double componentScore(User user, NeighborhoodFeatureSnapshot.Columns columns, int index, Component component) {
+            return switch (component) {
+                case LIFESTYLE -> wanted == 0
+                        ? NEUTRAL
+                        : (double) EnumBitmasks.overlap(lifestyle, columns.lifestyleMask[index]) / wanted;
+                case DEMOGRAPHIC -> {
+                    double ageFit = neutralIfNaN(1.0 - Math.abs(age - columns.medianAge[index]) / AGE_TOLERANCE_YEARS);
+                    yield wantsSchools
+                            ? 0.5 * ageFit + 0.5 * neutralIfNaN(columns.schoolRating[index] / 10.0)
+                            : ageFit;
+                }
+                case LOCATION -> {
+                    double safety = neutralIfNaN(columns.safetyScore[index] / 10.0);
+                    double mobility = neutralIfNaN((prefersTransit ? columns.transitScore[index] : columns.walkScore[index]) / 100.0);
+                    yield 0.5 * safety + 0.3 * mobility + 0.2 * commuteFit(columns.commuteTimeMinutes[index]);
+                }
+                case BUDGET -> budgetFit(columns.medianHomeValue[index]);
+            };
+        }
+
+        @Override
+        public double upperBound(User user, NeighborhoodFeatureSnapshot.Columns columns, Component component) {
+            ColumnStats s = statsFor(columns);
+            return switch (component) {
+                case LIFESTYLE -> {
+                    if (wanted == 0) {
+                        yield NEUTRAL;
+                    }
+                    int best = 0;
+                    for (long mask : s.lifestyleMasks) {
+                        best = Math.max(best, EnumBitmasks.overlap(lifestyle, mask));
+                    }
+                    yield (double) best / wanted;
+                }
+                case DEMOGRAPHIC -> {
+                    double ageFit = Double.isNaN(age)
+                            ? NEUTRAL
+                            : s.closest(s.medianAges, age, age, s.missingAge,
+                                    a -> neutralIfNaN(1.0 - Math.abs(age - a) / AGE_TOLERANCE_YEARS));
+                    yield wantsSchools ? 0.5 * ageFit + 0.5 * s.bestSchoolFit : ageFit;
+                }
+                case LOCATION -> {
+                    double commute = commuteFit(s.minCommute);
+                    if (s.missingCommute) {
+                        commute = Math.max(commute, NEUTRAL);
+                    }
+                    yield 0.5 * s.bestSafetyFit + 0.3 * (prefersTransit ? s.bestTransitFit : s.bestWalkFit) + 0.2 * commute;
+                }
+                case BUDGET -> Double.isNaN(minBudget) || Double.isNaN(maxBudget) || maxBudget <= 0
+                        ? NEUTRAL
+                        : s.closest(s.homeValues, minBudget, maxBudget, s.missingHomeValue, this::budgetFit);
+            };
+        }
+
+        private double commuteFit(double commute) {
+            if (Double.isNaN(commute) || Double.isNaN(maxCommute) || maxCommute <= 0) {
+                return NEUTRAL;
+            }
+            return commute <= maxCommute ? 1.0 : clamp(1.0 - (commute - maxCommute) / maxCommute);
+        }
+
+        private double budgetFit(double value) {
+            if (Double.isNaN(value) || Double.isNaN(minBudget) || Double.isNaN(maxBudget) || maxBudget <= 0) {
+                return NEUTRAL;
+            }
+            if (value >= minBudget && value <= maxBudget) {
+                return 1.0;
+            }
+            double gap = value < minBudget ? minBudget - value : value - maxBudget;
+            return clamp(1.0 - gap / maxBudget);
+        }
+    }
+
+    /**
+     * Per-snapshot values the upper bounds are derived from
+     *
+     * Fits that depend only on the neighborhood are stored as their best value
+     * over every row. Values compared against a user's own preference are kept
+     * sorted, so the closest one is found by binary search.
+     */
+    private static final class ColumnStats {
+
+        final NeighborhoodFeatureSnapshot.Columns columns;
+        final long[] lifestyleMasks;
+        final double[] medianAges;
+        final boolean missingAge;
+        final double[] homeValues;
+        final boolean missingHomeValue;
+        final double minCommute;
+        final boolean missingCommute;
+        final double bestSchoolFit;
+        final double bestSafetyFit;
+        final double bestTransitFit;
+        final double bestWalkFit;
+
+        private ColumnStats(NeighborhoodFeatureSnapshot.Columns columns) {
+            this.columns = columns;
+            this.lifestyleMasks = Arrays.stream(columns.lifestyleMask).distinct().toArray();
+            this.medianAges = sortedValues(columns.medianAge);
+            this.missingAge = medianAges.length < columns.size();
+            this.homeValues = sortedValues(columns.medianHomeValue);
+            this.missingHomeValue = homeValues.length < columns.size();
+            double[] commutes = sortedValues(columns.commuteTimeMinutes);
+            this.minCommute = commutes.length > 0 ? commutes[0] : Double.NaN;
+            this.missingCommute = commutes.length < columns.size();
+            double school = 0.0;
+            double safety = 0.0;
+            double transit = 0.0;
+            double walk = 0.0;
+            for (int i = 0; i < columns.size(); i++) {
+                school = Math.max(school, neutralIfNaN(columns.schoolRating[i] / 10.0));
+                safety = Math.max(safety, neutralIfNaN(columns.safetyScore[i] / 10.0));
+                transit = Math.max(transit, neutralIfNaN(columns.transitScore[i] / 100.0));
+                walk = Math.max(walk, neutralIfNaN(columns.walkScore[i] / 100.0));
+            }
+            this.bestSchoolFit = school;
+            this.bestSafetyFit = safety;
+            this.bestTransitFit = transit;
+            this.bestWalkFit = walk;
+        }
+
+        static ColumnStats of(NeighborhoodFeatureSnapshot.Columns columns) {
+            return new ColumnStats(columns);
+        }
+
+        /**
+         * Best fit over sorted values for a fit that is highest in {@code [low, high]} and falls off either side
+         *
+         * Only the values nearest {@code low} from either side can score best,
+         * so the fit is evaluated for those two alone. Missing values score neutral.
+         */
+        double closest(double[] sorted, double low, double high, boolean missing,
+                       DoubleUnaryOperator fit) {
+            double best = missing || sorted.length == 0 ? NEUTRAL : 0.0;
+            int at = Arrays.binarySearch(sorted, low);
+            int i = at >= 0 ? at : -at - 1;
+            if (i < sorted.length) {
+                best = Math.max(best, fit.applyAsDouble(sorted[i]));
+            }
+            if (i > 0) {
+                best = Math.max(best, fit.applyAsDouble(sorted[i - 1]));
+            }
+            return best;
+        }
+
+        private static double[] sortedValues(double[] column) {
+            double[] values = Arrays.stream(column).filter(v -> !Double.isNaN(v)).toArray();
+            Arrays.sort(values);
+            return values;
+        }
+    }
+}
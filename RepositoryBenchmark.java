@@ -0,0 +1,144 @@
+package com.neighborfit.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.neighborfit.NeighborFitApplication;
+import com.neighborfit.dto.MatchResultDto;
+import com.neighborfit.dto.MatchSummaryDto;
+import com.neighborfit.model.Neighborhood;
+import com.neighborfit.model.User;
+import com.neighborfit.repository.NeighborhoodRepository;
+import com.neighborfit.repository.UserRepository;
+import com.neighborfit.service.MatchingService;
+import com.neighborfit.service.SnapshotMatchingService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks that need the Spring context and the embedded database
+ *
+ * Covers single-user matching through {@link SnapshotMatchingService}, the
+ * {@link NeighborhoodRepository} range queries and JSON serialization of
+ * {@link MatchResultDto} lists. The database is seeded once per trial with
+ * synthetic data at the requested scale. Each matching invocation runs in a
+ * transaction that is rolled back, so the match table does not grow during
+ * the run.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RepositoryBenchmark {
+
+    private static final int SEED_BATCH_SIZE = 5_000;
+
+    @Param({"10000", "100000"})
+    public int neighborhoods;
+
+    @Param({"100"})
+    public int users;
+
+    @Param({"10"})
+    public int limit;
+
+    private ConfigurableApplicationContext context;
+    private NeighborhoodRepository neighborhoodRepository;
+    private SnapshotMatchingService snapshotMatchingService;
+    private TransactionTemplate rollbackTemplate;
+    private ObjectMapper objectMapper;
+    private List<Long> userIds;
+    private List<MatchResultDto> serializationPayload;
+    private Random random;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SpringApplication application = new SpringApplication(NeighborFitApplication.class);
+        application.setWebApplicationType(WebApplicationType.NONE);
+        application.setDefaultProperties(Map.of("logging.level.root", "WARN"));
+        context = application.run();
+
+        neighborhoodRepository = context.getBean(NeighborhoodRepository.class);
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        MatchingService matchingService = context.getBean(MatchingService.class);
+        snapshotMatchingService = context.getBean(SnapshotMatchingService.class);
+        rollbackTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        objectMapper = context.getBean(ObjectMapper.class);
+
+        SyntheticDataGenerator generator = new SyntheticDataGenerator(42L);
+        List<Neighborhood> generated = generator.neighborhoods(neighborhoods);
+        for (int from = 0; from < generated.size(); from += SEED_BATCH_SIZE) {
+            neighborhoodRepository.saveAll(generated.subList(from, Math.min(generated.size(), from + SEED_BATCH_SIZE)));
+        }
+        userIds = userRepository.saveAll(generator.users(users)).stream().map(User::getId).toList();
+        serializationPayload = matchingService.findMatchesForUser(userIds.get(0), limit);
+        random = new Random(7L);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<MatchSummaryDto> findMatchesForUser() {
+        Long userId = userIds.get(random.nextInt(userIds.size()));
+        return rollbackTemplate.execute(status -> {
+            status.setRollbackOnly();
+            return snapshotMatchingService.matchUser(userId, limit);
+        });
+    }
+
+    @Benchmark
+    public List<Neighborhood> findByIncomeRange() {
+        double min = 40_000 + random.nextInt(60_000);
+        return neighborhoodRepository.findByIncomeRange(min, min + 5_000);
+    }
+
+    @Benchmark
+    public List<Neighborhood> findByRentRange() {
+        double min = 1_000 + random.nextInt(2_000);
+        return neighborhoodRepository.findByRentRange(min, min + 100);
+    }
+
+    @Benchmark
+    public List<Neighborhood> findByGeographicBounds() {
+        double lat = 30 + random.nextDouble() * 15;
+        double lng = -120 + random.nextDouble() * 50;
+        return neighborhoodRepository.findByGeographicBounds(lat, lat + 0.1, lng, lng + 0.1);
+    }
+
+    @Benchmark
+    public List<Neighborhood> findNeighborhoodsForMatching() {
+        double minIncome = 40_000 + random.nextInt(60_000);
+        return neighborhoodRepository.findNeighborhoodsForMatching(
+                minIncome, minIncome + 20_000, 200_000.0, 600_000.0, 0.05, 7.0);
+    }
+
+    @Benchmark
+    public byte[] serializeMatchResults() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(serializationPayload);
+    }
+}
@@ -0,0 +1,324 @@
+package com.neighborfit.repository;
+
+import com.neighborfit.benchmark.SyntheticDataGenerator;
+import com.neighborfit.config.PersistenceBatchingConfig;
+import com.neighborfit.model.Match;
+import com.neighborfit.model.Neighborhood;
+import com.neighborfit.model.User;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Query plans of the match and neighborhood repository queries
+ *
+ * Seeds the embedded database with synthetic neighborhoods, users and
+ * matches at a realistic ratio and refreshes its statistics. Each repository
+ * method is then called once. The SQL Hibernate sent to the driver and its
+ * bound parameters are replayed under {@code EXPLAIN}, and the plan must not
+ * read any table in full. The indexes come from {@code schema.sql}.
+ *
+ * Queries that filter on feedback, or that aggregate over every match, are
+ * analytics over the whole table and are not checked. Every keyset page
+ * query is.
+ */
+@DataJpaTest
+@Import({PersistenceBatchingConfig.class, RepositoryQueryPlanTest.StatementRecorder.class})
+class RepositoryQueryPlanTest {
+
+    private static final int NEIGHBORHOODS = 2_000;
+    private static final int USERS = 100;
+    private static final int MATCHES_PER_USER = 100;
+    private static final int FLUSH_EVERY = 1_000;
+
+    private static final List<String> FULL_SCAN_MARKERS = List.of("tablescan", "seq scan");
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private MatchRepository matchRepository;
+
+    @Autowired
+    private NeighborhoodRepository neighborhoodRepository;
+
+    @Autowired
+    private StatementRecorder recorder;
+
+    private User user;
+    private Long neighborhoodId;
+
+    @BeforeEach
+    void setUp() {
+        SyntheticDataGenerator generator = new SyntheticDataGenerator(42L);
+        List<Long> neighborhoodIds = new ArrayList<>(NEIGHBORHOODS);
+        int pending = 0;
+        for (Neighborhood neighborhood : generator.neighborhoods(NEIGHBORHOODS)) {
+            neighborhoodIds.add(entityManager.persist(neighborhood).getId());
+            pending = flushIfDue(pending + 1);
+        }
+        List<Long> userIds = new ArrayList<>(USERS);
+        for (User generated : generator.users(USERS)) {
+            userIds.add(entityManager.persist(generated).getId());
+            pending = flushIfDue(pending + 1);
+        }
+
+        EntityManager em = entityManager.getEntityManager();
+        Random random = new Random(42L);
+        Match.MatchStrength[] strengths = Match.MatchStrength.values();
+        LocalDateTime now = LocalDateTime.now();
+        for (Long userId : userIds) {
+            for (int i = 0; i < MATCHES_PER_USER; i++) {
+                double score = random.nextDouble();
+                em.persist(Match.builder()
+                        .user(em.getReference(User.class, userId))
+                        .neighborhood(em.getReference(Neighborhood.class,
+                                neighborhoodIds.get(random.nextInt(neighborhoodIds.size()))))
+                        .overallScore(score)
+                        .lifestyleScore(random.nextDouble())
+                        .demographicScore(random.nextDouble())
+                        .locationScore(random.nextDouble())
+                        .budgetScore(random.nextDouble())
+                        .matchStrength(strengths[Math.min(strengths.length - 1, (int) (score * strengths.length))])
+                        .createdAt(now.minusMinutes(random.nextInt(60 * 24 * 90)))
+                        .build());
+                pending = flushIfDue(pending + 1);
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        // Plans are chosen from table statistics, which H2 only refreshes on demand
+        em.unwrap(Session.class).doWork(connection -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("ANALYZE");
+            }
+        });
+
+        user = em.getReference(User.class, userIds.get(USERS / 2));
+        neighborhoodId = neighborhoodIds.get(NEIGHBORHOODS / 2);
+    }
+
+    @Test
+    void matchQueriesUseIndexes() {
+        Long userId = user.getId();
+        Match.MatchStrength strength = Match.MatchStrength.values()[0];
+        PageRequest page = PageRequest.of(0, 20);
+
+        Map<String, Runnable> queries = new LinkedHashMap<>();
+        queries.put("findByUserOrderByOverallScoreDesc", () -> matchRepository.findByUserOrderByOverallScoreDesc(user));
+        queries.put("findByUserAndMinScore", () -> matchRepository.findByUserAndMinScore(user, 0.8));
+        queries.put("findTopMatchesForUser", () -> matchRepository.findTopMatchesForUser(user, 10));
+        queries.put("findTopByUserId", () -> matchRepository.findTopByUserId(userId, PageRequest.of(0, 10)));
+        queries.put("countByUserId", () -> matchRepository.countByUserId(userId));
+        queries.put("countByUserIds", () -> matchRepository.countByUserIds(List.of(userId)));
+        queries.put("findTopIdsByUserIds", () -> matchRepository.findTopIdsByUserIds(List.of(userId), 10));
+        queries.put("findByUserIdsCreatedSince",
+                () -> matchRepository.findByUserIdsCreatedSince(List.of(userId), LocalDateTime.now().minusDays(1)));
+        queries.put("findAverageMatchScoreForUser", () -> matchRepository.findAverageMatchScoreForUser(user));
+        queries.put("findByMatchStrengthOrderByOverallScoreDesc",
+                () -> matchRepository.findByMatchStrengthOrderByOverallScoreDesc(strength));
+        queries.put("findByMatchStrengthAfter",
+                () -> matchRepository.findByMatchStrengthAfter(strength, 0.5, Long.MAX_VALUE, page));
+        queries.put("findByScoreRange", () -> matchRepository.findByScoreRange(0.95, 0.99));
+        queries.put("findByScoreRangeAfter",
+                () -> matchRepository.findByScoreRangeAfter(0.95, 0.99, 0.99, Long.MAX_VALUE, page));
+        queries.put("findRecentMatches", () -> matchRepository.findRecentMatches(10));
+        queries.put("findByNeighborhoodOrderByOverallScoreDesc",
+                () -> matchRepository.findByNeighborhoodOrderByOverallScoreDesc(neighborhoodId));
+        queries.put("findByNeighborhoodIdAfter",
+                () -> matchRepository.findByNeighborhoodIdAfter(neighborhoodId, 0L, page));
+        queries.put("findAverageMatchScoreForNeighborhood",
+                () -> matchRepository.findAverageMatchScoreForNeighborhood(neighborhoodId));
+        queries.put("findByMinLifestyleScoreAfter",
+                () -> matchRepository.findByMinLifestyleScoreAfter(0.95, 0.99, Long.MAX_VALUE, page));
+        queries.put("findByMinDemographicScoreAfter",
+                () -> matchRepository.findByMinDemographicScoreAfter(0.95, 0.99, Long.MAX_VALUE, page));
+        queries.put("findByMinLocationScoreAfter",
+                () -> matchRepository.findByMinLocationScoreAfter(0.95, 0.99, Long.MAX_VALUE, page));
+        queries.put("findByMinBudgetScoreAfter",
+                () -> matchRepository.findByMinBudgetScoreAfter(0.95, 0.99, Long.MAX_VALUE, page));
+
+        assertThat(fullScans(queries)).isEmpty();
+    }
+
+    @Test
+    void neighborhoodQueriesUseIndexes() {
+        Map<String, Runnable> queries = new LinkedHashMap<>();
+        queries.put("findByCityAndState", () -> neighborhoodRepository.findByCityAndState("Chicago", "IL"));
+        queries.put("findByZipCode", () -> neighborhoodRepository.findByZipCode("60601"));
+        queries.put("findByIncomeRange", () -> neighborhoodRepository.findByIncomeRange(150_000.0, 200_000.0));
+        queries.put("findByHomeValueRange",
+                () -> neighborhoodRepository.findByHomeValueRange(1_500_000.0, 2_000_000.0));
+        queries.put("findByRentRange", () -> neighborhoodRepository.findByRentRange(6_000.0, 8_000.0));
+        queries.put("findByMaxCrimeRate", () -> neighborhoodRepository.findByMaxCrimeRate(0.01));
+        queries.put("findByMinSafetyScore", () -> neighborhoodRepository.findByMinSafetyScore(9.8));
+        queries.put("findByMinWalkScore", () -> neighborhoodRepository.findByMinWalkScore(95.0));
+        queries.put("findByMinTransitScore", () -> neighborhoodRepository.findByMinTransitScore(95.0));
+        queries.put("findByGeographicBounds",
+                () -> neighborhoodRepository.findByGeographicBounds(41.8, 41.9, -87.7, -87.6));
+        queries.put("findNeighborhoodsForMatching",
+                () -> neighborhoodRepository.findNeighborhoodsForMatching(150_000.0, 200_000.0,
+                        500_000.0, 1_500_000.0, 0.05, 8.0));
+
+        assertThat(fullScans(queries)).isEmpty();
+    }
+
+    /**
+     * Plans of the queries that read a whole table, keyed by repository method
+     */
+    private Map<String, String> fullScans(Map<String, Runnable> queries) {
+        Map<String, String> fullScans = new LinkedHashMap<>();
+        for (Map.Entry<String, Runnable> query : queries.entrySet()) {
+            entityManager.clear();
+            recorder.clear();
+            query.getValue().run();
+            List<RecordedQuery> recorded = recorder.queries();
+            assertThat(recorded).as("SQL of %s", query.getKey()).isNotEmpty();
+            // The first statement is the repository query; later ones load associations by key
+            String plan = explain(recorded.get(0));
+            if (FULL_SCAN_MARKERS.stream().anyMatch(plan.toLowerCase()::contains)) {
+                fullScans.put(query.getKey(), plan);
+            }
+        }
+        return fullScans;
+    }
+
+    private String explain(RecordedQuery query) {
+        return entityManager.getEntityManager().unwrap(Session.class).doReturningWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + query.sql())) {
+                for (Binding binding : query.bindings()) {
+                    binding.applyTo(statement);
+                }
+                StringBuilder plan = new StringBuilder();
+                try (ResultSet rows = statement.executeQuery()) {
+                    while (rows.next()) {
+                        plan.append(rows.getString(1)).append('\n');
+                    }
+                }
+                return plan.toString();
+            }
+        });
+    }
+
+    private int flushIfDue(int pending) {
+        if (pending < FLUSH_EVERY) {
+            return pending;
+        }
+        entityManager.flush();
+        entityManager.clear();
+        return 0;
+    }
+
+    /**
+     * Records the SQL and parameters of every query executed through the data source
+     */
+    static class StatementRecorder implements BeanPostProcessor {
+
+        private final List<RecordedQuery> queries = new CopyOnWriteArrayList<>();
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            return bean instanceof DataSource dataSource ? wrap(dataSource) : bean;
+        }
+
+        List<RecordedQuery> queries() {
+            return List.copyOf(queries);
+        }
+
+        void clear() {
+            queries.clear();
+        }
+
+        private DataSource wrap(DataSource dataSource) {
+            return proxy(DataSource.class, (method, args) -> {
+                Object result = method.invoke(dataSource, args);
+                return result instanceof Connection connection ? wrap(connection) : result;
+            });
+        }
+
+        private Connection wrap(Connection connection) {
+            return proxy(Connection.class, (method, args) -> {
+                Object result = method.invoke(connection, args);
+                return result instanceof PreparedStatement statement && method.getName().equals("prepareStatement")
+                        ? wrap(statement, (String) args[0])
+                        : result;
+            });
+        }
+
+        private PreparedStatement wrap(PreparedStatement statement, String sql) {
+            List<Binding> bindings = new ArrayList<>();
+            return proxy(PreparedStatement.class, (method, args) -> {
+                String name = method.getName();
+                if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                    bindings.add(new Binding(method, args));
+                } else if (name.equals("clearParameters")) {
+                    bindings.clear();
+                } else if (name.equals("executeQuery") && args == null) {
+                    queries.add(new RecordedQuery(sql, List.copyOf(bindings)));
+                }
+                return method.invoke(statement, args);
+            });
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <T> T proxy(Class<T> type, Invocation invocation) {
+            return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, (proxy, method, args) -> {
+                try {
+                    return invocation.invoke(method, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            });
+        }
+    }
+
+    @FunctionalInterface
+    interface Invocation {
+        Object invoke(Method method, Object[] args) throws Throwable;
+    }
+
+    record RecordedQuery(String sql, List<Binding> bindings) {
+    }
+
+    /**
+     * One parameter setter call, replayed on another statement with the same placeholders
+     */
+    record Binding(Method setter, Object[] args) {
+
+        void applyTo(PreparedStatement statement) throws SQLException {
+            try {
+                setter.invoke(statement, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause() instanceof SQLException cause ? cause : new SQLException(e.getCause());
+            } catch (IllegalAccessException e) {
+                throw new SQLException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.neighborfit.service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent calls with the same key into one execution
+ *
+ * The first caller for a key runs the work; callers arriving while it is
+ * in flight wait for and share its result, or its exception. The key is
+ * released as soon as the work finishes, so later calls run it again.
+ */
+public final class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder executions = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+
+    /**
+     * Run the work for a key, or join the execution already in flight for it
+     */
+    public V execute(K key, Supplier<V> work) {
+        return execute(key, work, () -> { });
+    }
+
+    /**
+     * Run the work for a key, or run {@code onJoin} and then join the execution already in flight for it
+     */
+    public V execute(K key, Supplier<V> work, Runnable onJoin) {
+        CompletableFuture<V> future = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            coalesced.increment();
+            onJoin.run();
+            return join(existing);
+        }
+        executions.increment();
+        try {
+            V value = work.get();
+            future.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    /**
+     * Number of calls that ran the work
+     */
+    public long getExecutions() {
+        return executions.sum();
+    }
+
+    /**
+     * Number of calls that shared another call's execution
+     */
+    public long getCoalesced() {
+        return coalesced.sum();
+    }
+
+    /**
+     * Number of keys currently in flight
+     */
+    public int getInFlight() {
+        return inFlight.size();
+    }
+
+    private static <V> V join(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.neighborfit.service;
+
+import com.neighborfit.benchmark.SyntheticDataGenerator;
+import com.neighborfit.dto.MatchSummaryDto;
+import com.neighborfit.model.Match;
+import com.neighborfit.model.User;
+import com.neighborfit.repository.MatchRepository;
+import com.neighborfit.repository.NeighborhoodRepository;
+import com.neighborfit.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Snapshot matching against the {@link MatchingService} path
+ *
+ * Seeds a reproducible data set, matches every user through both paths and
+ * requires the same top K: the same neighborhoods in the same order, with
+ * the same overall scores and match strengths. The snapshot stays below the
+ * ANN threshold, so the snapshot path ranks exhaustively.
+ */
+@SpringBootTest
+@Transactional
+class SnapshotMatchingEquivalenceTest {
+
+    private static final long SEED = 42L;
+    private static final int NEIGHBORHOODS = 1_000;
+    private static final int USERS = 20;
+    private static final int K = 10;
+
+    @Autowired
+    private MatchingService matchingService;
+
+    @Autowired
+    private SnapshotMatchingService snapshotMatchingService;
+
+    @Autowired
+    private NeighborhoodFeatureSnapshot featureSnapshot;
+
+    @Autowired
+    private NeighborhoodRepository neighborhoodRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MatchRepository matchRepository;
+
+    private List<User> users;
+
+    @BeforeEach
+    void seed() {
+        SyntheticDataGenerator generator = new SyntheticDataGenerator(SEED);
+        neighborhoodRepository.saveAll(generator.neighborhoods(NEIGHBORHOODS));
+        users = userRepository.saveAll(generator.users(USERS));
+        featureSnapshot.rebuild();
+    }
+
+    @Test
+    void snapshotPathReturnsTheSameTopK() {
+        for (User user : users) {
+            matchingService.findMatchesForUser(user.getId(), K);
+            List<Match> expected = matchRepository.findTopByUserId(user.getId(), PageRequest.of(0, K));
+
+            List<MatchSummaryDto> actual = snapshotMatchingService.matchUser(user.getId(), K);
+
+            assertThat(actual).extracting(MatchSummaryDto::neighborhoodId)
+                    .as("top %d neighborhoods of user %d", K, user.getId())
+                    .containsExactlyElementsOf(expected.stream().map(m -> m.getNeighborhood().getId()).toList());
+            for (int i = 0; i < expected.size(); i++) {
+                assertThat(actual.get(i).overallScore()).isCloseTo(expected.get(i).getOverallScore(), within(1e-9));
+                assertThat(actual.get(i).matchStrength()).isEqualTo(expected.get(i).getMatchStrength());
+            }
+        }
+    }
+}
@@ -0,0 +1,294 @@
+package com.neighborfit.service;
+
+import com.neighborfit.dto.MatchSummaryDto;
+import com.neighborfit.model.Match;
+import com.neighborfit.model.Neighborhood;
+import com.neighborfit.model.User;
+import com.neighborfit.repository.MatchRepository;
+import com.neighborfit.repository.NeighborhoodRepository;
+import com.neighborfit.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Hibernate;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Matching path that scores users against the {@link NeighborhoodFeatureSnapshot}
+ *
+ * A user's best neighborhoods are picked by the {@link AnnCandidateGenerator},
+ * which re-ranks ANN candidates on large snapshots and otherwise runs the
+ * exhaustive {@link TopKMatchSelector}, with the production
+ * {@link ComponentScorer}, so only the top K rows are
+ * turned into {@link Match} entities. Those are persisted through the
+ * {@link MatchBatchWriter} with neighborhood references, and only the K
+ * winning neighborhoods are loaded to build the response. Each stage is
+ * recorded by {@link MatchingMetrics}.
+ *
+ * Bulk callers read users in ID-ordered pages and rank each page in
+ * parallel with the {@link BulkMatchingEngine}. Ranking and persisting are
+ * separate steps, each in a transaction of its own, so callers decide how
+ * much of a page is written per transaction.
+ */
+@Service
+@Slf4j
+public class SnapshotMatchingService {
+
+    private final UserRepository userRepository;
+    private final NeighborhoodRepository neighborhoodRepository;
+    private final MatchRepository matchRepository;
+    private final NeighborhoodFeatureSnapshot featureSnapshot;
+    private final AnnCandidateGenerator selector;
+    private final BulkMatchingEngine engine;
+    private final NeighborhoodBitmapIndex bitmapIndex;
+    private final ComponentScorer scorer;
+    private final MatchBatchWriter writer;
+    private final MatchingMetrics metrics;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+
+    public SnapshotMatchingService(UserRepository userRepository,
+                                   NeighborhoodRepository neighborhoodRepository,
+                                   MatchRepository matchRepository,
+                                   NeighborhoodFeatureSnapshot featureSnapshot,
+                                   AnnCandidateGenerator selector,
+                                   BulkMatchingEngine engine,
+                                   NeighborhoodBitmapIndex bitmapIndex,
+                                   ComponentScorer scorer,
+                                   MatchBatchWriter writer,
+                                   MatchingMetrics metrics,
+                                   PlatformTransactionManager transactionManager) {
+        this.userRepository = userRepository;
+        this.neighborhoodRepository = neighborhoodRepository;
+        this.matchRepository = matchRepository;
+        this.featureSnapshot = featureSnapshot;
+        this.selector = selector;
+        this.engine = engine;
+        this.bitmapIndex = bitmapIndex;
+        this.scorer = scorer;
+        this.writer = writer;
+        this.metrics = metrics;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+    }
+
+    /**
+     * Find, persist and return the best {@code limit} matches for a user, best first
+     */
+    @Transactional
+    public List<MatchSummaryDto> matchUser(Long userId, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit must be positive: " + limit);
+        }
+        User user = metrics.time(MatchingMetrics.Stage.CANDIDATE_FETCH, () -> userRepository.findById(userId)
+                .orElseThrow(() -> new IllegalArgumentException("User not found with ID: " + userId)));
+        NeighborhoodFeatureSnapshot.Columns columns = featureSnapshot.current();
+
+        TopKHeap.Ranked ranked = metrics.time(MatchingMetrics.Stage.SCORING,
+                () -> selector.select(user, columns, scorer, limit, likelyRows(user, columns)));
+
+        List<Match> matches = toMatches(user, columns, ranked, LocalDateTime.now());
+        writer.persistAll(matches);
+
+        List<MatchSummaryDto> summaries = metrics.time(MatchingMetrics.Stage.MAPPING, () -> summarize(matches));
+        log.debug("Matched user ID: {} against {} neighborhoods, kept {}", userId, columns.size(), summaries.size());
+        return summaries;
+    }
+
+    /**
+     * Bring a user's matches up to date after a profile change, returning the number of rows added
+     *
+     * Every existing match of the user is re-scored in place. Of the best
+     * {@code limit} neighborhoods, only those the user has no match with yet
+     * get a new row, so repeated edits do not pile up duplicate matches.
+     */
+    @Transactional
+    public int rematchUser(Long userId, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit must be positive: " + limit);
+        }
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new IllegalArgumentException("User not found with ID: " + userId));
+        NeighborhoodFeatureSnapshot.Columns columns = featureSnapshot.current();
+        ComponentScorer bound = scorer.forUser(user);
+
+        List<Match> existing = matchRepository.findByUserOrderByOverallScoreDesc(user);
+        Set<Long> matched = new HashSet<>();
+        for (Match match : existing) {
+            Long neighborhoodId = match.getNeighborhood().getId();
+            matched.add(neighborhoodId);
+            int index = columns.indexOf(neighborhoodId);
+            if (index >= 0) {
+                applyScores(match, user, columns, index, bound);
+            }
+        }
+
+        TopKHeap.Ranked ranked = selector.select(user, columns, scorer, limit, likelyRows(user, columns));
+        List<Match> added = new ArrayList<>();
+        for (Match match : toMatches(user, columns, ranked, LocalDateTime.now())) {
+            if (!matched.contains(match.getNeighborhood().getId())) {
+                added.add(match);
+            }
+        }
+        writer.persistAll(added);
+        log.debug("Re-scored {} matches and added {} for user ID: {}", existing.size(), added.size(), userId);
+        return added.size();
+    }
+
+    /**
+     * Rank up to {@code size} users with IDs above {@code afterId} in parallel, without persisting
+     *
+     * Returns null once no users remain.
+     */
+    public BulkMatchingEngine.BulkMatchingResult rankPage(long afterId, int size, int limitPerUser) {
+        if (limitPerUser <= 0) {
+            throw new IllegalArgumentException("Limit per user must be positive: " + limitPerUser);
+        }
+        return readOnlyTransactionTemplate.execute(status -> {
+            List<User> users = userRepository.findNextPageAfterId(afterId, PageRequest.of(0, size));
+            if (users.isEmpty()) {
+                return null;
+            }
+            // Engine workers must not lazy-load through this thread's session
+            users.forEach(user -> Hibernate.initialize(user.getLifestylePreferences()));
+            NeighborhoodFeatureSnapshot.Columns columns = featureSnapshot.current();
+            BulkMatchingEngine.BulkMatchingResult result =
+                    engine.matchAll(users, columns, scorer, limitPerUser, user -> likelyRows(user, columns));
+            for (int u = 0; u < users.size(); u++) {
+                metrics.timer(MatchingMetrics.Stage.BULK_USER).record(result.userElapsedNanos(u), TimeUnit.NANOSECONDS);
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Persist the ranked matches of the users at positions {@code [from, to)} of a page in one transaction
+     */
+    public List<MatchSummaryDto> persistRanked(BulkMatchingEngine.BulkMatchingResult page, int from, int to) {
+        return transactionTemplate.execute(status -> persist(page, from, to));
+    }
+
+    /**
+     * Like {@link #persistRanked}, first deleting the matches those users got at or after {@code since}
+     *
+     * Both happen in one transaction, so redoing users whose matches may
+     * already have been committed leaves exactly one set of them.
+     */
+    public List<MatchSummaryDto> replaceRanked(BulkMatchingEngine.BulkMatchingResult page, int from, int to,
+                                               LocalDateTime since) {
+        return transactionTemplate.execute(status -> {
+            List<Long> userIds = new ArrayList<>(to - from);
+            for (int u = from; u < to; u++) {
+                userIds.add(page.user(u).getId());
+            }
+            matchRepository.deleteAll(matchRepository.findByUserIdsCreatedSince(userIds, since));
+            return persist(page, from, to);
+        });
+    }
+
+    private List<MatchSummaryDto> persist(BulkMatchingEngine.BulkMatchingResult page, int from, int to) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Match> matches = new ArrayList<>();
+        for (int u = from; u < to; u++) {
+            matches.addAll(toMatches(page.user(u), page.columns(), page.ranked(u), now));
+        }
+        writer.persistAll(matches);
+        return metrics.time(MatchingMetrics.Stage.MAPPING, () -> summarize(matches));
+    }
+
+    /**
+     * Rows sharing at least one of the user's lifestyle preferences, or null when the user has none
+     */
+    private long[] likelyRows(User user, NeighborhoodFeatureSnapshot.Columns columns) {
+        long characteristics = EnumBitmasks.encodeByName(user.getLifestylePreferences(),
+                Neighborhood.LifestyleCharacteristic.class);
+        return characteristics != 0L ? bitmapIndex.withAnyLifestyle(columns, characteristics) : null;
+    }
+
+    /**
+     * Build unsaved matches for a user's ranked snapshot indexes, keeping the ranking order
+     */
+    List<Match> toMatches(User user, NeighborhoodFeatureSnapshot.Columns columns, TopKHeap.Ranked ranked,
+                          LocalDateTime createdAt) {
+        ComponentScorer bound = scorer.forUser(user);
+        int[] indexes = ranked.indexes();
+        List<Match> matches = new ArrayList<>(indexes.length);
+        for (int index : indexes) {
+            Match match = Match.builder()
+                    .user(userRepository.getReferenceById(user.getId()))
+                    .neighborhood(neighborhoodRepository.getReferenceById(columns.ids[index]))
+                    .createdAt(createdAt)
+                    .build();
+            applyScores(match, user, columns, index, bound);
+            matches.add(match);
+        }
+        return matches;
+    }
+
+    /**
+     * Set the component scores, overall score and strength of a match from a snapshot row
+     */
+    static void applyScores(Match match, User user, NeighborhoodFeatureSnapshot.Columns columns, int index,
+                            ComponentScorer scorer) {
+        double lifestyle = scorer.componentScore(user, columns, index, ComponentScorer.Component.LIFESTYLE);
+        double demographic = scorer.componentScore(user, columns, index, ComponentScorer.Component.DEMOGRAPHIC);
+        double location = scorer.componentScore(user, columns, index, ComponentScorer.Component.LOCATION);
+        double budget = scorer.componentScore(user, columns, index, ComponentScorer.Component.BUDGET);
+        double overall = scorer.weight(ComponentScorer.Component.LIFESTYLE) * lifestyle
+                + scorer.weight(ComponentScorer.Component.DEMOGRAPHIC) * demographic
+                + scorer.weight(ComponentScorer.Component.LOCATION) * location
+                + scorer.weight(ComponentScorer.Component.BUDGET) * budget;
+
+        match.setLifestyleScore(lifestyle);
+        match.setDemographicScore(demographic);
+        match.setLocationScore(location);
+        match.setBudgetScore(budget);
+        match.setOverallScore(overall);
+        match.setMatchStrength(scorer.strengthFor(overall));
+    }
+
+    /**
+     * Summaries of persisted matches, loading only their neighborhoods
+     */
+    List<MatchSummaryDto> summarize(List<Match> matches) {
+        List<Long> neighborhoodIds = new ArrayList<>(matches.size());
+        for (Match match : matches) {
+            neighborhoodIds.add(match.getNeighborhood().getId());
+        }
+        Map<Long, Neighborhood> neighborhoods = new HashMap<>();
+        for (Neighborhood neighborhood : neighborhoodRepository.findAllById(neighborhoodIds)) {
+            neighborhoods.put(neighborhood.getId(), neighborhood);
+        }
+        List<MatchSummaryDto> summaries = new ArrayList<>(matches.size());
+        for (Match match : matches) {
+            Neighborhood neighborhood = neighborhoods.get(match.getNeighborhood().getId());
+            summaries.add(new MatchSummaryDto(
+                    match.getId(),
+                    match.getUser().getId(),
+                    neighborhood.getId(),
+                    neighborhood.getName(),
+                    neighborhood.getCity(),
+                    neighborhood.getState(),
+                    match.getOverallScore(),
+                    match.getLifestyleScore(),
+                    match.getDemographicScore(),
+                    match.getLocationScore(),
+                    match.getBudgetScore(),
+                    match.getMatchStrength(),
+                    match.getCreatedAt()));
+        }
+        return summaries;
+    }
+}
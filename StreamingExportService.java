@@ -0,0 +1,135 @@
+package com.neighborfit.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.neighborfit.dto.MatchSummaryDto;
+import com.neighborfit.model.User;
+import com.neighborfit.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+/**
+ * Service for streaming large result sets as newline-delimited JSON
+ *
+ * Users are read in ID-ordered pages and every record is written and flushed
+ * as soon as it is produced, so clients receive the first records early.
+ * Each page is read and written in a transaction of its own and the
+ * persistence context is cleared after it. The request thread may share one
+ * entity manager across the whole response when open-session-in-view is on,
+ * so without the clear every page would stay managed until the end.
+ */
+@Service
+@Slf4j
+public class StreamingExportService {
+
+    public static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+
+    private static final byte NEWLINE = '\n';
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final UserRepository userRepository;
+    private final SnapshotMatchingService matchingService;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+    private final ObjectWriter writer;
+    private final int pageSize;
+
+    public StreamingExportService(UserRepository userRepository,
+                                  SnapshotMatchingService matchingService,
+                                  PlatformTransactionManager transactionManager,
+                                  ObjectMapper objectMapper,
+                                  @Value("${neighborfit.streaming.page-size:500}") int pageSize) {
+        this.userRepository = userRepository;
+        this.matchingService = matchingService;
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        this.writer = objectMapper.writer();
+        this.pageSize = Math.max(1, pageSize);
+    }
+
+    /**
+     * Write every user as one JSON line
+     */
+    public void streamAllUsers(OutputStream out) throws IOException {
+        long written = 0;
+        long lastId = 0L;
+        try {
+            while (true) {
+                long afterId = lastId;
+                // Users are serialized inside the page's transaction so lazy collections can load
+                UserPage page = readOnlyTransactionTemplate.execute(status -> writeUserPage(afterId, out));
+                if (page.count() == 0) {
+                    break;
+                }
+                written += page.count();
+                lastId = page.lastId();
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        log.debug("Streamed {} users", written);
+    }
+
+    /**
+     * Find matches for every user and write each match as one JSON line
+     *
+     * Each page of users is ranked in parallel. Its users are then persisted
+     * one at a time, each in its own transaction, and each user's matches are
+     * written and flushed as soon as they are stored, so results arrive user
+     * by user once a page is ranked.
+     */
+    public void streamMatchesForAllUsers(int limitPerUser, OutputStream out) throws IOException {
+        long users = 0;
+        long written = 0;
+        long lastId = 0L;
+        BulkMatchingEngine.BulkMatchingResult page;
+        while ((page = matchingService.rankPage(lastId, pageSize, limitPerUser)) != null) {
+            for (int u = 0; u < page.userCount(); u++) {
+                for (MatchSummaryDto match : matchingService.persistRanked(page, u, u + 1)) {
+                    writeLine(out, match);
+                    written++;
+                }
+                out.flush();
+            }
+            users += page.userCount();
+            lastId = page.user(page.userCount() - 1).getId();
+            entityManager.clear();
+        }
+        log.info("Streamed {} matches for {} users", written, users);
+    }
+
+    private UserPage writeUserPage(long afterId, OutputStream out) {
+        List<User> page = userRepository.findNextPageAfterId(afterId, PageRequest.of(0, pageSize));
+        try {
+            for (User user : page) {
+                writeLine(out, user);
+            }
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        long lastId = page.isEmpty() ? afterId : page.get(page.size() - 1).getId();
+        entityManager.clear();
+        return new UserPage(page.size(), lastId);
+    }
+
+    private void writeLine(OutputStream out, Object value) throws IOException {
+        out.write(writer.writeValueAsBytes(value));
+        out.write(NEWLINE);
+    }
+
+    private record UserPage(int count, long lastId) {
+    }
+}
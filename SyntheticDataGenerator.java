@@ -0,0 +1,188 @@
+package com.neighborfit.benchmark;
+
+import com.neighborfit.model.Neighborhood;
+import com.neighborfit.model.User;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Seeded generator of realistic synthetic users and neighborhoods
+ *
+ * Produces reproducible data sets for benchmarks at any scale. Incomes and
+ * home values follow log-normal distributions. Rents, safety and crime are
+ * correlated with income. Coordinates cluster around real metro areas. The
+ * same seed always yields the same data.
+ */
+public class SyntheticDataGenerator {
+
+    private static final Metro[] METROS = {
+        new Metro("New York", "NY", 40.7128, -74.0060, 1.25),
+        new Metro("Los Angeles", "CA", 34.0522, -118.2437, 1.15),
+        new Metro("Chicago", "IL", 41.8781, -87.6298, 1.00),
+        new Metro("Houston", "TX", 29.7604, -95.3698, 0.90),
+        new Metro("Phoenix", "AZ", 33.4484, -112.0740, 0.85),
+        new Metro("Boston", "MA", 42.3601, -71.0589, 1.20),
+        new Metro("Seattle", "WA", 47.6062, -122.3321, 1.20),
+        new Metro("Austin", "TX", 30.2672, -97.7431, 1.05),
+        new Metro("Denver", "CO", 39.7392, -104.9903, 1.00),
+        new Metro("Atlanta", "GA", 33.7490, -84.3880, 0.90)
+    };
+
+    private final long seed;
+
+    public SyntheticDataGenerator(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Generate neighborhoods with unset IDs
+     */
+    public List<Neighborhood> neighborhoods(int count) {
+        Random random = new Random(seed);
+        List<Neighborhood> neighborhoods = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            neighborhoods.add(neighborhood(random, i));
+        }
+        return neighborhoods;
+    }
+
+    /**
+     * Generate neighborhoods with sequential IDs starting at 1, for use without a database
+     */
+    public List<Neighborhood> neighborhoodsWithIds(int count) {
+        List<Neighborhood> neighborhoods = neighborhoods(count);
+        for (int i = 0; i < count; i++) {
+            neighborhoods.get(i).setId((long) i + 1);
+        }
+        return neighborhoods;
+    }
+
+    /**
+     * Generate users with unset IDs
+     */
+    public List<User> users(int count) {
+        Random random = new Random(seed ^ 0x5DEECE66DL);
+        List<User> users = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            users.add(user(random, i));
+        }
+        return users;
+    }
+
+    /**
+     * Generate users with sequential IDs starting at 1, for use without a database
+     */
+    public List<User> usersWithIds(int count) {
+        List<User> users = users(count);
+        for (int i = 0; i < count; i++) {
+            users.get(i).setId((long) i + 1);
+        }
+        return users;
+    }
+
+    private Neighborhood neighborhood(Random random, int i) {
+        Metro metro = METROS[random.nextInt(METROS.length)];
+        // Distance from the metro center drives density, price and walkability
+        double distance = Math.abs(random.nextGaussian()) * 0.25;
+        double urbanity = clamp(1.0 - distance * 2.5, 0.0, 1.0);
+        double income = logNormal(random, Math.log(70_000 * metro.costFactor), 0.35);
+        double homeValue = clamp(income * (4.5 + random.nextGaussian() * 0.8) * metro.costFactor, 60_000, 5_000_000);
+        double crimeRate = clamp(0.09 - income / 2_000_000 + random.nextGaussian() * 0.015 + urbanity * 0.02, 0.005, 0.25);
+        double walkScore = clamp(20 + urbanity * 75 + random.nextGaussian() * 8, 0, 100);
+        double transitScore = clamp(walkScore * 0.9 + random.nextGaussian() * 10, 0, 100);
+
+        return Neighborhood.builder()
+                .name(metro.city + " District " + (i + 1))
+                .city(metro.city)
+                .state(metro.state)
+                .zipCode(String.format("%05d", 10_000 + random.nextInt(89_999)))
+                .latitude(metro.latitude + random.nextGaussian() * 0.25 * (0.3 + distance))
+                .longitude(metro.longitude + random.nextGaussian() * 0.25 * (0.3 + distance))
+                .totalPopulation((int) clamp(logNormal(random, Math.log(15_000), 0.5), 500, 200_000))
+                .medianAge(round(clamp(38 + random.nextGaussian() * 7 - urbanity * 4, 20, 75)))
+                .medianIncome(round(income))
+                .homeOwnershipRate(round(clamp(0.85 - urbanity * 0.6 + random.nextGaussian() * 0.08, 0.05, 0.98)))
+                .collegeGraduateRate(round(clamp(income / 150_000 + random.nextGaussian() * 0.1, 0.05, 0.95)))
+                .medianHomeValue(round(homeValue))
+                .medianRent(round(clamp(homeValue / 220 + random.nextGaussian() * 150, 500, 12_000)))
+                .vacancyRate(round(clamp(0.06 + random.nextGaussian() * 0.02, 0.0, 0.3)))
+                .lifestyleCharacteristics(new ArrayList<>(pick(random, Neighborhood.LifestyleCharacteristic.class, 1, 3)))
+                .amenities(new ArrayList<>(pick(random, Neighborhood.Amenity.class, 2, 6)))
+                .transportationOptions(new ArrayList<>(pick(random, Neighborhood.TransportationOption.class, 1, 4)))
+                .crimeRate(round(crimeRate))
+                .safetyScore(round(clamp(10 - crimeRate * 60 + random.nextGaussian() * 0.5, 1, 10)))
+                .schoolRating(round(clamp(5 + income / 40_000 + random.nextGaussian(), 1, 10)))
+                .numberOfSchools(1 + random.nextInt(12))
+                .unemploymentRate(round(clamp(0.05 + random.nextGaussian() * 0.015, 0.01, 0.2)))
+                .commuteTimeMinutes(round(clamp(20 + distance * 60 + random.nextGaussian() * 6, 5, 120)))
+                .airQualityIndex(round(clamp(60 + random.nextGaussian() * 15, 10, 200)))
+                .walkScore(round(walkScore))
+                .bikeScore(round(clamp(walkScore * 0.8 + random.nextGaussian() * 10, 0, 100)))
+                .transitScore(round(transitScore))
+                .diversityIndex(round(clamp(0.6 + urbanity * 0.25 + random.nextGaussian() * 0.1, 0.1, 1.0)))
+                .numberOfRestaurants((int) clamp(5 + urbanity * 60 + random.nextGaussian() * 8, 0, 300))
+                .numberOfParks((int) clamp(3 + random.nextGaussian() * 3, 0, 40))
+                .numberOfLibraries((int) clamp(1 + random.nextGaussian(), 0, 10))
+                .build();
+    }
+
+    private User user(Random random, int i) {
+        int age = (int) clamp(35 + random.nextGaussian() * 12, 18, 90);
+        int minBudget = (int) clamp(logNormal(random, Math.log(250_000), 0.45), 50_000, 3_000_000);
+        int maxBudget = (int) (minBudget * (1.3 + random.nextDouble() * 0.9));
+
+        return User.builder()
+                .name("Synthetic User " + (i + 1))
+                .email("user" + (i + 1) + "@synthetic.neighborfit.test")
+                .age(age)
+                .gender(any(random, User.Gender.class))
+                .maritalStatus(any(random, User.MaritalStatus.class))
+                .educationLevel(any(random, User.EducationLevel.class))
+                .incomeLevel(any(random, User.IncomeLevel.class))
+                .occupationType(any(random, User.OccupationType.class))
+                .lifestylePreferences(new ArrayList<>(pick(random, User.LifestylePreference.class, 1, 3)))
+                .hobbies(new ArrayList<>(pick(random, User.Hobby.class, 1, 4)))
+                .familyStatus(any(random, User.FamilyStatus.class))
+                .petPreference(any(random, User.PetPreference.class))
+                .transportationPreference(any(random, User.TransportationPreference.class))
+                .preferredLocationType(any(random, User.LocationType.class))
+                .maxCommuteTimeMinutes(15 + random.nextInt(60))
+                .maxDistanceMiles(5 + random.nextInt(50))
+                .minBudget(minBudget)
+                .maxBudget(maxBudget)
+                .build();
+    }
+
+    private static <E extends Enum<E>> E any(Random random, Class<E> type) {
+        E[] values = type.getEnumConstants();
+        return values[random.nextInt(values.length)];
+    }
+
+    private static <E extends Enum<E>> EnumSet<E> pick(Random random, Class<E> type, int min, int max) {
+        E[] values = type.getEnumConstants();
+        int count = Math.min(values.length, min + random.nextInt(max - min + 1));
+        EnumSet<E> picked = EnumSet.noneOf(type);
+        while (picked.size() < count) {
+            picked.add(values[random.nextInt(values.length)]);
+        }
+        return picked;
+    }
+
+    private static double logNormal(Random random, double mu, double sigma) {
+        return Math.exp(mu + sigma * random.nextGaussian());
+    }
+
+    private static double clamp(double value, double min, double max) {
+        return Math.max(min, Math.min(max, value));
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100.0) / 100.0;
+    }
+
+    private record Metro(String city, String state, double latitude, double longitude, double costFactor) {
+    }
+}
@@ -0,0 +1,135 @@
+package com.neighborfit.benchmark;
+
+import com.neighborfit.NeighborFitApplication;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Load test comparing platform-thread and virtual-thread request handling
+ *
+ * Starts the application once per mode on a random port and drives a
+ * JDBC-bound endpoint with a fixed number of concurrent clients. Reports
+ * throughput and latency percentiles for each mode.
+ *
+ * Arguments: [concurrency] [durationSeconds] [path], defaulting to
+ * 1000 clients, 30 seconds and {@code /users/1}.
+ */
+public class ThreadModeLoadBenchmark {
+
+    private static final String USERNAME = "benchmark";
+    private static final String PASSWORD = "benchmark";
+
+    public static void main(String[] args) throws Exception {
+        int concurrency = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        Duration duration = Duration.ofSeconds(args.length > 1 ? Long.parseLong(args[1]) : 30);
+        String path = args.length > 2 ? args[2] : "/users/1";
+
+        for (boolean virtual : new boolean[] {false, true}) {
+            Result result = run(virtual, concurrency, duration, path);
+            System.out.printf("%-8s concurrency=%d requests=%d errors=%d throughput=%.1f req/s p50=%.2f ms p99=%.2f ms%n",
+                    virtual ? "virtual" : "platform", concurrency, result.requests(), result.errors(),
+                    result.throughput(duration), result.percentileMillis(0.50), result.percentileMillis(0.99));
+        }
+    }
+
+    private static Result run(boolean virtual, int concurrency, Duration duration, String path) throws Exception {
+        SpringApplication application = new SpringApplication(NeighborFitApplication.class);
+        application.setDefaultProperties(Map.of(
+                "server.port", "0",
+                "spring.security.user.name", USERNAME,
+                "spring.security.user.password", PASSWORD,
+                "neighborfit.threads.virtual", Boolean.toString(virtual),
+                "logging.level.root", "WARN"));
+
+        try (ConfigurableApplicationContext context = application.run()) {
+            String port = context.getEnvironment().getProperty("local.server.port");
+            String contextPath = context.getEnvironment().getProperty("server.servlet.context-path", "");
+            URI uri = URI.create("http://localhost:" + port + contextPath + path);
+            String auth = "Basic " + Base64.getEncoder()
+                    .encodeToString((USERNAME + ":" + PASSWORD).getBytes(StandardCharsets.UTF_8));
+
+            HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+            HttpRequest request = HttpRequest.newBuilder(uri).header("Authorization", auth).GET().build();
+
+            // Warm up the server before measuring
+            for (int i = 0; i < 200; i++) {
+                client.send(request, HttpResponse.BodyHandlers.discarding());
+            }
+
+            LatencyRecorder recorder = new LatencyRecorder();
+            AtomicLong errors = new AtomicLong();
+            long deadline = System.nanoTime() + duration.toNanos();
+            try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int c = 0; c < concurrency; c++) {
+                    clients.submit(() -> {
+                        while (System.nanoTime() < deadline) {
+                            long start = System.nanoTime();
+                            try {
+                                HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                                if (response.statusCode() >= 400) {
+                                    errors.incrementAndGet();
+                                }
+                            } catch (Exception e) {
+                                errors.incrementAndGet();
+                            }
+                            recorder.record(System.nanoTime() - start);
+                        }
+                        return null;
+                    });
+                }
+            }
+            return new Result(recorder.snapshot(), errors.get());
+        }
+    }
+
+    private static final class LatencyRecorder {
+
+        private long[] samples = new long[1 << 16];
+        private int size;
+
+        synchronized void record(long nanos) {
+            if (size == samples.length) {
+                samples = Arrays.copyOf(samples, size * 2);
+            }
+            samples[size++] = nanos;
+        }
+
+        synchronized long[] snapshot() {
+            long[] copy = Arrays.copyOf(samples, size);
+            Arrays.sort(copy);
+            return copy;
+        }
+    }
+
+    private record Result(long[] sortedLatencies, long errors) {
+
+        long requests() {
+            return sortedLatencies.length;
+        }
+
+        double throughput(Duration duration) {
+            return sortedLatencies.length / (double) duration.toSeconds();
+        }
+
+        double percentileMillis(double percentile) {
+            if (sortedLatencies.length == 0) {
+                return 0.0;
+            }
+            int index = (int) Math.min(sortedLatencies.length - 1, Math.ceil(percentile * sortedLatencies.length) - 1);
+            return sortedLatencies[Math.max(0, index)] / 1_000_000.0;
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.neighborfit.service;
+
+/**
+ * Bounded min-heap of (neighborhood index, score) pairs
+ *
+ * Keeps the K best-scoring candidates seen so far using two primitive arrays,
+ * so selecting a top-K costs O(n log k) with no boxing. Ties on score are
+ * broken by the lower index, which makes the result independent of the order
+ * in which candidates are offered.
+ */
+public final class TopKHeap {
+
+    private final int capacity;
+    private final int[] indexes;
+    private final double[] scores;
+    private int size;
+
+    public TopKHeap(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity must not be negative: " + capacity);
+        }
+        this.capacity = capacity;
+        this.indexes = new int[capacity];
+        this.scores = new double[capacity];
+    }
+
+    /**
+     * Offer a candidate, keeping it only if it belongs in the current top K
+     */
+    public boolean offer(int index, double score) {
+        if (capacity == 0 || Double.isNaN(score)) {
+            return false;
+        }
+        if (size < capacity) {
+            indexes[size] = index;
+            scores[size] = score;
+            siftUp(size++);
+            return true;
+        }
+        if (!isBetter(index, score, indexes[0], scores[0])) {
+            return false;
+        }
+        indexes[0] = index;
+        scores[0] = score;
+        siftDown(0);
+        return true;
+    }
+
+    /**
+     * Check whether the heap already holds K candidates
+     */
+    public boolean isFull() {
+        return size == capacity;
+    }
+
+    /**
+     * Score a candidate must beat to enter the heap, or negative infinity while it is not full
+     */
+    public double threshold() {
+        return isFull() && size > 0 ? scores[0] : Double.NEGATIVE_INFINITY;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Drain the heap into arrays ordered from best to worst
+     *
+     * The heap is empty afterwards.
+     */
+    public Ranked drainRanked() {
+        int n = size;
+        int[] rankedIndexes = new int[n];
+        double[] rankedScores = new double[n];
+        for (int i = n - 1; i >= 0; i--) {
+            rankedIndexes[i] = indexes[0];
+            rankedScores[i] = scores[0];
+            size--;
+            if (size > 0) {
+                indexes[0] = indexes[size];
+                scores[0] = scores[size];
+                siftDown(0);
+            }
+        }
+        return new Ranked(rankedIndexes, rankedScores);
+    }
+
+    private static boolean isBetter(int index, double score, int otherIndex, double otherScore) {
+        return score > otherScore || (score == otherScore && index < otherIndex);
+    }
+
+    private void siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!isBetter(indexes[parent], scores[parent], indexes[i], scores[i])) {
+                break;
+            }
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int i) {
+        while (true) {
+            int left = 2 * i + 1;
+            if (left >= size) {
+                return;
+            }
+            int worst = left;
+            int right = left + 1;
+            if (right < size && isBetter(indexes[left], scores[left], indexes[right], scores[right])) {
+                worst = right;
+            }
+            if (!isBetter(indexes[i], scores[i], indexes[worst], scores[worst])) {
+                return;
+            }
+            swap(i, worst);
+            i = worst;
+        }
+    }
+
+    private void swap(int a, int b) {
+        int index = indexes[a];
+        indexes[a] = indexes[b];
+        indexes[b] = index;
+        double score = scores[a];
+        scores[a] = scores[b];
+        scores[b] = score;
+    }
+
+    /**
+     * Candidates ordered from best to worst
+     */
+    public record Ranked(int[] indexes, double[] scores) {
+
+        public int size() {
+            return indexes.length;
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.neighborfit.service;
+
+import com.neighborfit.model.User;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Top-K selection over the neighborhood snapshot with upper-bound pruning
+ *
+ * Candidates go through a bounded {@link TopKHeap}. For a {@link ComponentScorer},
+ * components are evaluated in descending order of their weighted upper bound.
+ * A candidate is dropped as soon as its partial score plus the bounds of the
+ * remaining components can no longer beat the current K-th score. Pruning
+ * never changes the result, only how much scoring work is done. Callers may
+ * name rows likely to rank high to be scored first, which raises the K-th
+ * score early so more of the remaining rows are pruned.
+ */
+@Component
+public class TopKMatchSelector {
+
+    private static final double EPSILON = 1e-9;
+
+    private final LongAdder candidatesConsidered = new LongAdder();
+    private final LongAdder candidatesPruned = new LongAdder();
+    private final LongAdder componentsEvaluated = new LongAdder();
+    private final LongAdder componentsSkipped = new LongAdder();
+
+    /**
+     * Select the best {@code k} neighborhoods for a user, ordered from best to worst
+     */
+    public TopKHeap.Ranked select(User user, NeighborhoodFeatureSnapshot.Columns columns,
+                                  NeighborhoodScorer scorer, int k) {
+        return select(user, columns, scorer, k, null);
+    }
+
+    /**
+     * Select the best {@code k} neighborhoods, scoring the rows set in {@code first} before the others
+     *
+     * {@code first} is a row bitmap over the snapshot, or null. The result is
+     * the same as without it.
+     */
+    public TopKHeap.Ranked select(User user, NeighborhoodFeatureSnapshot.Columns columns,
+                                  NeighborhoodScorer scorer, int k, long[] first) {
+        int size = columns.size();
+        TopKHeap heap = new TopKHeap(Math.min(Math.max(k, 0), size));
+        if (scorer instanceof ComponentScorer componentScorer) {
+            selectWithPruning(user, columns, componentScorer.forUser(user), heap, first);
+        } else {
+            for (int i = 0; i < size; i++) {
+                heap.offer(i, scorer.score(user, columns, i));
+            }
+            candidatesConsidered.add(size);
+        }
+        return heap.drainRanked();
+    }
+
+    private void selectWithPruning(User user, NeighborhoodFeatureSnapshot.Columns columns,
+                                   ComponentScorer scorer, TopKHeap heap, long[] first) {
+        ComponentScorer.Component[] order = ComponentScorer.Component.values();
+        int count = order.length;
+        double[] weightedBounds = new double[count];
+        for (ComponentScorer.Component component : order) {
+            weightedBounds[component.ordinal()] = scorer.weight(component) * scorer.upperBound(user, columns, component);
+        }
+        order = Arrays.copyOf(order, count);
+        Arrays.sort(order, Comparator.comparingDouble(
+                (ComponentScorer.Component c) -> weightedBounds[c.ordinal()]).reversed());
+
+        // remainingBound[j] is the sum of weighted bounds of components j..count-1
+        double[] weights = new double[count];
+        double[] remainingBound = new double[count + 1];
+        for (int j = count - 1; j >= 0; j--) {
+            weights[j] = scorer.weight(order[j]);
+            remainingBound[j] = remainingBound[j + 1] + weightedBounds[order[j].ordinal()];
+        }
+
+        int size = columns.size();
+        PruningPass pass = new PruningPass(user, columns, scorer, heap, order, weights, remainingBound);
+        if (first == null) {
+            for (int i = 0; i < size; i++) {
+                pass.score(i);
+            }
+        } else {
+            for (int w = 0; w < first.length; w++) {
+                long word = first[w];
+                while (word != 0) {
+                    int i = (w << 6) + Long.numberOfTrailingZeros(word);
+                    if (i < size) {
+                        pass.score(i);
+                    }
+                    word &= word - 1;
+                }
+            }
+            for (int i = 0; i < size; i++) {
+                int w = i >>> 6;
+                if (w >= first.length || (first[w] & 1L << i) == 0) {
+                    pass.score(i);
+                }
+            }
+        }
+        candidatesConsidered.add(size);
+        candidatesPruned.add(pass.pruned);
+        componentsEvaluated.add(pass.evaluated);
+        componentsSkipped.add(pass.skipped);
+    }
+
+    /**
+     * Cumulative pruning counters since startup
+     */
+    public PruningStats getStats() {
+        return new PruningStats(candidatesConsidered.sum(), candidatesPruned.sum(),
+                componentsEvaluated.sum(), componentsSkipped.sum());
+    }
+
+    /**
+     * Scores rows one at a time against a heap, counting the work done and skipped
+     */
+    private static final class PruningPass {
+
+        private final User user;
+        private final NeighborhoodFeatureSnapshot.Columns columns;
+        private final ComponentScorer scorer;
+        private final TopKHeap heap;
+        private final ComponentScorer.Component[] order;
+        private final double[] weights;
+        private final double[] remainingBound;
+
+        long pruned;
+        long evaluated;
+        long skipped;
+
+        PruningPass(User user, NeighborhoodFeatureSnapshot.Columns columns, ComponentScorer scorer, TopKHeap heap,
+                    ComponentScorer.Component[] order, double[] weights, double[] remainingBound) {
+            this.user = user;
+            this.columns = columns;
+            this.scorer = scorer;
+            this.heap = heap;
+            this.order = order;
+            this.weights = weights;
+            this.remainingBound = remainingBound;
+        }
+
+        void score(int i) {
+            double threshold = heap.threshold();
+            double partial = 0.0;
+            for (int j = 0; j < order.length; j++) {
+                if (partial + remainingBound[j] < threshold - EPSILON) {
+                    pruned++;
+                    skipped += order.length - j;
+                    return;
+                }
+                partial += weights[j] * scorer.componentScore(user, columns, i, order[j]);
+                evaluated++;
+            }
+            heap.offer(i, partial);
+        }
+    }
+
+    /**
+     * Pruning counters
+     */
+    public record PruningStats(long candidatesConsidered, long candidatesPruned,
+                               long componentsEvaluated, long componentsSkipped) {
+
+        public double prunedRatio() {
+            return candidatesConsidered > 0 ? (double) candidatesPruned / candidatesConsidered : 0.0;
+        }
+    }
+}
@@ -0,0 +1,447 @@
+package com.neighborfit.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.neighborfit.dto.MatchResultDto;
+import com.neighborfit.dto.MatchSummaryDto;
+import com.neighborfit.model.Match;
+import com.neighborfit.model.MatchResultDocument;
+import com.neighborfit.model.Neighborhood;
+import com.neighborfit.model.TopMatchView;
+import com.neighborfit.repository.MatchRepository;
+import com.neighborfit.repository.MatchResultDocumentRepository;
+import com.neighborfit.repository.TopMatchViewRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maintains the {@link TopMatchView} read model of each user's top matches
+ *
+ * Committed match writes only mark their user as dirty, and committed
+ * neighborhood writes mark every user with rows for those neighborhoods,
+ * whose denormalized names and locations are now stale. A scheduled
+ * refresher then rewrites the top {@code N} rows of each dirty user in
+ * batches, so a burst of writes for one user, as a matching run produces,
+ * costs a single refresh. Reads are one ranked index lookup. Users whose
+ * rows are not materialized yet are served from the match table and queued
+ * for a refresh.
+ *
+ * The same refresh stores the user's {@link MatchResultDocument}: the
+ * {@link MatchResultDto} lists {@link MatchingService} returns for the
+ * top-matches and history endpoints, tagged with the user's data version.
+ * Those endpoints are served from the document while its tag is current,
+ * and otherwise from {@link MatchingService}, queueing the user for a
+ * refresh.
+ *
+ * The dirty sets live in memory, so a periodic reconcile compares each
+ * user's rows with the match table and queues the ones that differ. It
+ * walks users in keyset pages and checks a whole page with a few set-based
+ * queries. This recovers refreshes lost to a restart and changes made
+ * outside Hibernate.
+ */
+@Service
+@Slf4j
+public class TopMatchReadModel {
+
+    private static final TypeReference<List<MatchResultDto>> RESULT_LIST = new TypeReference<>() {
+    };
+
+    private static final Comparator<Match> BEST_FIRST = Comparator
+            .comparing(Match::getOverallScore, Comparator.nullsLast(Comparator.reverseOrder()))
+            .thenComparing(Match::getId, Comparator.reverseOrder());
+
+    private final MatchRepository matchRepository;
+    private final TopMatchViewRepository viewRepository;
+    private final MatchResultDocumentRepository documentRepository;
+    private final MatchingService matchingService;
+    private final DataVersionRegistry versions;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+    private final int topN;
+    private final int refreshBatchSize;
+
+    private final Set<Long> dirtyUsers = ConcurrentHashMap.newKeySet();
+    private final Set<Long> dirtyNeighborhoods = ConcurrentHashMap.newKeySet();
+
+    public TopMatchReadModel(MatchRepository matchRepository,
+                             TopMatchViewRepository viewRepository,
+                             MatchResultDocumentRepository documentRepository,
+                             MatchingService matchingService,
+                             DataVersionRegistry versions,
+                             ObjectMapper objectMapper,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${neighborfit.read-model.top-n:50}") int topN,
+                             @Value("${neighborfit.read-model.refresh-batch-size:200}") int refreshBatchSize) {
+        this.matchRepository = matchRepository;
+        this.viewRepository = viewRepository;
+        this.documentRepository = documentRepository;
+        this.matchingService = matchingService;
+        this.versions = versions;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        this.topN = Math.max(1, topN);
+        this.refreshBatchSize = Math.max(1, refreshBatchSize);
+    }
+
+    /**
+     * Queue the user of a committed match write for a refresh
+     */
+    @EventListener
+    public void onMatchChanged(MatchChangedEvent event) {
+        Long userId = event.userId();
+        if (userId != null) {
+            dirtyUsers.add(userId);
+        }
+        // A match moved to another user leaves a stale row behind for the old one
+        if (event.before() != null && event.after() != null && event.before().userId() != null
+                && !event.before().userId().equals(event.after().userId())) {
+            dirtyUsers.add(event.before().userId());
+        }
+    }
+
+    /**
+     * Queue the neighborhoods of a committed neighborhood write; their users are resolved on the next refresh
+     */
+    @EventListener
+    public void onNeighborhoodsChanged(NeighborhoodsChangedEvent event) {
+        dirtyNeighborhoods.addAll(event.neighborhoodIds());
+    }
+
+    /**
+     * Materialize every user with matches once the application is ready
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (viewRepository.count() == 0) {
+            List<Long> userIds = matchRepository.findDistinctUserIds();
+            dirtyUsers.addAll(userIds);
+            log.info("Queued {} users for top-matches read model backfill", userIds.size());
+        }
+    }
+
+    /**
+     * Rewrite the rows of users whose matches changed
+     */
+    @Scheduled(fixedDelayString = "${neighborfit.read-model.refresh-interval-ms:500}")
+    public void refreshDirtyUsers() {
+        if (!dirtyNeighborhoods.isEmpty()) {
+            List<Long> neighborhoodIds = new ArrayList<>(dirtyNeighborhoods);
+            dirtyNeighborhoods.removeAll(neighborhoodIds);
+            try {
+                dirtyUsers.addAll(viewRepository.findUserIdsByNeighborhoodIds(neighborhoodIds));
+            } catch (RuntimeException e) {
+                dirtyNeighborhoods.addAll(neighborhoodIds);
+                log.error("Failed to find top-matches rows of {} changed neighborhoods: {}",
+                        neighborhoodIds.size(), e.getMessage());
+                return;
+            }
+        }
+        while (!dirtyUsers.isEmpty()) {
+            List<Long> batch = new ArrayList<>(refreshBatchSize);
+            Iterator<Long> iterator = dirtyUsers.iterator();
+            while (iterator.hasNext() && batch.size() < refreshBatchSize) {
+                batch.add(iterator.next());
+                // Removed before the refresh, so writes committed during it mark the user again
+                iterator.remove();
+            }
+            try {
+                List<MatchResultDocument> documents = buildDocuments(batch);
+                transactionTemplate.executeWithoutResult(status -> {
+                    refresh(batch);
+                    documentRepository.deleteByUserIds(batch);
+                    documentRepository.saveAll(documents);
+                });
+            } catch (RuntimeException e) {
+                dirtyUsers.addAll(batch);
+                log.error("Failed to refresh top-matches read model for {} users: {}", batch.size(), e.getMessage());
+                return;
+            }
+        }
+    }
+
+    /**
+     * Queue every user whose materialized rows no longer match their current top matches
+     */
+    @Scheduled(initialDelayString = "${neighborfit.read-model.reconcile-initial-delay-ms:60000}",
+               fixedDelayString = "${neighborfit.read-model.reconcile-interval-ms:3600000}")
+    public void reconcile() {
+        long start = System.nanoTime();
+        int users = 0;
+        int stale = 0;
+        long afterId = 0L;
+        List<Long> page;
+        while (!(page = matchRepository.findDistinctUserIdsAfter(afterId, PageRequest.of(0, refreshBatchSize))).isEmpty()) {
+            stale += queueStale(page);
+            users += page.size();
+            afterId = page.get(page.size() - 1);
+        }
+        // Rows left behind by users whose matches were all deleted
+        List<Long> orphaned = viewRepository.findUserIdsWithoutMatches();
+        dirtyUsers.addAll(orphaned);
+        log.info("Reconciled top-matches read model for {} users in {} ms, {} stale",
+                users + orphaned.size(), (System.nanoTime() - start) / 1_000_000, stale + orphaned.size());
+    }
+
+    /**
+     * A user's top matches as the top-matches endpoint returns them, best first
+     *
+     * Served from the user's {@link MatchResultDocument} when its tag is
+     * current and {@code limit} is within the materialized {@code N}.
+     */
+    public List<MatchResultDto> getTopMatchResults(Long userId, int limit) {
+        if (limit > 0 && limit <= topN) {
+            MatchResultDocument document = currentDocument(userId);
+            if (document != null) {
+                List<MatchResultDto> top = fromJson(document.getTopMatches());
+                return top.size() > limit ? new ArrayList<>(top.subList(0, limit)) : top;
+            }
+        }
+        return matchingService.getTopMatchesForUser(userId, limit);
+    }
+
+    /**
+     * A user's whole match history as the history endpoint returns it
+     *
+     * Served from the user's {@link MatchResultDocument} when its tag is
+     * current and the history fits in the top {@code N}.
+     */
+    public List<MatchResultDto> getHistoryResults(Long userId) {
+        MatchResultDocument document = currentDocument(userId);
+        if (document != null && document.getHistory() != null) {
+            return fromJson(document.getHistory());
+        }
+        return matchingService.getMatchHistoryForUser(userId);
+    }
+
+    /**
+     * A user's top matches, best first
+     */
+    public List<MatchSummaryDto> getTopMatches(Long userId, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit must be positive: " + limit);
+        }
+        if (limit <= topN) {
+            List<TopMatchView> rows = viewRepository.findByUserId(userId, PageRequest.of(0, limit));
+            if (!rows.isEmpty()) {
+                return toSummaries(rows);
+            }
+            dirtyUsers.add(userId);
+        }
+        return fromMatches(userId, limit);
+    }
+
+    /**
+     * A user's whole match history, best first
+     *
+     * Served from the read model when the user has no more than {@code N}
+     * matches, which is the common case; otherwise from the match table.
+     */
+    public List<MatchSummaryDto> getHistory(Long userId) {
+        List<TopMatchView> rows = viewRepository.findByUserId(userId, PageRequest.of(0, topN));
+        if (!rows.isEmpty() && rows.get(0).getTotalMatches() <= topN) {
+            return toSummaries(rows);
+        }
+        if (rows.isEmpty()) {
+            dirtyUsers.add(userId);
+        }
+        return fromMatches(userId, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Number of users waiting for a refresh
+     */
+    public int getPendingRefreshes() {
+        return dirtyUsers.size();
+    }
+
+    private void refresh(List<Long> userIds) {
+        viewRepository.deleteByUserIds(userIds);
+        LocalDateTime now = LocalDateTime.now();
+        List<TopMatchView> rows = new ArrayList<>();
+        for (Long userId : userIds) {
+            List<Match> top = matchRepository.findTopByUserId(userId, PageRequest.of(0, topN));
+            long total = top.size() < topN ? top.size() : matchRepository.countByUserId(userId);
+            for (int rank = 0; rank < top.size(); rank++) {
+                rows.add(toView(top.get(rank), userId, rank + 1, total, now));
+            }
+        }
+        viewRepository.saveAll(rows);
+        log.debug("Refreshed top-matches read model for {} users ({} rows)", userIds.size(), rows.size());
+    }
+
+    /**
+     * Documents of the given users, built from {@link MatchingService} outside any refresh transaction
+     *
+     * Unknown users get no document, so a stale one is only deleted.
+     */
+    private List<MatchResultDocument> buildDocuments(List<Long> userIds) {
+        LocalDateTime now = LocalDateTime.now();
+        List<MatchResultDocument> documents = new ArrayList<>(userIds.size());
+        for (Long userId : userIds) {
+            // Tagged before loading, so a write committed meanwhile leaves the document looking stale, never current
+            String versionTag = versions.userValidator(userId).eTag();
+            List<MatchResultDto> top;
+            List<MatchResultDto> history;
+            try {
+                top = matchingService.getTopMatchesForUser(userId, topN);
+                history = top.size() < topN || matchRepository.countByUserId(userId) <= topN
+                        ? matchingService.getMatchHistoryForUser(userId)
+                        : null;
+            } catch (IllegalArgumentException e) {
+                continue;
+            }
+            documents.add(MatchResultDocument.builder()
+                    .userId(userId)
+                    .versionTag(versionTag)
+                    .topMatches(toJson(top))
+                    .topMatchCount(top.size())
+                    .history(history != null ? toJson(history) : null)
+                    .refreshedAt(now)
+                    .build());
+        }
+        return documents;
+    }
+
+    /**
+     * The user's document if its tag matches the user's current data version; otherwise queue a refresh
+     */
+    private MatchResultDocument currentDocument(Long userId) {
+        String versionTag = versions.userValidator(userId).eTag();
+        MatchResultDocument document = documentRepository.findById(userId).orElse(null);
+        if (document != null && document.getVersionTag().equals(versionTag)) {
+            return document;
+        }
+        dirtyUsers.add(userId);
+        return null;
+    }
+
+    private String toJson(List<MatchResultDto> results) {
+        try {
+            return objectMapper.writeValueAsString(results);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize match results: " + e.getMessage(), e);
+        }
+    }
+
+    private List<MatchResultDto> fromJson(String json) {
+        try {
+            return objectMapper.readValue(json, RESULT_LIST);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to read materialized match results: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Queue the users of a page whose rows differ from the match table, checking the page in four queries
+     */
+    private int queueStale(List<Long> userIds) {
+        List<Long> stale = readOnlyTransactionTemplate.execute(status -> {
+            Map<Long, List<Match>> top = new HashMap<>();
+            for (Match match : matchRepository.findWithNeighborhoodByIdIn(
+                    matchRepository.findTopIdsByUserIds(userIds, topN))) {
+                top.computeIfAbsent(match.getUser().getId(), id -> new ArrayList<>()).add(match);
+            }
+            Map<Long, Long> totals = new HashMap<>();
+            for (Object[] row : matchRepository.countByUserIds(userIds)) {
+                totals.put((Long) row[0], (Long) row[1]);
+            }
+            Map<Long, List<TopMatchView>> rows = new HashMap<>();
+            for (TopMatchView row : viewRepository.findByUserIdIn(userIds)) {
+                rows.computeIfAbsent(row.getUserId(), id -> new ArrayList<>()).add(row);
+            }
+            List<Long> found = new ArrayList<>();
+            for (Long userId : userIds) {
+                List<Match> expected = top.getOrDefault(userId, new ArrayList<>());
+                expected.sort(BEST_FIRST);
+                if (!isCurrent(userId, rows.getOrDefault(userId, List.of()), expected, totals.getOrDefault(userId, 0L))) {
+                    found.add(userId);
+                }
+            }
+            return found;
+        });
+        dirtyUsers.addAll(stale);
+        return stale.size();
+    }
+
+    /**
+     * Whether a user's rows equal what a refresh would write now, apart from row IDs and refresh times
+     */
+    private boolean isCurrent(Long userId, List<TopMatchView> rows, List<Match> top, long count) {
+        if (rows.size() != top.size()) {
+            return false;
+        }
+        if (top.isEmpty()) {
+            return true;
+        }
+        long total = top.size() < topN ? top.size() : count;
+        for (int rank = 0; rank < top.size(); rank++) {
+            TopMatchView row = rows.get(rank);
+            TopMatchView expected = toView(top.get(rank), userId, rank + 1, total, row.getRefreshedAt());
+            expected.setId(row.getId());
+            if (!expected.equals(row)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private List<MatchSummaryDto> fromMatches(Long userId, int limit) {
+        List<MatchSummaryDto> summaries = new ArrayList<>();
+        for (Match match : matchRepository.findTopByUserId(userId, PageRequest.of(0, limit))) {
+            summaries.add(MatchSummaryDto.from(match));
+        }
+        return summaries;
+    }
+
+    private static List<MatchSummaryDto> toSummaries(List<TopMatchView> rows) {
+        List<MatchSummaryDto> summaries = new ArrayList<>(rows.size());
+        for (TopMatchView row : rows) {
+            summaries.add(MatchSummaryDto.from(row));
+        }
+        return summaries;
+    }
+
+    private static TopMatchView toView(Match match, Long userId, int rank, long total, LocalDateTime now) {
+        Neighborhood neighborhood = match.getNeighborhood();
+        return TopMatchView.builder()
+                .userId(userId)
+                .rank(rank)
+                .totalMatches(total)
+                .matchId(match.getId())
+                .neighborhoodId(neighborhood.getId())
+                .neighborhoodName(neighborhood.getName())
+                .city(neighborhood.getCity())
+                .state(neighborhood.getState())
+                .zipCode(neighborhood.getZipCode())
+                .overallScore(match.getOverallScore())
+                .lifestyleScore(match.getLifestyleScore())
+                .demographicScore(match.getDemographicScore())
+                .locationScore(match.getLocationScore())
+                .budgetScore(match.getBudgetScore())
+                .matchStrength(match.getMatchStrength())
+                .createdAt(match.getCreatedAt())
+                .refreshedAt(now)
+                .build();
+    }
+}
@@ -0,0 +1,87 @@
+package com.neighborfit.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Materialized read model of a user's current top matches
+ *
+ * Holds one row per ranked match, denormalized with the neighborhood fields
+ * needed for display, so a user's top matches are read with a single index
+ * range scan on (user, rank) and no joins. Rows are derived from
+ * {@link Match} and rewritten asynchronously after match and neighborhood
+ * writes.
+ */
+@Entity
+@Table(name = "top_match_view", indexes = {
+    @Index(name = "idx_top_match_view_user_rank", columnList = "user_id, match_rank"),
+    @Index(name = "idx_top_match_view_neighborhood", columnList = "neighborhood_id")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TopMatchView {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "match_rank", nullable = false)
+    private Integer rank;
+
+    /**
+     * Number of matches the user had when this row was written
+     */
+    @Column(name = "total_matches", nullable = false)
+    private Long totalMatches;
+
+    @Column(name = "match_id", nullable = false)
+    private Long matchId;
+
+    @Column(name = "neighborhood_id", nullable = false)
+    private Long neighborhoodId;
+
+    @Column(name = "neighborhood_name")
+    private String neighborhoodName;
+
+    private String city;
+
+    private String state;
+
+    @Column(name = "zip_code")
+    private String zipCode;
+
+    @Column(name = "overall_score")
+    private Double overallScore;
+
+    @Column(name = "lifestyle_score")
+    private Double lifestyleScore;
+
+    @Column(name = "demographic_score")
+    private Double demographicScore;
+
+    @Column(name = "location_score")
+    private Double locationScore;
+
+    @Column(name = "budget_score")
+    private Double budgetScore;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "match_strength")
+    private Match.MatchStrength matchStrength;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @Column(name = "refreshed_at", nullable = false)
+    private LocalDateTime refreshedAt;
+}
\ No newline at end of file
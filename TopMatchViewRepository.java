@@ -0,0 +1,54 @@
+package com.neighborfit.repository;
+
+import com.neighborfit.model.TopMatchView;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository interface for the TopMatchView read model
+ *
+ * Provides ranked lookups of a user's materialized top matches and the
+ * bulk replacement used when the read model is refreshed.
+ */
+@Repository
+public interface TopMatchViewRepository extends JpaRepository<TopMatchView, Long> {
+
+    /**
+     * Find a user's materialized top matches in rank order
+     */
+    @Query("SELECT v FROM TopMatchView v WHERE v.userId = :userId ORDER BY v.rank ASC")
+    List<TopMatchView> findByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    /**
+     * Find the materialized rows of the given users, by user and rank
+     */
+    @Query("SELECT v FROM TopMatchView v WHERE v.userId IN :userIds ORDER BY v.userId ASC, v.rank ASC")
+    List<TopMatchView> findByUserIdIn(@Param("userIds") Collection<Long> userIds);
+    
+    /**
+     * Find the users with materialized rows but no matches left
+     */
+    @Query("SELECT DISTINCT v.userId FROM TopMatchView v WHERE NOT EXISTS " +
+           "(SELECT 1 FROM Match m WHERE m.user.id = v.userId)")
+    List<Long> findUserIdsWithoutMatches();
+    
+    /**
+     * Find the users with materialized rows for any of the given neighborhoods
+     */
+    @Query("SELECT DISTINCT v.userId FROM TopMatchView v WHERE v.neighborhoodId IN :neighborhoodIds")
+    List<Long> findUserIdsByNeighborhoodIds(@Param("neighborhoodIds") Collection<Long> neighborhoodIds);
+
+    /**
+     * Delete the materialized rows of the given users
+     */
+    @Modifying
+    @Query("DELETE FROM TopMatchView v WHERE v.userId IN :userIds")
+    int deleteByUserIds(@Param("userIds") Collection<Long> userIds);
+}
\ No newline at end of file
@@ -1,15 +1,24 @@
 package com.neighborfit.controller;
 
+import com.neighborfit.dto.KeysetPage;
 import com.neighborfit.dto.UserRegistrationDto;
 import com.neighborfit.model.User;
+import com.neighborfit.service.DataVersionRegistry;
+import com.neighborfit.service.IncrementalRematchService;
+import com.neighborfit.service.KeysetPaginationService;
+import com.neighborfit.service.MatchResultCache;
+import com.neighborfit.service.StreamingExportService;
 import com.neighborfit.service.UserService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import jakarta.validation.Valid;
+import java.io.IOException;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,7 +26,8 @@ import java.util.Optional;
  * REST API controller for user management
  * 
  * Provides endpoints for user registration, profile management,
- * and user data retrieval for the matching system.
+ * and user data retrieval for the matching system. Responses are JSON,
+ * or CBOR when requested with {@code Accept: application/cbor}.
  */
 @RestController
 @RequestMapping("/users")
@@ -26,7 +36,14 @@ import java.util.Optional;
 @CrossOrigin(origins = "*")
 public class UserController {
     
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    
     private final UserService userService;
+    private final StreamingExportService streamingExportService;
+    private final DataVersionRegistry dataVersions;
+    private final MatchResultCache matchResultCache;
+    private final IncrementalRematchService incrementalRematchService;
+    private final KeysetPaginationService keysetPaginationService;
     
     /**
      * Register a new user
@@ -52,7 +69,7 @@ public class UserController {
     @GetMapping("/{userId}")
     public ResponseEntity<User> getUserById(@PathVariable Long userId) {
         try {
-            log.info("Getting user by ID: {}", userId);
+            log.debug("Getting user by ID: {}", userId);
             Optional<User> user = userService.getUserById(userId);
             return user.map(ResponseEntity::ok)
                     .orElse(ResponseEntity.notFound().build());
@@ -68,7 +85,7 @@ public class UserController {
     @GetMapping("/email/{email}")
     public ResponseEntity<User> getUserByEmail(@PathVariable String email) {
         try {
-            log.info("Getting user by email: {}", email);
+            log.debug("Getting user by email: {}", email);
             Optional<User> user = userService.getUserByEmail(email);
             return user.map(ResponseEntity::ok)
                     .orElse(ResponseEntity.notFound().build());
@@ -79,20 +96,70 @@ public class UserController {
     }
     
     /**
-     * Get all users
+     * Get users, at most {@code limit} per request
+     * 
+     * The next users are fetched by passing the {@code X-Next-Cursor}
+     * response header back as {@code cursor}; the header is absent after the
+     * last user. Use the NDJSON export to read every user in one response.
      */
     @GetMapping
-    public ResponseEntity<List<User>> getAllUsers() {
+    public ResponseEntity<List<User>> getAllUsers(@RequestParam(required = false) String cursor,
+                                                  @RequestParam(defaultValue = "500") int limit) {
         try {
-            log.info("Getting all users");
-            List<User> users = userService.getAllUsers();
-            return ResponseEntity.ok(users);
+            log.debug("Getting up to {} users", limit);
+            KeysetPage<User> page = keysetPaginationService.getUsers(cursor, limit);
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (page.hasNext()) {
+                response.header(NEXT_CURSOR_HEADER, page.nextCursor());
+            }
+            return response.body(page.items());
+        } catch (IllegalArgumentException e) {
+            log.error("Invalid users request: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             log.error("Error getting all users: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
     
+    /**
+     * Get all users, streamed as newline-delimited JSON
+     */
+    @GetMapping(produces = StreamingExportService.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllUsers() {
+        log.info("Streaming all users");
+        StreamingResponseBody body = out -> {
+            try {
+                streamingExportService.streamAllUsers(out);
+            } catch (IOException | RuntimeException e) {
+                // The status is already sent, so the client sees a truncated stream
+                log.error("Streaming all users failed: {}", e.getMessage());
+                throw e;
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(StreamingExportService.APPLICATION_NDJSON_VALUE))
+                .body(body);
+    }
+    
+    /**
+     * Get a page of users
+     */
+    @GetMapping("/page")
+    public ResponseEntity<KeysetPage<User>> getUsersPage(@RequestParam(required = false) String cursor,
+                                                         @RequestParam(defaultValue = "50") int size) {
+        try {
+            log.debug("Getting page of users with size: {}", size);
+            return ResponseEntity.ok(keysetPaginationService.getUsers(cursor, size));
+        } catch (IllegalArgumentException e) {
+            log.error("Invalid page request: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            log.error("Error getting page of users: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
     /**
      * Update user profile
      */
@@ -102,6 +169,9 @@ public class UserController {
         try {
             log.info("Updating user profile for ID: {}", userId);
             User updatedUser = userService.updateUser(userId, updateDto);
+            dataVersions.userProfileChanged(userId);
+            matchResultCache.invalidateUser(userId);
+            incrementalRematchService.rematchUser(userId);
             return ResponseEntity.ok(updatedUser);
         } catch (IllegalArgumentException e) {
             log.error("User update failed: {}", e.getMessage());
@@ -120,6 +190,8 @@ public class UserController {
         try {
             log.info("Deleting user with ID: {}", userId);
             userService.deleteUser(userId);
+            dataVersions.userDeleted(userId);
+            matchResultCache.invalidateUser(userId);
             return ResponseEntity.noContent().build();
         } catch (IllegalArgumentException e) {
             log.error("User deletion failed: {}", e.getMessage());
@@ -137,7 +209,7 @@ public class UserController {
     public ResponseEntity<List<User>> getUsersByAgeRange(@RequestParam Integer minAge, 
                                                         @RequestParam Integer maxAge) {
         try {
-            log.info("Getting users by age range: {} - {}", minAge, maxAge);
+            log.debug("Getting users by age range: {} - {}", minAge, maxAge);
             List<User> users = userService.getUsersByAgeRange(minAge, maxAge);
             return ResponseEntity.ok(users);
         } catch (Exception e) {
@@ -152,7 +224,7 @@ public class UserController {
     @GetMapping("/income-level/{incomeLevel}")
     public ResponseEntity<List<User>> getUsersByIncomeLevel(@PathVariable User.IncomeLevel incomeLevel) {
         try {
-            log.info("Getting users by income level: {}", incomeLevel);
+            log.debug("Getting users by income level: {}", incomeLevel);
             List<User> users = userService.getUsersByIncomeLevel(incomeLevel);
             return ResponseEntity.ok(users);
         } catch (Exception e) {
@@ -167,7 +239,7 @@ public class UserController {
     @GetMapping("/family-status/{familyStatus}")
     public ResponseEntity<List<User>> getUsersByFamilyStatus(@PathVariable User.FamilyStatus familyStatus) {
         try {
-            log.info("Getting users by family status: {}", familyStatus);
+            log.debug("Getting users by family status: {}", familyStatus);
             List<User> users = userService.getUsersByFamilyStatus(familyStatus);
             return ResponseEntity.ok(users);
         } catch (Exception e) {
@@ -182,7 +254,7 @@ public class UserController {
     @GetMapping("/location-type/{locationType}")
     public ResponseEntity<List<User>> getUsersByLocationType(@PathVariable User.LocationType locationType) {
         try {
-            log.info("Getting users by location type: {}", locationType);
+            log.debug("Getting users by location type: {}", locationType);
             List<User> users = userService.getUsersByLocationType(locationType);
             return ResponseEntity.ok(users);
         } catch (Exception e) {
@@ -197,7 +269,7 @@ public class UserController {
     @GetMapping("/{userId}/validate-matching")
     public ResponseEntity<Boolean> validateUserForMatching(@PathVariable Long userId) {
         try {
-            log.info("Validating user for matching: {}", userId);
+            log.debug("Validating user for matching: {}", userId);
             Optional<User> user = userService.getUserById(userId);
             if (user.isPresent()) {
                 boolean isValid = userService.validateUserForMatching(user.get());
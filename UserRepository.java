@@ -1,11 +1,13 @@
 package com.neighborfit.repository;
 
 import com.neighborfit.model.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -28,6 +30,11 @@ public interface UserRepository extends JpaRepository<User, Long> {
      */
     boolean existsByEmail(String email);
     
+    /**
+     * Find users by any of the given emails
+     */
+    List<User> findByEmailIn(Collection<String> emails);
+    
     /**
      * Find users by age range
      */
@@ -41,7 +48,7 @@ public interface UserRepository extends JpaRepository<User, Long> {
     /**
      * Find users by lifestyle preferences
      */
-    @Query("SELECT u FROM User u JOIN u.lifestylePreferences lp WHERE lp IN :preferences")
+    @Query("SELECT DISTINCT u FROM User u JOIN u.lifestylePreferences lp WHERE lp IN :preferences")
     List<User> findByLifestylePreferences(@Param("preferences") List<User.LifestylePreference> preferences);
     
     /**
@@ -73,4 +80,16 @@ public interface UserRepository extends JpaRepository<User, Long> {
         @Param("incomeLevel") User.IncomeLevel incomeLevel,
         @Param("familyStatus") User.FamilyStatus familyStatus
     );
+    
+    /**
+     * Find the next page of users after the given ID, ordered by ID
+     */
+    @Query("SELECT u FROM User u WHERE u.id > :afterId ORDER BY u.id ASC")
+    List<User> findNextPageAfterId(@Param("afterId") Long afterId, Pageable pageable);
+    
+    /**
+     * Find the IDs of the next page of users after the given ID, in ID order
+     */
+    @Query("SELECT u.id FROM User u WHERE u.id > :afterId ORDER BY u.id ASC")
+    List<Long> findNextIdsAfterId(@Param("afterId") Long afterId, Pageable pageable);
 } 
\ No newline at end of file
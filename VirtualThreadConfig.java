@@ -0,0 +1,72 @@
+package com.neighborfit.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.scheduling.annotation.AsyncAnnotationBeanPostProcessor;
+
+import java.util.concurrent.Executors;
+
+/**
+ * Virtual-thread execution mode
+ * 
+ * Enabled with {@code neighborfit.threads.virtual=true}. Tomcat request
+ * handling, {@code @Async} methods and other work on the application task
+ * executor then run on virtual threads, so requests blocked on JDBC no longer
+ * pin a platform thread each. With thread count no longer limiting
+ * concurrency, the JDBC pool becomes the limit and is sized explicitly.
+ * CPU-bound bulk scoring keeps its fork-join pool.
+ */
+@Configuration
+@ConditionalOnProperty(name = "neighborfit.threads.virtual", havingValue = "true")
+@Slf4j
+public class VirtualThreadConfig {
+    
+    /**
+     * Run every Tomcat request on its own virtual thread
+     */
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+        return protocolHandler -> protocolHandler.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+    }
+    
+    /**
+     * Run {@code @Async} methods and application tasks on virtual threads
+     */
+    @Bean(name = {TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME,
+                  AsyncAnnotationBeanPostProcessor.DEFAULT_TASK_EXECUTOR_BEAN_NAME})
+    public AsyncTaskExecutor virtualThreadTaskExecutor() {
+        return new TaskExecutorAdapter(Executors.newVirtualThreadPerTaskExecutor());
+    }
+    
+    /**
+     * Size the JDBC pool for unbounded request concurrency
+     */
+    @Bean
+    public static BeanPostProcessor virtualThreadDataSourceSizer(
+            @Value("${neighborfit.threads.jdbc.max-pool-size:0}") int maxPoolSize,
+            @Value("${neighborfit.threads.jdbc.connection-timeout-ms:5000}") long connectionTimeoutMs) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+                if (bean instanceof HikariDataSource dataSource) {
+                    // Connections should track cores, not request count; waiters queue inside Hikari
+                    int size = maxPoolSize > 0 ? maxPoolSize : Runtime.getRuntime().availableProcessors() * 2 + 1;
+                    dataSource.setMaximumPoolSize(size);
+                    dataSource.setConnectionTimeout(connectionTimeoutMs);
+                    log.info("Virtual thread mode: JDBC pool sized to {} connections", size);
+                }
+                return bean;
+            }
+        };
+    }
+} 
\ No newline at end of file
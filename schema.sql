@@ -0,0 +1,39 @@
+-- Supporting indexes for the match and neighborhood repository queries, and seed rows
+--
+-- Runs after Hibernate has created the tables, see
+-- spring.jpa.defer-datasource-initialization. RepositoryQueryPlanTest checks
+-- that the queries use these indexes. On a shared PostgreSQL database, apply the same
+-- statements as a migration with CREATE INDEX CONCURRENTLY instead, so that
+-- writes are not blocked while an index builds.
+
+-- History, top matches and keyset pages per user
+CREATE INDEX IF NOT EXISTS idx_match_user_score ON matches (user_id, overall_score DESC);
+-- Matches of a neighborhood, for re-scoring and neighborhood analytics
+CREATE INDEX IF NOT EXISTS idx_match_neighborhood_score ON matches (neighborhood_id, overall_score DESC);
+-- Matches by strength, best first
+CREATE INDEX IF NOT EXISTS idx_match_strength_score ON matches (match_strength, overall_score DESC);
+-- Score range pages
+CREATE INDEX IF NOT EXISTS idx_match_score ON matches (overall_score DESC);
+-- Recent matches
+CREATE INDEX IF NOT EXISTS idx_match_created_at ON matches (created_at DESC);
+-- Component score pages
+CREATE INDEX IF NOT EXISTS idx_match_lifestyle_score ON matches (lifestyle_score DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_match_demographic_score ON matches (demographic_score DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_match_location_score ON matches (location_score DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_match_budget_score ON matches (budget_score DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS idx_neighborhood_city_state ON neighborhoods (city, state);
+CREATE INDEX IF NOT EXISTS idx_neighborhood_zip_code ON neighborhoods (zip_code);
+CREATE INDEX IF NOT EXISTS idx_neighborhood_income ON neighborhoods (median_income);
+CREATE INDEX IF NOT EXISTS idx_neighborhood_home_value ON neighborhoods (median_home_value);
+CREATE INDEX IF NOT EXISTS idx_neighborhood_rent ON neighborhoods (median_rent);
+CREATE INDEX IF NOT EXISTS idx_neighborhood_crime_rate ON neighborhoods (crime_rate);
+CREATE INDEX IF NOT EXISTS idx_neighborhood_safety_score ON neighborhoods (safety_score);
+CREATE INDEX IF NOT EXISTS idx_neighborhood_walk_score ON neighborhoods (walk_score);
+CREATE INDEX IF NOT EXISTS idx_neighborhood_transit_score ON neighborhoods (transit_score);
+CREATE INDEX IF NOT EXISTS idx_neighborhood_lat_lng ON neighborhoods (latitude, longitude);
+
+-- Seed the neighborhoods change sequence, so that NeighborhoodChangeTracker only
+-- ever updates it and concurrent first writers cannot race to insert the row
+INSERT INTO change_sequence (name, sequence_value)
+SELECT 'neighborhoods', 0 WHERE NOT EXISTS (SELECT 1 FROM change_sequence WHERE name = 'neighborhoods');